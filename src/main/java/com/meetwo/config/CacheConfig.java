@@ -0,0 +1,35 @@
+package com.meetwo.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CITY_MATCHES_CACHE = "cityMatches";
+
+    @Value("${app.cache.city-matches.ttl:30s}")
+    private Duration cityMatchesTtl;
+
+    @Value("${app.cache.city-matches.max-size:1000}")
+    private long cityMatchesMaxSize;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Pages de matches par ville : légèrement périmées au plus de la durée de vie configurée
+        cacheManager.registerCustomCache(CITY_MATCHES_CACHE, Caffeine.newBuilder()
+                .expireAfterWrite(cityMatchesTtl)
+                .maximumSize(cityMatchesMaxSize)
+                .build());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,33 @@
+package com.meetwo.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Type de la base de données courante, pour les fonctionnalités propres à Postgres
+ * (partitionnement et recherche plein texte des messages) qui sont ignorées sur H2.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatabasePlatform {
+
+    private static final String POSTGRES_PRODUCT_NAME = "PostgreSQL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean isPostgres() {
+        try {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            return POSTGRES_PRODUCT_NAME.equals(product);
+        } catch (DataAccessException e) {
+            log.warn("Impossible de déterminer le type de base de données: {}", e.getMessage());
+            return false;
+        }
+    }
+}
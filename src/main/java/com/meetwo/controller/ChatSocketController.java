@@ -0,0 +1,36 @@
+package com.meetwo.controller;
+
+import com.meetwo.dto.request.TypingRequest;
+import com.meetwo.service.LikeService;
+import com.meetwo.service.realtime.RealtimeNotifier;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+/**
+ * Trames STOMP envoyées par les clients (préfixe /app). Les messages eux-mêmes passent par l'API REST.
+ */
+@Slf4j
+@Controller
+@RequiredArgsConstructor
+public class ChatSocketController {
+
+    private final LikeService likeService;
+    private final RealtimeNotifier realtimeNotifier;
+
+    // Indicateur de saisie, relayé uniquement entre utilisateurs qui ont matché
+    @MessageMapping("/typing")
+    public void typing(@Valid @Payload TypingRequest request, Principal principal) {
+        Long userId = Long.valueOf(principal.getName());
+        if (!likeService.isMatch(userId, request.getReceiverId())) {
+            log.debug("Indicateur de saisie ignoré de {} vers {} (pas de match)", userId, request.getReceiverId());
+            return;
+        }
+        realtimeNotifier.sendTyping(userId, request.getReceiverId(), request.isTyping());
+    }
+}
@@ -1,10 +1,17 @@
 package com.meetwo.controller;
 
+import com.meetwo.dto.request.BulkSwipeRequest;
 import com.meetwo.dto.request.CreateLikeRequest;
 import com.meetwo.dto.request.UpdateLikeRequest;
+import com.meetwo.dto.response.BulkSwipeResponse;
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.LikeGraphConsistencyResponse;
 import com.meetwo.dto.response.LikeResponse;
 import com.meetwo.dto.response.MatchResponse;
 import com.meetwo.dto.response.LikeStatsResponse;
+import com.meetwo.dto.response.MatchPairResponse;
+import com.meetwo.dto.response.OutboxReplayResponse;
+import com.meetwo.enums.Gender;
 import com.meetwo.service.LikeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -63,6 +70,39 @@ public class LikeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(like);
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Swipes en lot",
+            description = "Enregistre un lot de swipes (likes et passes) d'un utilisateur, par exemple les swipes mis en file hors ligne. " +
+                    "Retourne un résultat par swipe, avec l'indication de match")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lot traité",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkSwipeResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Lot vide, trop grand ou invalide"),
+            @ApiResponse(responseCode = "404", description = "Utilisateur qui swipe non trouvé")
+    })
+    public ResponseEntity<BulkSwipeResponse> bulkSwipe(@Valid @RequestBody BulkSwipeRequest request) {
+        BulkSwipeResponse response = likeService.bulkSwipe(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/pass")
+    @Operation(summary = "Passer un profil",
+            description = "Enregistre un swipe négatif : le profil ne sera plus proposé en découverte")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Profil passé"),
+            @ApiResponse(responseCode = "400", description = "Un utilisateur ne peut pas se passer lui-même"),
+            @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
+    })
+    public ResponseEntity<Void> passUser(
+            @Parameter(description = "ID de l'utilisateur qui swipe", required = true)
+            @RequestParam Long userId,
+            @Parameter(description = "ID de l'utilisateur passé", required = true)
+            @RequestParam Long passedUserId) {
+        likeService.passUser(userId, passedUserId);
+        return ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Mettre à jour un like", description = "Met à jour les informations d'un like")
     @ApiResponses(value = {
@@ -94,27 +134,39 @@ public class LikeController {
 
     @GetMapping("/given/user/{userId}")
     @Operation(summary = "Likes donnés par un utilisateur",
-            description = "Récupère tous les likes donnés par un utilisateur")
+            description = "Récupère les likes donnés par un utilisateur, du plus récent au plus ancien, page par page")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Likes récupérés",
+            @ApiResponse(responseCode = "200", description = "Page de likes récupérée",
                     content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Curseur invalide"),
             @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
     })
-    public ResponseEntity<List<LikeResponse>> getLikesGivenByUser(@PathVariable Long userId) {
-        List<LikeResponse> likes = likeService.getLikesGivenByUser(userId);
+    public ResponseEntity<CursorPageResponse<LikeResponse>> getLikesGivenByUser(
+            @PathVariable Long userId,
+            @Parameter(description = "Curseur renvoyé par la page précédente (absent pour la première page)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Nombre de likes par page (plafonné côté serveur)", example = "20")
+            @RequestParam(required = false) Integer size) {
+        CursorPageResponse<LikeResponse> likes = likeService.getLikesGivenByUser(userId, cursor, size);
         return ResponseEntity.ok(likes);
     }
 
     @GetMapping("/received/user/{userId}")
     @Operation(summary = "Likes reçus par un utilisateur",
-            description = "Récupère tous les likes reçus par un utilisateur")
+            description = "Récupère les likes reçus par un utilisateur, du plus récent au plus ancien, page par page")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Likes récupérés",
+            @ApiResponse(responseCode = "200", description = "Page de likes récupérée",
                     content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Curseur invalide"),
             @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
     })
-    public ResponseEntity<List<LikeResponse>> getLikesReceivedByUser(@PathVariable Long userId) {
-        List<LikeResponse> likes = likeService.getLikesReceivedByUser(userId);
+    public ResponseEntity<CursorPageResponse<LikeResponse>> getLikesReceivedByUser(
+            @PathVariable Long userId,
+            @Parameter(description = "Curseur renvoyé par la page précédente (absent pour la première page)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Nombre de likes par page (plafonné côté serveur)", example = "20")
+            @RequestParam(required = false) Integer size) {
+        CursorPageResponse<LikeResponse> likes = likeService.getLikesReceivedByUser(userId, cursor, size);
         return ResponseEntity.ok(likes);
     }
 
@@ -165,6 +217,23 @@ public class LikeController {
         return ResponseEntity.ok(hasLiked);
     }
 
+    @GetMapping("/check-pass")
+    @Operation(summary = "Vérifier une passe",
+            description = "Vérifie si un utilisateur a déjà passé le profil d'un autre utilisateur")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Vérification effectuée",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Boolean.class)))
+    })
+    public ResponseEntity<Boolean> hasUserPassed(
+            @Parameter(description = "ID de l'utilisateur qui swipe", required = true)
+            @RequestParam Long userId,
+            @Parameter(description = "ID de l'utilisateur passé", required = true)
+            @RequestParam Long passedUserId) {
+        boolean hasPassed = likeService.hasUserPassed(userId, passedUserId);
+        return ResponseEntity.ok(hasPassed);
+    }
+
     @DeleteMapping
     @Operation(summary = "Supprimer un like (unlike)",
             description = "Supprime un like entre deux utilisateurs")
@@ -220,15 +289,20 @@ public class LikeController {
 
     @GetMapping("/top-users")
     @Operation(summary = "Utilisateurs les plus populaires",
-            description = "Récupère les utilisateurs les plus likés")
+            description = "Récupère les utilisateurs les plus likés à partir du classement précalculé, " +
+                    "éventuellement pour une ville et/ou un genre")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Top utilisateurs récupérés",
                     content = @Content(mediaType = "application/json"))
     })
     public ResponseEntity<List<MatchResponse>> getTopLikedUsers(
             @Parameter(description = "Nombre d'utilisateurs à récupérer", example = "10")
-            @RequestParam(defaultValue = "10") int limit) {
-        List<MatchResponse> topUsers = likeService.getTopLikedUsers(limit);
+            @RequestParam(defaultValue = "10") int limit,
+            @Parameter(description = "Ville (optionnel)", example = "Paris")
+            @RequestParam(required = false) String city,
+            @Parameter(description = "Genre (optionnel)", example = "FEMME")
+            @RequestParam(required = false) Gender gender) {
+        List<MatchResponse> topUsers = likeService.getTopLikedUsers(limit, city, gender);
         return ResponseEntity.ok(topUsers);
     }
 
@@ -289,16 +363,65 @@ public class LikeController {
 
     @GetMapping("/matches/city/{city}")
     @Operation(summary = "Matches par ville",
-            description = "Récupère les matches dans une ville spécifique")
+            description = "Récupère une page des matches entre utilisateurs d'une même ville " +
+                    "(chaque paire une seule fois, les plus récents d'abord)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Matches récupérés",
-                    content = @Content(mediaType = "application/json"))
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Curseur invalide")
     })
-    public ResponseEntity<List<MatchResponse>> getMatchesByCity(@PathVariable String city) {
-        List<MatchResponse> matches = likeService.getMatchesByCity(city);
+    public ResponseEntity<CursorPageResponse<MatchPairResponse>> getMatchesByCity(
+            @PathVariable String city,
+            @Parameter(description = "Curseur retourné par la page précédente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page", example = "20")
+            @RequestParam(required = false) Integer size) {
+        CursorPageResponse<MatchPairResponse> matches = likeService.getMatchesByCity(city, cursor, size);
         return ResponseEntity.ok(matches);
     }
 
+    @PostMapping("/outbox/replay")
+    @Operation(summary = "Rejouer l'outbox des likes",
+            description = "Remet en attente un événement en échec ou en attente (eventId) ou, sans paramètre, " +
+                    "tous les événements en échec ; un événement déjà traité n'est jamais rejoué")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Événements remis en attente",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = OutboxReplayResponse.class)))
+    })
+    public ResponseEntity<OutboxReplayResponse> replayOutbox(
+            @Parameter(description = "ID de l'événement à rejouer (optionnel)")
+            @RequestParam(required = false) Long eventId) {
+        OutboxReplayResponse response = likeService.replayOutbox(eventId);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/graph-index/consistency")
+    @Operation(summary = "Cohérence de l'index des likes",
+            description = "Compare l'index mémoire des likes avec la base, sans le modifier")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Vérification effectuée",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = LikeGraphConsistencyResponse.class)))
+    })
+    public ResponseEntity<LikeGraphConsistencyResponse> checkLikeGraphConsistency() {
+        LikeGraphConsistencyResponse consistency = likeService.checkLikeGraphConsistency(false);
+        return ResponseEntity.ok(consistency);
+    }
+
+    @PostMapping("/graph-index/repair")
+    @Operation(summary = "Réparer l'index des likes",
+            description = "Vérifie l'index mémoire des likes et le reconstruit depuis la base en cas d'incohérence")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Vérification effectuée (et index reconstruit si nécessaire)",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = LikeGraphConsistencyResponse.class)))
+    })
+    public ResponseEntity<LikeGraphConsistencyResponse> repairLikeGraph() {
+        LikeGraphConsistencyResponse consistency = likeService.checkLikeGraphConsistency(true);
+        return ResponseEntity.ok(consistency);
+    }
+
     @DeleteMapping("/user/{userId}/all")
     @Operation(summary = "Supprimer tous les likes d'un utilisateur",
             description = "Supprime tous les likes d'un utilisateur (lors de suppression de compte)")
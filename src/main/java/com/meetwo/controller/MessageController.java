@@ -1,9 +1,14 @@
 package com.meetwo.controller;
 
 import com.meetwo.dto.request.CreateMessageRequest;
+import com.meetwo.dto.request.MarkConversationsReadRequest;
 import com.meetwo.dto.request.UpdateMessageRequest;
+import com.meetwo.dto.response.MessagePurgeStatsResponse;
+import com.meetwo.dto.response.MessageSendPipelineStatsResponse;
 import com.meetwo.dto.response.MessageResponse;
 import com.meetwo.dto.response.ConversationResponse;
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.MessageSearchResponse;
 import com.meetwo.dto.response.MessageStatsResponse;
 import com.meetwo.service.MessageService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -96,18 +101,27 @@ public class MessageController {
 
     @GetMapping("/conversation")
     @Operation(summary = "Récupérer une conversation",
-            description = "Récupère tous les messages entre deux utilisateurs")
+            description = "Récupère une page de messages visibles par userId1, en ordre chronologique. " +
+                    "Sans curseur : les messages les plus récents ; before : remonte l'historique ; " +
+                    "after : récupère les messages arrivés depuis")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Conversation récupérée",
+            @ApiResponse(responseCode = "200", description = "Page de messages récupérée",
                     content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Curseur invalide"),
             @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
     })
-    public ResponseEntity<List<MessageResponse>> getConversation(
-            @Parameter(description = "ID du premier utilisateur", required = true)
+    public ResponseEntity<CursorPageResponse<MessageResponse>> getConversation(
+            @Parameter(description = "ID de l'utilisateur qui consulte la conversation", required = true)
             @RequestParam Long userId1,
-            @Parameter(description = "ID du second utilisateur", required = true)
-            @RequestParam Long userId2) {
-        List<MessageResponse> messages = messageService.getConversation(userId1, userId2);
+            @Parameter(description = "ID de l'autre utilisateur", required = true)
+            @RequestParam Long userId2,
+            @Parameter(description = "Curseur : messages plus anciens (nextCursor de la première page ou d'une page before)")
+            @RequestParam(required = false) String before,
+            @Parameter(description = "Curseur : messages plus récents (previousCursor de la première page ou nextCursor d'une page after)")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Nombre de messages par page (plafonné côté serveur)", example = "50")
+            @RequestParam(required = false) Integer size) {
+        CursorPageResponse<MessageResponse> messages = messageService.getConversation(userId1, userId2, before, after, size);
         return ResponseEntity.ok(messages);
     }
 
@@ -132,14 +146,20 @@ public class MessageController {
 
     @GetMapping("/conversations/user/{userId}")
     @Operation(summary = "Conversations d'un utilisateur",
-            description = "Récupère toutes les conversations d'un utilisateur")
+            description = "Récupère les conversations d'un utilisateur, de la plus récente à la plus ancienne, page par page")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Conversations récupérées",
+            @ApiResponse(responseCode = "200", description = "Page de conversations récupérée",
                     content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Curseur invalide"),
             @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
     })
-    public ResponseEntity<List<ConversationResponse>> getUserConversations(@PathVariable Long userId) {
-        List<ConversationResponse> conversations = messageService.getUserConversations(userId);
+    public ResponseEntity<CursorPageResponse<ConversationResponse>> getUserConversations(
+            @PathVariable Long userId,
+            @Parameter(description = "Curseur renvoyé par la page précédente (absent pour la première page)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Nombre de conversations par page (plafonné côté serveur)", example = "20")
+            @RequestParam(required = false) Integer size) {
+        CursorPageResponse<ConversationResponse> conversations = messageService.getUserConversations(userId, cursor, size);
         return ResponseEntity.ok(conversations);
     }
 
@@ -170,6 +190,23 @@ public class MessageController {
         return ResponseEntity.ok().build();
     }
 
+    @PutMapping("/conversations/read")
+    @Operation(summary = "Marquer des conversations comme lues",
+            description = "Marque en une seule écriture plusieurs conversations comme lues, " +
+                    "ou toutes les conversations de l'utilisateur si aucun interlocuteur n'est donné. " +
+                    "Retourne le nombre de conversations qui avaient des messages non lus")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Conversations marquées comme lues",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Integer.class))),
+            @ApiResponse(responseCode = "400", description = "Lot invalide ou trop grand"),
+            @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
+    })
+    public ResponseEntity<Integer> markConversationsAsRead(@Valid @RequestBody MarkConversationsReadRequest request) {
+        int count = messageService.markConversationsAsRead(request);
+        return ResponseEntity.ok(count);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Supprimer un message", description = "Supprime un message pour l'utilisateur")
     @ApiResponses(value = {
@@ -280,17 +317,22 @@ public class MessageController {
 
     @GetMapping("/search/user/{userId}")
     @Operation(summary = "Rechercher dans les messages",
-            description = "Recherche dans les messages d'un utilisateur par contenu")
+            description = "Recherche plein texte dans les messages d'un utilisateur, triée par pertinence, page par page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Résultats de recherche récupérés",
                     content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Terme de recherche trop court ou page invalide"),
             @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
     })
-    public ResponseEntity<List<MessageResponse>> searchMessages(
+    public ResponseEntity<MessageSearchResponse> searchMessages(
             @PathVariable Long userId,
-            @Parameter(description = "Terme de recherche", required = true)
-            @RequestParam String searchTerm) {
-        List<MessageResponse> messages = messageService.searchMessages(userId, searchTerm);
+            @Parameter(description = "Terme de recherche (mots, \"expression exacte\", -exclusion)", required = true)
+            @RequestParam String searchTerm,
+            @Parameter(description = "Numéro de page (à partir de 0)", example = "0")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Nombre de résultats par page (plafonné côté serveur)", example = "20")
+            @RequestParam(required = false) Integer size) {
+        MessageSearchResponse messages = messageService.searchMessages(userId, searchTerm, page, size);
         return ResponseEntity.ok(messages);
     }
 
@@ -322,4 +364,29 @@ public class MessageController {
         messageService.deleteAllMessagesForUser(userId);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    @GetMapping("/cleanup/stats")
+    @Operation(summary = "Progression de la purge des messages",
+            description = "Statistiques de la purge planifiée (messages supprimés des deux côtés et messages expirés)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistiques récupérées",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = MessagePurgeStatsResponse.class)))
+    })
+    public ResponseEntity<MessagePurgeStatsResponse> getPurgeStats() {
+        return ResponseEntity.ok(messageService.getPurgeStats());
+    }
+
+    @GetMapping("/pipeline/stats")
+    @Operation(summary = "Statistiques du pipeline d'envoi",
+            description = "Taille des lots, latence de confirmation et débit du pipeline d'envoi des messages " +
+                    "depuis le démarrage de l'instance")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistiques récupérées",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = MessageSendPipelineStatsResponse.class)))
+    })
+    public ResponseEntity<MessageSendPipelineStatsResponse> getSendPipelineStats() {
+        return ResponseEntity.ok(messageService.getSendPipelineStats());
+    }
+}
@@ -2,9 +2,14 @@ package com.meetwo.controller;
 
 import com.meetwo.dto.request.CreateUserRequest;
 import com.meetwo.dto.request.UpdateUserRequest;
+import com.meetwo.dto.request.UserSearchRequest;
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.NearbyUserResponse;
 import com.meetwo.dto.response.UserResponse;
 import com.meetwo.enums.Gender;
+import com.meetwo.enums.RelationshipType;
 import com.meetwo.service.UserService;
+import com.meetwo.service.discovery.DiscoveryFilter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,6 +19,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -112,22 +118,29 @@ public class UserController {
 
     @GetMapping
     @Operation(
-            summary = "Récupérer tous les utilisateurs",
-            description = "Retourne la liste complète de tous les utilisateurs inscrits"
+            summary = "Rechercher des utilisateurs",
+            description = "Retourne une page d'utilisateurs correspondant aux critères combinés (tous facultatifs), " +
+                    "triés par date d'inscription, avec pagination par curseur et taille de page bornée"
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Liste des utilisateurs récupérée avec succès",
+                    description = "Page d'utilisateurs récupérée",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = UserResponse.class)
+                            schema = @Schema(implementation = CursorPageResponse.class)
                     )
-            )
+            ),
+            @ApiResponse(responseCode = "400", description = "Critères ou curseur invalides")
     })
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<UserResponse> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<CursorPageResponse<UserResponse>> searchUsers(
+            @Valid @ParameterObject UserSearchRequest criteria,
+            @Parameter(description = "Curseur retourné par la page précédente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page", example = "20")
+            @RequestParam(required = false) Integer size) {
+        CursorPageResponse<UserResponse> page = userService.searchUsers(criteria, cursor, size);
+        return ResponseEntity.ok(page);
     }
 
     @PutMapping("/{id}")
@@ -184,6 +197,114 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/{id}/discovery")
+    @Operation(
+            summary = "Profils à découvrir",
+            description = "Retourne une page de profils à proposer, classés par intérêts communs et récence, " +
+                    "hors profils déjà likés ou passés (pagination par curseur)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Page de profils récupérée",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPageResponse.class)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Curseur ou tranche d'âge invalide"),
+            @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
+    })
+    public ResponseEntity<CursorPageResponse<UserResponse>> getDiscoveryCandidates(
+            @Parameter(description = "ID de l'utilisateur", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Genre recherché", schema = @Schema(type = "string", allowableValues = {"HOMME", "FEMME"}))
+            @RequestParam(required = false) Gender gender,
+            @Parameter(description = "Type de relation recherché")
+            @RequestParam(required = false) RelationshipType relationshipType,
+            @Parameter(description = "Âge minimum", example = "25")
+            @RequestParam(required = false) Integer minAge,
+            @Parameter(description = "Âge maximum", example = "35")
+            @RequestParam(required = false) Integer maxAge,
+            @Parameter(description = "Ville", example = "Paris")
+            @RequestParam(required = false) String city,
+            @Parameter(description = "Curseur retourné par la page précédente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page", example = "20")
+            @RequestParam(required = false) Integer size) {
+        DiscoveryFilter filter = new DiscoveryFilter(gender, relationshipType, minAge, maxAge, city);
+        CursorPageResponse<UserResponse> page = userService.getDiscoveryCandidates(id, filter, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/{id}/similar")
+    @Operation(
+            summary = "Profils aux intérêts similaires",
+            description = "Retourne les profils partageant le plus d'intérêts avec l'utilisateur (indice de Jaccard), " +
+                    "éventuellement dans une ville, en nombre borné"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Profils récupérés",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = UserResponse.class)
+                    )
+            ),
+            @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
+    })
+    public ResponseEntity<List<UserResponse>> findUsersWithSimilarInterests(
+            @Parameter(description = "ID de l'utilisateur", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Ville", example = "Paris")
+            @RequestParam(required = false) String city,
+            @Parameter(description = "Nombre de profils", example = "20")
+            @RequestParam(required = false) Integer size) {
+        List<UserResponse> users = userService.findUsersWithSimilarInterests(id, city, size);
+        return ResponseEntity.ok(users);
+    }
+
+    @GetMapping("/{id}/nearby")
+    @Operation(
+            summary = "Profils à proximité",
+            description = "Retourne les profils situés dans un rayon donné autour de la position de l'utilisateur, " +
+                    "du plus proche au plus éloigné, hors profils déjà likés ou passés (pagination par curseur)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Page de profils à proximité récupérée",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPageResponse.class)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Utilisateur sans position, curseur ou tranche d'âge invalide"),
+            @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé")
+    })
+    public ResponseEntity<CursorPageResponse<NearbyUserResponse>> findNearbyUsers(
+            @Parameter(description = "ID de l'utilisateur", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Rayon de recherche en kilomètres", example = "10")
+            @RequestParam(required = false) Double radiusKm,
+            @Parameter(description = "Genre recherché", schema = @Schema(type = "string", allowableValues = {"HOMME", "FEMME"}))
+            @RequestParam(required = false) Gender gender,
+            @Parameter(description = "Type de relation recherché")
+            @RequestParam(required = false) RelationshipType relationshipType,
+            @Parameter(description = "Âge minimum", example = "25")
+            @RequestParam(required = false) Integer minAge,
+            @Parameter(description = "Âge maximum", example = "35")
+            @RequestParam(required = false) Integer maxAge,
+            @Parameter(description = "Curseur retourné par la page précédente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page", example = "20")
+            @RequestParam(required = false) Integer size) {
+        DiscoveryFilter filter = new DiscoveryFilter(gender, relationshipType, minAge, maxAge, null);
+        CursorPageResponse<NearbyUserResponse> page = userService.findNearbyUsers(id, radiusKm, filter, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/search/city/{city}")
     @Operation(
             summary = "Rechercher des utilisateurs par ville",
@@ -192,18 +313,24 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Liste des utilisateurs de la ville récupérée",
+                    description = "Page des utilisateurs de la ville récupérée",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = UserResponse.class)
+                            schema = @Schema(implementation = CursorPageResponse.class)
                     )
             )
     })
-    public ResponseEntity<List<UserResponse>> getUsersByCity(
+    public ResponseEntity<CursorPageResponse<UserResponse>> getUsersByCity(
             @Parameter(description = "Nom de la ville", example = "Paris")
-            @PathVariable String city) {
-        List<UserResponse> users = userService.getUsersByCity(city);
-        return ResponseEntity.ok(users);
+            @PathVariable String city,
+            @Parameter(description = "Curseur retourné par la page précédente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page", example = "20")
+            @RequestParam(required = false) Integer size) {
+        UserSearchRequest criteria = activeUsers();
+        criteria.setCity(city);
+        CursorPageResponse<UserResponse> page = userService.searchUsers(criteria, cursor, size);
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/search/gender/{gender}")
@@ -214,10 +341,10 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Liste des utilisateurs du genre spécifié",
+                    description = "Page des utilisateurs du genre spécifié",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = UserResponse.class)
+                            schema = @Schema(implementation = CursorPageResponse.class)
                     )
             ),
             @ApiResponse(
@@ -225,15 +352,21 @@ public class UserController {
                     description = "Genre invalide. Valeurs acceptées: HOMME, FEMME"
             )
     })
-    public ResponseEntity<List<UserResponse>> getUsersByGender(
+    public ResponseEntity<CursorPageResponse<UserResponse>> getUsersByGender(
             @Parameter(
                     description = "Genre de l'utilisateur",
                     example = "HOMME",
                     schema = @Schema(type = "string", allowableValues = {"HOMME", "FEMME"})
             )
-            @PathVariable Gender gender) {
-        List<UserResponse> users = userService.getUsersByGender(gender);
-        return ResponseEntity.ok(users);
+            @PathVariable Gender gender,
+            @Parameter(description = "Curseur retourné par la page précédente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page", example = "20")
+            @RequestParam(required = false) Integer size) {
+        UserSearchRequest criteria = activeUsers();
+        criteria.setGender(gender);
+        CursorPageResponse<UserResponse> page = userService.searchUsers(criteria, cursor, size);
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/search/age-range")
@@ -244,10 +377,10 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Liste des utilisateurs dans la tranche d'âge",
+                    description = "Page des utilisateurs dans la tranche d'âge",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = UserResponse.class)
+                            schema = @Schema(implementation = CursorPageResponse.class)
                     )
             ),
             @ApiResponse(
@@ -255,13 +388,20 @@ public class UserController {
                     description = "Paramètres d'âge invalides"
             )
     })
-    public ResponseEntity<List<UserResponse>> getUsersByAgeRange(
+    public ResponseEntity<CursorPageResponse<UserResponse>> getUsersByAgeRange(
             @Parameter(description = "Âge minimum", example = "25")
             @RequestParam int minAge,
             @Parameter(description = "Âge maximum", example = "35")
-            @RequestParam int maxAge) {
-        List<UserResponse> users = userService.getUsersByAgeRange(minAge, maxAge);
-        return ResponseEntity.ok(users);
+            @RequestParam int maxAge,
+            @Parameter(description = "Curseur retourné par la page précédente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page", example = "20")
+            @RequestParam(required = false) Integer size) {
+        UserSearchRequest criteria = activeUsers();
+        criteria.setMinAge(minAge);
+        criteria.setMaxAge(maxAge);
+        CursorPageResponse<UserResponse> page = userService.searchUsers(criteria, cursor, size);
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/check/username/{username}")
@@ -307,4 +447,11 @@ public class UserController {
         boolean exists = userService.existsByEmail(email);
         return ResponseEntity.ok(!exists);
     }
-}
\ No newline at end of file
+
+    // Les recherches raccourcies ne portent que sur les comptes actifs
+    private static UserSearchRequest activeUsers() {
+        UserSearchRequest criteria = new UserSearchRequest();
+        criteria.setEnabled(true);
+        return criteria;
+    }
+}
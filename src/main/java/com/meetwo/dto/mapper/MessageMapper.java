@@ -5,16 +5,24 @@ import com.meetwo.dto.request.UpdateMessageRequest;
 import com.meetwo.dto.response.MessageResponse;
 import com.meetwo.dto.response.ConversationResponse;
 import com.meetwo.dto.response.MessageStatsResponse;
+import com.meetwo.entity.Conversation;
 import com.meetwo.entity.Message;
 import com.meetwo.entity.User;
+import com.meetwo.entity.UserResponseStats;
 import com.meetwo.enums.MessageType;
 import com.meetwo.service.PhotoService;
+import com.meetwo.service.conversation.ConversationSummaryStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -22,6 +30,7 @@ import java.util.List;
 public class MessageMapper {
 
     private final PhotoService photoService;
+    private final ConversationSummaryStore conversationSummaryStore;
 
     public Message toEntity(CreateMessageRequest request, User sender, User receiver) {
         return Message.builder()
@@ -34,53 +43,141 @@ public class MessageMapper {
     }
 
     public MessageResponse toResponse(Message message) {
+        return toResponses(List.of(message)).get(0);
+    }
+
+    /**
+     * Convertit une liste de messages en résolvant les photos principales et les watermarks de lecture
+     * en une requête chacun
+     */
+    public List<MessageResponse> toResponses(List<Message> messages) {
+        Set<Long> userIds = new HashSet<>();
+        for (Message message : messages) {
+            userIds.add(message.getSender().getId());
+            userIds.add(message.getReceiver().getId());
+        }
+        Map<Long, String> mainPhotoUrls = getMainPhotoUrls(userIds);
+        Map<String, Conversation> conversations = conversationSummaryStore.findByMessages(messages);
+
+        return messages.stream()
+                .map(message -> toResponse(message,
+                        mainPhotoUrls.get(message.getSender().getId()),
+                        mainPhotoUrls.get(message.getReceiver().getId()),
+                        conversations.get(Conversation.pairKey(message.getSender().getId(), message.getReceiver().getId()))))
+                .collect(Collectors.toList());
+    }
+
+    private MessageResponse toResponse(Message message, String senderMainPhotoUrl, String receiverMainPhotoUrl,
+                                       Conversation conversation) {
+        // Lu si le watermark du destinataire a atteint le message (ou marqué lu avant les watermarks)
+        Long receiverId = message.getReceiver().getId();
+        boolean readByWatermark = conversation != null && conversation.hasRead(receiverId, message.getId());
+        boolean read = Boolean.TRUE.equals(message.getIsRead()) || readByWatermark;
+        LocalDateTime readAt = message.getReadAt() != null || !readByWatermark
+                ? message.getReadAt()
+                : conversation.getLastReadAtFor(receiverId);
+
         return MessageResponse.builder()
                 .id(message.getId())
                 // Informations de l'expéditeur
                 .senderId(message.getSender().getId())
                 .senderUsername(message.getSender().getUsername())
                 .senderName(message.getSender().getName())
-                .senderMainPhotoUrl(getMainPhotoUrl(message.getSender().getId()))
+                .senderMainPhotoUrl(senderMainPhotoUrl)
                 // Informations du destinataire
                 .receiverId(message.getReceiver().getId())
                 .receiverUsername(message.getReceiver().getUsername())
                 .receiverName(message.getReceiver().getName())
-                .receiverMainPhotoUrl(getMainPhotoUrl(message.getReceiver().getId()))
+                .receiverMainPhotoUrl(receiverMainPhotoUrl)
                 // Contenu et métadonnées
                 .content(message.getContent())
-                .isRead(message.getIsRead())
+                .isRead(read)
                 .messageType(message.getMessageType())
                 .createdAt(message.getCreatedAt())
                 .updatedAt(message.getUpdatedAt())
-                .readAt(message.getReadAt())
+                .readAt(readAt)
                 .build();
     }
 
-    public ConversationResponse toConversationResponse(User conversationWith, MessageResponse lastMessage,
-                                                       long unreadCount, List<MessageResponse> recentMessages) {
+    /**
+     * Convertit une page de résumés de conversation du point de vue d'un utilisateur.
+     * Le dernier message est reconstruit à partir du résumé (aperçu du contenu), sans relire la table messages,
+     * sauf si l'utilisateur l'a supprimé de son côté : son dernier message encore visible le remplace.
+     */
+    public List<ConversationResponse> toConversationResponses(Long userId, List<Conversation> conversations) {
+        Set<Long> partnerIds = conversations.stream()
+                .map(conversation -> conversation.getOtherUser(userId).getId())
+                .collect(Collectors.toSet());
+        Map<Long, String> mainPhotoUrls = getMainPhotoUrls(partnerIds);
+        Map<Long, Optional<Message>> visibleLastMessages =
+                conversationSummaryStore.findVisibleLastMessages(userId, conversations);
+
+        return conversations.stream()
+                .map(conversation -> toConversationResponse(userId, conversation, mainPhotoUrls,
+                        visibleLastMessages.get(conversation.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private ConversationResponse toConversationResponse(Long userId, Conversation conversation,
+                                                        Map<Long, String> mainPhotoUrls,
+                                                        Optional<Message> visibleLastMessage) {
+        User partner = conversation.getOtherUser(userId);
+        MessageResponse lastMessage = null;
+        if (visibleLastMessage != null) {
+            // Dernier message du résumé supprimé par l'utilisateur : aperçu de son dernier message visible
+            lastMessage = visibleLastMessage
+                    .map(message -> MessageResponse.builder()
+                            .id(message.getId())
+                            .senderId(message.getSender().getId())
+                            .receiverId(message.getReceiver().getId())
+                            .content(Conversation.preview(message.getContent()))
+                            .isRead(Boolean.TRUE.equals(message.getIsRead())
+                                    || conversation.hasRead(message.getReceiver().getId(), message.getId()))
+                            .createdAt(message.getCreatedAt())
+                            .build())
+                    .orElse(null);
+        } else if (conversation.getLastMessageId() != null) {
+            Long lastSenderId = conversation.getLastSenderId();
+            Long lastReceiverId = lastSenderId.equals(userId) ? partner.getId() : userId;
+            lastMessage = MessageResponse.builder()
+                    .id(conversation.getLastMessageId())
+                    .senderId(lastSenderId)
+                    .receiverId(lastReceiverId)
+                    .content(conversation.getLastMessagePreview())
+                    // Le dernier message est forcément le plus récent des non lus de son destinataire
+                    .isRead(conversation.hasRead(lastReceiverId, conversation.getLastMessageId())
+                            || conversation.getUnreadCountFor(lastReceiverId) == 0)
+                    .createdAt(conversation.getLastMessageAt())
+                    .build();
+        }
+
         return ConversationResponse.builder()
-                .conversationWithUserId(conversationWith.getId())
-                .conversationWithUsername(conversationWith.getUsername())
-                .conversationWithName(conversationWith.getName())
-                .conversationWithMainPhotoUrl(getMainPhotoUrl(conversationWith.getId()))
+                .conversationWithUserId(partner.getId())
+                .conversationWithUsername(partner.getUsername())
+                .conversationWithName(partner.getName())
+                .conversationWithMainPhotoUrl(mainPhotoUrls.get(partner.getId()))
                 .lastMessage(lastMessage)
-                .unreadCount(unreadCount)
-                .lastMessageAt(lastMessage != null ? lastMessage.getCreatedAt() : null)
-                .recentMessages(recentMessages)
+                .unreadCount(conversation.getUnreadCountFor(userId))
+                .lastMessageAt(conversation.getLastMessageAt())
                 .build();
     }
 
     public MessageStatsResponse toStatsResponse(Long userId, long messagesSent, long messagesReceived,
                                                 long unreadMessages, long activeConversations,
-                                                double averageResponseTime) {
-        return MessageStatsResponse.builder()
+                                                UserResponseStats responseStats) {
+        MessageStatsResponse.MessageStatsResponseBuilder builder = MessageStatsResponse.builder()
                 .userId(userId)
                 .totalMessagesSent(messagesSent)
                 .totalMessagesReceived(messagesReceived)
                 .totalUnreadMessages(unreadMessages)
-                .activeConversations(activeConversations)
-                .averageResponseTime(averageResponseTime)
-                .build();
+                .activeConversations(activeConversations);
+        if (responseStats != null) {
+            builder.averageResponseTime(responseStats.getAverageSeconds() / 60.0)
+                    .p50ResponseTime(responseStats.getPercentileSeconds(0.5) / 60.0)
+                    .p90ResponseTime(responseStats.getPercentileSeconds(0.9) / 60.0)
+                    .responseCount(responseStats.getResponseCount());
+        }
+        return builder.build();
     }
 
     public void updateEntity(Message message, UpdateMessageRequest request) {
@@ -94,12 +191,13 @@ public class MessageMapper {
         }
     }
 
-    private String getMainPhotoUrl(Long userId) {
+    private Map<Long, String> getMainPhotoUrls(Set<Long> userIds) {
         try {
-            return photoService.getMainPhotoUrl(userId);
+            return photoService.getMainPhotoUrls(userIds);
         } catch (Exception e) {
-            log.debug("Aucune photo principale trouvée pour l'utilisateur {}: {}", userId, e.getMessage());
-            return null; // Si pas de photo principale
+            log.debug("Impossible de récupérer les photos principales de {} utilisateurs: {}",
+                    userIds.size(), e.getMessage());
+            return Map.of();
         }
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import com.meetwo.dto.request.CreateUserRequest;
 import com.meetwo.dto.request.UpdateUserRequest;
 import com.meetwo.dto.response.UserResponse;
 import com.meetwo.entity.User;
+import com.meetwo.exception.user.InvalidUserDataException;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -42,6 +43,7 @@ public class UserMapper {
         user.setGender(request.getGender());
         user.setBiography(request.getBiography());
         user.setCity(request.getCity());
+        setLocation(user, request.getLatitude(), request.getLongitude());
         user.setInterests(request.getInterests());
         user.setSeekingRelationshipType(request.getSeekingRelationshipType());
 
@@ -69,6 +71,9 @@ public class UserMapper {
         if (request.getCity() != null) {
             user.setCity(request.getCity());
         }
+        if (request.getLatitude() != null || request.getLongitude() != null) {
+            setLocation(user, request.getLatitude(), request.getLongitude());
+        }
         if (request.getInterests() != null) {
             user.setInterests(request.getInterests());
         }
@@ -76,4 +81,13 @@ public class UserMapper {
         // Régénération du name après modification
         user.generateName();
     }
-}
\ No newline at end of file
+
+    // La latitude et la longitude vont ensemble : une position partielle est refusée
+    private void setLocation(User user, Double latitude, Double longitude) {
+        if ((latitude == null) != (longitude == null)) {
+            throw new InvalidUserDataException("La latitude et la longitude doivent être renseignées ensemble");
+        }
+        user.setLatitude(latitude);
+        user.setLongitude(longitude);
+    }
+}
@@ -0,0 +1,25 @@
+package com.meetwo.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Lot de swipes d'un utilisateur (ex : swipes mis en file hors ligne sur mobile)")
+public class BulkSwipeRequest {
+
+    @NotNull(message = "L'ID de l'utilisateur qui swipe est requis")
+    @Schema(description = "ID de l'utilisateur qui swipe", example = "1")
+    private Long likerId;
+
+    @Valid
+    @NotEmpty(message = "Le lot doit contenir au moins un swipe")
+    @Size(max = 500, message = "Un lot ne peut pas dépasser 500 swipes")
+    @Schema(description = "Swipes dans l'ordre où ils ont été faits")
+    private List<SwipeRequest> swipes;
+}
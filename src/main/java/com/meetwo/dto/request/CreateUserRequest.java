@@ -48,6 +48,16 @@ public class CreateUserRequest {
     @Schema(description = "Ville", example = "Paris")
     private String city;
 
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    @Schema(description = "Latitude (facultative, avec la longitude)", example = "48.8566")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    @Schema(description = "Longitude (facultative, avec la latitude)", example = "2.3522")
+    private Double longitude;
+
     @Schema(description = "Centres d'intérêt",
             example = "[\"SPORT\", \"MUSIQUE\"]",
             allowableValues = {"SPORT", "MUSIQUE", "CINEMA", "VOYAGE", "CUISINE", "LECTURE", "ART", "JEUX_VIDEO", "FITNESS", "NATURE", "TECHNOLOGIE", "PHOTOGRAPHIE", "DANSE", "MODE", "THEATRE", "RANDONNEE", "YOGA", "MEDITATION", "ANIMAUX", "JARDINAGE", "BRICOLAGE", "SHOPPING", "SORTIES_NOCTURNES", "CONCERTS", "FESTIVALS"})
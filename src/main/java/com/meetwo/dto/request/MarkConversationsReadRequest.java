@@ -0,0 +1,22 @@
+package com.meetwo.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Schema(description = "Lecture en lot de conversations (ex : accusé de lecture global à l'ouverture de l'application)")
+public class MarkConversationsReadRequest {
+
+    @NotNull(message = "L'ID de l'utilisateur qui lit est requis")
+    @Schema(description = "ID de l'utilisateur qui lit ses messages", example = "1")
+    private Long userId;
+
+    @Size(max = 500, message = "Un lot ne peut pas dépasser 500 conversations")
+    @Schema(description = "IDs des interlocuteurs dont les conversations sont lues (vide : toutes les conversations)")
+    private List<Long> otherUserIds = new ArrayList<>();
+}
@@ -0,0 +1,19 @@
+package com.meetwo.dto.request;
+
+import com.meetwo.enums.SwipeAction;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+@Schema(description = "Un swipe d'un lot")
+public class SwipeRequest {
+
+    @NotNull(message = "L'ID de l'utilisateur swipé est requis")
+    @Schema(description = "ID de l'utilisateur swipé", example = "2")
+    private Long targetUserId;
+
+    @NotNull(message = "L'action du swipe est requise")
+    @Schema(description = "Action du swipe", example = "LIKE", allowableValues = {"LIKE", "PASS"})
+    private SwipeAction action;
+}
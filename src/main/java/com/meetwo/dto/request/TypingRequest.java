@@ -0,0 +1,24 @@
+package com.meetwo.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Indicateur de saisie envoyé sur /app/typing (WebSocket STOMP)")
+public class TypingRequest {
+
+    @NotNull(message = "L'ID du destinataire est requis")
+    @Schema(description = "ID de l'utilisateur à prévenir", example = "2")
+    private Long receiverId;
+
+    @Builder.Default
+    @Schema(description = "true au début de la saisie, false à l'arrêt", example = "true")
+    private boolean typing = true;
+}
@@ -1,6 +1,8 @@
 package com.meetwo.dto.request;
 
 import com.meetwo.enums.Interest;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import lombok.Data;
 
 import java.time.LocalDate;
@@ -13,5 +15,13 @@ public class UpdateUserRequest {
     private LocalDate birthDate;
     private String biography;
     private String city;
+
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
     private Set<Interest> interests;
 }
\ No newline at end of file
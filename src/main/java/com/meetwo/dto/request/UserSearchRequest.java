@@ -0,0 +1,45 @@
+package com.meetwo.dto.request;
+
+import com.meetwo.enums.Gender;
+import com.meetwo.enums.Interest;
+import com.meetwo.enums.RelationshipType;
+import com.meetwo.enums.UserSearchSort;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+@Schema(description = "Critères de recherche d'utilisateurs, tous facultatifs et combinables")
+public class UserSearchRequest {
+
+    @Schema(description = "Genre", example = "FEMME")
+    private Gender gender;
+
+    @Schema(description = "Type de relation recherchée", example = "RELATION_SERIEUSE")
+    private RelationshipType relationshipType;
+
+    @Schema(description = "Ville (insensible à la casse)", example = "Paris")
+    private String city;
+
+    @Min(value = 0, message = "L'âge minimum doit être positif")
+    @Schema(description = "Âge minimum", example = "25")
+    private Integer minAge;
+
+    @Min(value = 0, message = "L'âge maximum doit être positif")
+    @Schema(description = "Âge maximum", example = "35")
+    private Integer maxAge;
+
+    @Schema(description = "Au moins un de ces centres d'intérêt", example = "[\"SPORT\", \"MUSIQUE\"]")
+    private Set<Interest> interests;
+
+    @Schema(description = "Uniquement les profils avec une biographie", example = "true")
+    private Boolean hasBiography;
+
+    @Schema(description = "Comptes actifs (true), désactivés (false) ou tous (vide)", example = "true")
+    private Boolean enabled;
+
+    @Schema(description = "Ordre des résultats", example = "NEWEST")
+    private UserSearchSort sort = UserSearchSort.NEWEST;
+}
@@ -0,0 +1,19 @@
+package com.meetwo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSwipeResponse {
+    private Long likerId;
+    private int likesCreated; // Nombre de likes effectivement créés
+    private int matchesCreated; // Nombre de matches créés par ce lot
+    private List<SwipeResultResponse> results; // Un résultat par swipe, dans l'ordre du lot
+}
@@ -0,0 +1,19 @@
+package com.meetwo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> items;
+    private String nextCursor; // Jeton à renvoyer pour obtenir la page suivante (null si dernière page)
+    private String previousCursor; // Jeton pour repartir dans l'autre sens (historique de conversation, sinon null)
+    private boolean hasMore; // Indique s'il reste des éléments après cette page
+}
@@ -0,0 +1,21 @@
+package com.meetwo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikeGraphConsistencyResponse {
+    private boolean enabled; // Index activé par configuration
+    private boolean ready; // Index chargé et utilisé pour répondre
+    private long databaseLikes; // Nombre de likes en base
+    private long indexedLikes; // Nombre de likes dans l'index mémoire
+    private long missingInIndex; // Likes présents en base mais absents de l'index
+    private long extraInIndex; // Likes présents dans l'index mais supprimés en base
+    private boolean consistent;
+    private boolean rebuilt; // L'index a été reconstruit suite à la vérification
+}
@@ -0,0 +1,17 @@
+package com.meetwo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchNotificationResponse {
+    private Long matchedUserId; // L'utilisateur avec qui le match vient d'être créé
+    private LocalDateTime matchedAt;
+}
@@ -0,0 +1,23 @@
+package com.meetwo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Match vu comme une paire non ordonnée d'utilisateurs (user1 a toujours le plus petit ID)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchPairResponse {
+    private Long matchId;
+    private Long user1Id;
+    private String user1Username;
+    private String user1Name;
+    private Long user2Id;
+    private String user2Username;
+    private String user2Name;
+    private LocalDateTime matchedAt;
+}
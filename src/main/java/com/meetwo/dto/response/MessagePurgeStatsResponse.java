@@ -0,0 +1,28 @@
+package com.meetwo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePurgeStatsResponse {
+    private boolean running; // Une purge est en cours
+    private LocalDateTime lastRunStartedAt;
+    private LocalDateTime lastRunFinishedAt;
+    private long lastRunDurationMs;
+    private long currentRunDeleted; // Messages supprimés par la purge en cours (ou la dernière)
+    private long lastRunDeletedMarked; // Messages supprimés des deux côtés purgés lors de la dernière purge
+    private long lastRunDeletedExpired; // Messages expirés (au-delà de retention-days) purgés lors de la dernière purge
+    private int lastRunDroppedPartitions; // Partitions mensuelles entièrement expirées supprimées lors de la dernière purge
+    private long lastRunBatches;
+    private boolean lastRunComplete; // Faux si la purge s'est arrêtée sur max-batches-per-run
+    private long totalDeleted; // Depuis le démarrage de l'instance
+    private int retentionDays;
+    private boolean partitioned; // Table messages partitionnée par mois (rétention par suppression de partitions)
+}
@@ -0,0 +1,21 @@
+package com.meetwo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchResponse {
+    private String searchTerm;
+    private int page; // Numéro de page (à partir de 0)
+    private int size;
+    private boolean hasMore; // Faux au-delà de app.message.search.max-results résultats
+    private boolean ranked; // Vrai si les résultats sont triés par pertinence (recherche plein texte)
+    private List<MessageResponse> results;
+}
@@ -0,0 +1,27 @@
+package com.meetwo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSendPipelineStatsResponse {
+    private boolean enabled; // app.message.send-pipeline.enabled
+    private int queueSize; // Envois en attente d'un lot
+    private long batches; // Lots écrits depuis le démarrage de l'instance
+    private long messages; // Messages écrits par le pipeline
+    private long rejectedMessages; // Envois refusés à la validation (utilisateur inconnu, pas de match...)
+    private long failedBatches; // Lots annulés puis repris message par message
+    private long inlineBatches; // Envois écrits dans le thread de l'appelant (file pleine)
+    private double averageBatchSize;
+    private int largestBatch;
+    private double averageLatencyMs; // De la mise en file à la confirmation après commit
+    private double averageBatchWriteMs; // Durée moyenne de la transaction d'un lot
+    private double messagesPerSecond; // Débit d'écriture du pipeline (messages par seconde de transaction)
+    private long batchWindowMs;
+    private int maxBatchSize;
+}
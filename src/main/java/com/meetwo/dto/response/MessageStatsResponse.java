@@ -16,4 +16,7 @@ public class MessageStatsResponse {
     private long totalUnreadMessages; // Nombre de messages non lus
     private long activeConversations; // Nombre de conversations actives
     private double averageResponseTime; // Temps de réponse moyen en minutes
+    private double p50ResponseTime; // Temps de réponse médian en minutes (estimé par histogramme)
+    private double p90ResponseTime; // 90e percentile du temps de réponse en minutes
+    private long responseCount; // Nombre de réponses mesurées
 }
\ No newline at end of file
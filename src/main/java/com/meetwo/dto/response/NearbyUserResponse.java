@@ -0,0 +1,13 @@
+package com.meetwo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyUserResponse {
+    private UserResponse user;
+    private double distanceKm; // Arrondie à 100 m, la position exacte n'est jamais exposée
+}
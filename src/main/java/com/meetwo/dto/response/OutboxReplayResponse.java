@@ -0,0 +1,16 @@
+package com.meetwo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxReplayResponse {
+    private int requeued; // Événements remis en attente
+    private long pending; // Événements en attente après le rejeu
+    private long failed; // Événements encore en échec
+}
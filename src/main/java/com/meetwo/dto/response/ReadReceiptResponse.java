@@ -0,0 +1,18 @@
+package com.meetwo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptResponse {
+    private Long readerId; // L'utilisateur qui a lu les messages
+    private Long messageId; // Message lu (null si toute la conversation a été lue)
+    private LocalDateTime readAt;
+}
@@ -0,0 +1,19 @@
+package com.meetwo.dto.response;
+
+import com.meetwo.enums.SwipeAction;
+import com.meetwo.enums.SwipeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SwipeResultResponse {
+    private Long targetUserId;
+    private SwipeAction action;
+    private SwipeStatus status;
+    private boolean isMatch; // Le like a complété un match mutuel
+}
@@ -0,0 +1,15 @@
+package com.meetwo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypingIndicatorResponse {
+    private Long userId; // L'utilisateur en train d'écrire
+    private boolean typing; // false quand il arrête d'écrire
+}
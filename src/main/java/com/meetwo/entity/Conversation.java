@@ -0,0 +1,178 @@
+package com.meetwo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Résumé d'une conversation entre deux utilisateurs (une ligne par paire, ordonnée comme les matches).
+ * Il est maintenu à chaque envoi, lecture et suppression de message pour servir la boîte de réception
+ * sans relire la table messages.
+ */
+@Entity
+@Table(name = "conversations",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_conversations_pair", columnNames = {"user1_id", "user2_id"})
+        },
+        indexes = {
+                @Index(name = "idx_conversations_user1_last", columnList = "user1_id, last_message_at DESC, id_conversation DESC"),
+                @Index(name = "idx_conversations_user2_last", columnList = "user2_id, last_message_at DESC, id_conversation DESC")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Conversation {
+
+    public static final int PREVIEW_MAX_LENGTH = 200;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_conversation")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user1_id", nullable = false)
+    private User user1; // Toujours l'utilisateur avec le plus petit ID
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user2_id", nullable = false)
+    private User user2; // Toujours l'utilisateur avec le plus grand ID
+
+    @Column(name = "last_message_id")
+    private Long lastMessageId; // Pas de clé étrangère : le message peut être purgé avant le résumé
+
+    @Column(name = "last_message_preview", length = PREVIEW_MAX_LENGTH)
+    private String lastMessagePreview;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "last_sender_id")
+    private Long lastSenderId;
+
+    @Column(name = "reply_pending_since")
+    private LocalDateTime replyPendingSince; // Premier message de last_sender_id resté sans réponse
+
+    @Column(name = "user1_unread_count", nullable = false)
+    private int user1UnreadCount; // Messages non lus reçus par user1
+
+    @Column(name = "user2_unread_count", nullable = false)
+    private int user2UnreadCount; // Messages non lus reçus par user2
+
+    @Column(name = "user1_last_read_message_id")
+    private Long user1LastReadMessageId; // Watermark de lecture : user1 a lu tous les messages d'ID inférieur ou égal
+
+    @Column(name = "user1_last_read_at")
+    private LocalDateTime user1LastReadAt;
+
+    @Column(name = "user2_last_read_message_id")
+    private Long user2LastReadMessageId;
+
+    @Column(name = "user2_last_read_at")
+    private LocalDateTime user2LastReadAt;
+
+    @Column(name = "user1_hidden", nullable = false)
+    private boolean user1Hidden; // Conversation supprimée par user1 (réapparaît au prochain message)
+
+    @Column(name = "user2_hidden", nullable = false)
+    private boolean user2Hidden;
+
+    // Méthode utilitaire : ordonne une paire d'IDs comme les colonnes user1_id / user2_id
+    public static long[] orderedPair(Long userIdA, Long userIdB) {
+        return userIdA < userIdB
+                ? new long[]{userIdA, userIdB}
+                : new long[]{userIdB, userIdA};
+    }
+
+    // Clé de paire "min:max", identique quel que soit le sens du message
+    public static String pairKey(Long userIdA, Long userIdB) {
+        long[] pair = orderedPair(userIdA, userIdB);
+        return pair[0] + ":" + pair[1];
+    }
+
+    public String getPairKey() {
+        return pairKey(user1.getId(), user2.getId());
+    }
+
+    // Méthode utilitaire pour récupérer l'autre utilisateur de la conversation
+    public User getOtherUser(Long userId) {
+        return user1.getId().equals(userId) ? user2 : user1;
+    }
+
+    public int getUnreadCountFor(Long userId) {
+        return isUser1(userId) ? user1UnreadCount : user2UnreadCount;
+    }
+
+    public void setUnreadCountFor(Long userId, int unreadCount) {
+        if (isUser1(userId)) {
+            user1UnreadCount = Math.max(unreadCount, 0);
+        } else {
+            user2UnreadCount = Math.max(unreadCount, 0);
+        }
+    }
+
+    public Long getLastReadMessageIdFor(Long userId) {
+        return isUser1(userId) ? user1LastReadMessageId : user2LastReadMessageId;
+    }
+
+    public LocalDateTime getLastReadAtFor(Long userId) {
+        return isUser1(userId) ? user1LastReadAt : user2LastReadAt;
+    }
+
+    // Un message est lu par un utilisateur dès que son watermark de lecture l'a atteint
+    public boolean hasRead(Long userId, Long messageId) {
+        Long lastReadMessageId = getLastReadMessageIdFor(userId);
+        return lastReadMessageId != null && messageId != null && messageId <= lastReadMessageId;
+    }
+
+    // Avance le watermark de lecture d'un utilisateur (il ne recule jamais)
+    public boolean advanceReadWatermark(Long userId, Long messageId, LocalDateTime readAt) {
+        if (hasRead(userId, messageId)) {
+            return false;
+        }
+        if (isUser1(userId)) {
+            user1LastReadMessageId = messageId;
+            user1LastReadAt = readAt;
+        } else {
+            user2LastReadMessageId = messageId;
+            user2LastReadAt = readAt;
+        }
+        return true;
+    }
+
+    public void setHiddenFor(Long userId, boolean hidden) {
+        if (isUser1(userId)) {
+            user1Hidden = hidden;
+        } else {
+            user2Hidden = hidden;
+        }
+    }
+
+    // Met à jour le dernier message affiché dans la boîte de réception (null si plus aucun message)
+    public void applyLastMessage(Message message) {
+        if (message == null) {
+            lastMessageId = null;
+            lastMessagePreview = null;
+            lastSenderId = null;
+            replyPendingSince = null;
+            return;
+        }
+        lastMessageId = message.getId();
+        lastMessagePreview = preview(message.getContent());
+        lastMessageAt = message.getCreatedAt();
+        lastSenderId = message.getSender().getId();
+    }
+
+    public static String preview(String content) {
+        if (content == null || content.length() <= PREVIEW_MAX_LENGTH) {
+            return content;
+        }
+        return content.substring(0, PREVIEW_MAX_LENGTH);
+    }
+
+    private boolean isUser1(Long userId) {
+        return user1.getId().equals(userId);
+    }
+}
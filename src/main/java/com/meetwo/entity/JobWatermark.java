@@ -0,0 +1,40 @@
+package com.meetwo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Position de reprise d'un traitement incrémental (dernier ID traité),
+ * et date de fin pour les traitements ponctuels qui ne doivent être joués qu'une fois
+ */
+@Entity
+@Table(name = "job_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobWatermark {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt; // Null tant qu'un traitement ponctuel n'est pas terminé
+
+    // Constructeur utilitaire : position initiale
+    public JobWatermark(String jobName) {
+        this.jobName = jobName;
+        this.lastId = 0L;
+        this.updatedAt = LocalDateTime.now();
+        this.completedAt = null;
+    }
+}
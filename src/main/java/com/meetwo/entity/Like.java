@@ -10,6 +10,10 @@ import java.time.LocalDateTime;
 @Table(name = "likes",
         uniqueConstraints = {
                 @UniqueConstraint(columnNames = {"liker_id", "liked_user_id"})
+        },
+        indexes = {
+                @Index(name = "idx_likes_liker_created", columnList = "liker_id, created_at DESC, id_like DESC"),
+                @Index(name = "idx_likes_liked_created", columnList = "liked_user_id, created_at DESC, id_like DESC")
         })
 @Data
 @NoArgsConstructor
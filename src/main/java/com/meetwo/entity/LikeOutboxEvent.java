@@ -0,0 +1,69 @@
+package com.meetwo.entity;
+
+import com.meetwo.enums.OutboxEventType;
+import com.meetwo.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Événement de like écrit dans la même transaction que le like (outbox transactionnelle).
+ * Les effets de bord (match, compteurs, notifications) sont appliqués de façon asynchrone par LikeOutboxProcessor.
+ */
+@Entity
+@Table(name = "like_outbox",
+        indexes = {
+                @Index(name = "idx_like_outbox_due", columnList = "status, next_attempt_at, id_event")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikeOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_event")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 20)
+    private OutboxEventType eventType;
+
+    @Column(name = "liker_id", nullable = false)
+    private Long likerId;
+
+    @Column(name = "liked_user_id", nullable = false)
+    private Long likedUserId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    // Constructeur utilitaire : nouvel événement à traiter immédiatement
+    public LikeOutboxEvent(OutboxEventType eventType, Long likerId, Long likedUserId, LocalDateTime createdAt) {
+        this.eventType = eventType;
+        this.likerId = likerId;
+        this.likedUserId = likedUserId;
+        this.status = OutboxStatus.PENDING;
+        this.attempts = 0;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = createdAt;
+    }
+}
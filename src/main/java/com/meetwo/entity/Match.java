@@ -0,0 +1,58 @@
+package com.meetwo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "matches",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_matches_pair", columnNames = {"user1_id", "user2_id"})
+        },
+        indexes = {
+                @Index(name = "idx_matches_user2", columnList = "user2_id"),
+                @Index(name = "idx_matches_matched_at", columnList = "matched_at DESC, id_match DESC")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Match {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_match")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user1_id", nullable = false)
+    private User user1; // Toujours l'utilisateur avec le plus petit ID
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user2_id", nullable = false)
+    private User user2; // Toujours l'utilisateur avec le plus grand ID
+
+    @Column(name = "matched_at", nullable = false)
+    private LocalDateTime matchedAt; // Date du like qui a complété le match
+
+    // Constructeur utilitaire : ordonne la paire pour garantir une seule ligne par couple
+    public Match(User userA, User userB, LocalDateTime matchedAt) {
+        boolean aFirst = userA.getId() < userB.getId();
+        this.user1 = aFirst ? userA : userB;
+        this.user2 = aFirst ? userB : userA;
+        this.matchedAt = matchedAt;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        if (matchedAt == null) {
+            matchedAt = LocalDateTime.now();
+        }
+    }
+
+    // Méthode utilitaire pour récupérer l'autre utilisateur du match
+    public User getOtherUser(Long userId) {
+        return user1.getId().equals(userId) ? user2 : user1;
+    }
+}
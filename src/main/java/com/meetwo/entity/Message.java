@@ -10,7 +10,15 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages",
+        indexes = {
+                // Historique d'une paire, les deux sens confondus : une seule plage de cet index
+                @Index(name = "idx_messages_pair_key_created", columnList = "pair_key, created_at DESC, id_message DESC"),
+                // Requêtes par expéditeur ou par sens de la conversation (suppression d'un côté, statistiques)
+                @Index(name = "idx_messages_pair_created", columnList = "sender_id, receiver_id, created_at DESC, id_message DESC"),
+                // Purge des messages au-delà de la durée de rétention, par lots
+                @Index(name = "idx_messages_created_at", columnList = "created_at")
+        })
 @Data
 @Builder
 @NoArgsConstructor
@@ -30,12 +38,15 @@ public class Message {
     @JoinColumn(name = "receiver_id", nullable = false)
     private User receiver; // L'utilisateur qui reçoit le message
 
+    @Column(name = "pair_key", length = 41)
+    private String pairKey; // Paire canonique "min:max" des IDs expéditeur / destinataire, calculée à l'insertion
+
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content; // Contenu du message
 
     @Builder.Default
     @Column(name = "is_read", nullable = false)
-    private Boolean isRead = false; // Message lu ou non
+    private Boolean isRead = false; // Lecture historique : la lecture suit désormais le watermark de la conversation
 
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
@@ -75,6 +86,9 @@ public class Message {
 
     @PrePersist
     public void prePersist() {
+        if (pairKey == null && sender != null && receiver != null) {
+            pairKey = Conversation.pairKey(sender.getId(), receiver.getId());
+        }
         if (createdAt == null) {
             createdAt = LocalDateTime.now();
         }
@@ -0,0 +1,46 @@
+package com.meetwo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Historique compact des swipes négatifs (passes) : une ligne par utilisateur,
+ * les IDs des profils passés étant stockés dans un bitmap Roaring sérialisé.
+ */
+@Entity
+@Table(name = "swipes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SwipeHistory {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId; // L'utilisateur qui swipe
+
+    @Column(name = "passed_user_ids", nullable = false, columnDefinition = "bytea")
+    private byte[] passedUserIds; // Bitmap Roaring (format portable) des utilisateurs passés
+
+    @Column(name = "passed_count", nullable = false)
+    private long passedCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructeur utilitaire : historique vide
+    public SwipeHistory(Long userId) {
+        this.userId = userId;
+        this.passedUserIds = new byte[0];
+        this.passedCount = 0;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
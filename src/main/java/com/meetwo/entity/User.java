@@ -3,11 +3,16 @@ package com.meetwo.entity;
 import com.meetwo.enums.Gender;
 import com.meetwo.enums.Interest;
 import com.meetwo.enums.RelationshipType;
+import com.meetwo.util.AgeRanges;
+import com.meetwo.util.GeoHash;
+import com.meetwo.util.InterestMasks;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -17,7 +22,20 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+        indexes = {
+                @Index(name = "idx_users_city", columnList = "city"),
+                // Filtres de découverte et de matching : l'âge est traduit en bornes sur birth_date
+                @Index(name = "idx_users_discovery", columnList = "enabled, gender, seeking_relationship_type, birth_date"),
+                // Recherche de proximité : une colonne de cellule géohash par précision, lue par égalité
+                @Index(name = "idx_users_geohash3", columnList = "geohash3"),
+                @Index(name = "idx_users_geohash4", columnList = "geohash4"),
+                @Index(name = "idx_users_geohash5", columnList = "geohash5"),
+                // Classement des plus likés, lu directement sur le compteur dénormalisé
+                @Index(name = "idx_users_likes_received", columnList = "likes_received DESC, id"),
+                // Recherche paginée : parcours par clé (created_at, id) sans OFFSET
+                @Index(name = "idx_users_created_at", columnList = "created_at, id")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -66,16 +84,51 @@ public class User implements UserDetails {
     @Column(length = 100)
     private String city;
 
+    // Position (facultative) et cellules géohash dérivées, recalculées à chaque enregistrement
+    @Column
+    private Double latitude;
+
+    @Column
+    private Double longitude;
+
+    @Column(length = 3)
+    private String geohash3;
+
+    @Column(length = 4)
+    private String geohash4;
+
+    @Column(length = 5)
+    private String geohash5;
+
     @ElementCollection(targetClass = Interest.class)
     @Enumerated(EnumType.STRING)
     @CollectionTable(name = "user_interests", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "interest")
     private Set<Interest> interests = new HashSet<>();
 
+    // Copie des intérêts en masque de bits (voir InterestMasks), tenue à jour avec la collection
+    @ColumnDefault("0")
+    @Column(name = "interests_mask", nullable = false)
+    private long interestsMask;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private RelationshipType seekingRelationshipType;
 
+    // Compteurs dénormalisés des likes et matches : modifiés uniquement par incréments côté base
+    // (UserRepository), jamais réécrits par Hibernate lors d'une mise à jour du profil
+    @ColumnDefault("0")
+    @Column(name = "likes_given", nullable = false, insertable = false, updatable = false)
+    private long likesGiven;
+
+    @ColumnDefault("0")
+    @Column(name = "likes_received", nullable = false, insertable = false, updatable = false)
+    private long likesReceived;
+
+    @ColumnDefault("0")
+    @Column(name = "matches_count", nullable = false, insertable = false, updatable = false)
+    private long matchesCount;
+
     // Métadonnées
     @Column(nullable = false)
     private LocalDateTime createdAt;
@@ -140,17 +193,20 @@ public class User implements UserDetails {
         return enabled;
     }
 
+    public void setInterests(Set<Interest> interests) {
+        this.interests = interests;
+        this.interestsMask = InterestMasks.of(interests);
+    }
+
     // Méthode pour calculer l'âge
     public Integer getAge() {
         return age;
     }
 
-    // Méthode privée pour calculer l'âge basé sur birthDate
+    // Méthode privée pour calculer l'âge révolu basé sur birthDate
+    // (rafraîchi chaque nuit par UserAgeRefreshJob pour les profils non modifiés)
     private int calculateAge() {
-        if (birthDate == null) {
-            return 0;
-        }
-        return LocalDate.now().getYear() - birthDate.getYear();
+        return AgeRanges.ageAt(birthDate, LocalDate.now());
     }
 
     // Génération automatique du name
@@ -179,6 +235,8 @@ public class User implements UserDetails {
         }
         // Calculer l'âge avant la sauvegarde
         this.age = calculateAge();
+        updateGeoCells();
+        updateInterestsMask();
     }
 
     @PreUpdate
@@ -187,6 +245,27 @@ public class User implements UserDetails {
         generateName();
         // Recalculer l'âge à chaque mise à jour
         this.age = calculateAge();
+        updateGeoCells();
+        updateInterestsMask();
+    }
+
+    public boolean hasLocation() {
+        return latitude != null && longitude != null;
+    }
+
+    // Masque recalculé depuis la collection si elle est chargée (jamais de chargement pendant le flush)
+    private void updateInterestsMask() {
+        if (Hibernate.isInitialized(interests)) {
+            this.interestsMask = InterestMasks.of(interests);
+        }
+    }
+
+    // Cellules géohash de la position (vides sans position)
+    private void updateGeoCells() {
+        String geohash = hasLocation() ? GeoHash.encode(latitude, longitude, GeoHash.MAX_PRECISION) : null;
+        this.geohash3 = geohash == null ? null : geohash.substring(0, 3);
+        this.geohash4 = geohash == null ? null : geohash.substring(0, 4);
+        this.geohash5 = geohash;
     }
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
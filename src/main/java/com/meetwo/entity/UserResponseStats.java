@@ -0,0 +1,103 @@
+package com.meetwo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Temps de réponse d'un utilisateur, agrégé au fil de l'eau à chaque réponse :
+ * moyenne (somme / nombre) et histogramme à seuils fixes pour les percentiles.
+ */
+@Entity
+@Table(name = "user_response_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserResponseStats {
+
+    // Bornes supérieures (en secondes) des classes de l'histogramme ; la dernière classe est ouverte
+    public static final long[] BUCKET_UPPER_BOUNDS_SECONDS = {
+            60, 2 * 60, 5 * 60, 10 * 60, 15 * 60, 30 * 60,
+            3600, 2 * 3600, 4 * 3600, 8 * 3600, 12 * 3600, 24 * 3600, 48 * 3600
+    };
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "response_count", nullable = false)
+    private long responseCount;
+
+    @Column(name = "total_response_seconds", nullable = false)
+    private long totalResponseSeconds;
+
+    @Column(name = "histogram", nullable = false)
+    private long[] histogram; // Une classe par borne de BUCKET_UPPER_BOUNDS_SECONDS, plus la classe ouverte
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructeur utilitaire : aucune réponse enregistrée
+    public UserResponseStats(Long userId) {
+        this.userId = userId;
+        this.histogram = new long[BUCKET_UPPER_BOUNDS_SECONDS.length + 1];
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void recordResponse(long seconds) {
+        long[] updated = histogram.length == BUCKET_UPPER_BOUNDS_SECONDS.length + 1
+                ? histogram.clone()
+                : new long[BUCKET_UPPER_BOUNDS_SECONDS.length + 1];
+        updated[bucketOf(seconds)]++;
+        histogram = updated; // Nouvelle instance : Hibernate détecte la modification du tableau
+        responseCount++;
+        totalResponseSeconds += seconds;
+    }
+
+    public double getAverageSeconds() {
+        return responseCount == 0 ? 0.0 : (double) totalResponseSeconds / responseCount;
+    }
+
+    /**
+     * Estime un percentile (0 < p < 1) en secondes, par interpolation linéaire dans la classe concernée.
+     * La classe ouverte renvoie sa borne inférieure.
+     */
+    public double getPercentileSeconds(double p) {
+        if (responseCount == 0) {
+            return 0.0;
+        }
+
+        double rank = p * responseCount;
+        long cumulated = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            long count = histogram[i];
+            if (count > 0 && cumulated + count >= rank) {
+                double lower = i == 0 ? 0 : BUCKET_UPPER_BOUNDS_SECONDS[i - 1];
+                if (i == BUCKET_UPPER_BOUNDS_SECONDS.length) {
+                    return lower;
+                }
+                double upper = BUCKET_UPPER_BOUNDS_SECONDS[i];
+                return lower + (upper - lower) * (rank - cumulated) / count;
+            }
+            cumulated += count;
+        }
+        return BUCKET_UPPER_BOUNDS_SECONDS[BUCKET_UPPER_BOUNDS_SECONDS.length - 1];
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    private static int bucketOf(long seconds) {
+        for (int i = 0; i < BUCKET_UPPER_BOUNDS_SECONDS.length; i++) {
+            if (seconds <= BUCKET_UPPER_BOUNDS_SECONDS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_UPPER_BOUNDS_SECONDS.length;
+    }
+}
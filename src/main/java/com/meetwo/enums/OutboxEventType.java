@@ -0,0 +1,6 @@
+package com.meetwo.enums;
+
+public enum OutboxEventType {
+    LIKE_CREATED,
+    LIKE_REMOVED
+}
@@ -0,0 +1,7 @@
+package com.meetwo.enums;
+
+public enum OutboxStatus {
+    PENDING,    // En attente de traitement (ou de nouvel essai)
+    PROCESSED,  // Effets de bord appliqués
+    FAILED      // Nombre maximal d'essais atteint, à rejouer manuellement
+}
@@ -0,0 +1,12 @@
+package com.meetwo.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Action d'un swipe")
+public enum SwipeAction {
+    @Schema(description = "Like du profil")
+    LIKE,
+
+    @Schema(description = "Profil passé (pas intéressé)")
+    PASS
+}
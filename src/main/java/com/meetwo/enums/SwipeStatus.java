@@ -0,0 +1,24 @@
+package com.meetwo.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Résultat du traitement d'un swipe dans un lot")
+public enum SwipeStatus {
+    @Schema(description = "Like créé")
+    CREATED,
+
+    @Schema(description = "Like déjà existant, rien n'a été créé")
+    ALREADY_LIKED,
+
+    @Schema(description = "Profil passé")
+    PASSED,
+
+    @Schema(description = "Utilisateur ciblé introuvable")
+    USER_NOT_FOUND,
+
+    @Schema(description = "Un utilisateur ne peut pas se swiper lui-même")
+    SELF_SWIPE,
+
+    @Schema(description = "Utilisateur déjà présent plus tôt dans le lot")
+    DUPLICATE_IN_BATCH
+}
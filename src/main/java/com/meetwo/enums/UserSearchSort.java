@@ -0,0 +1,12 @@
+package com.meetwo.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Ordre des résultats d'une recherche d'utilisateurs")
+public enum UserSearchSort {
+    @Schema(description = "Inscrits les plus récents d'abord")
+    NEWEST,
+
+    @Schema(description = "Inscrits les plus anciens d'abord")
+    OLDEST
+}
@@ -0,0 +1,19 @@
+package com.meetwo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publié (après commit) quand un like complète un match, pour les notifications
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class LikeMatchedEvent {
+    private final Long user1Id; // Plus petit ID de la paire
+    private final Long user2Id;
+    private final LocalDateTime matchedAt;
+}
@@ -0,0 +1,16 @@
+package com.meetwo.event;
+
+import com.meetwo.dto.response.MessageResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Publié à l'envoi d'un message, pour la livraison en temps réel (après commit)
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class MessageSentEvent {
+    private final MessageResponse message;
+}
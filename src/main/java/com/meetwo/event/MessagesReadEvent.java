@@ -0,0 +1,20 @@
+package com.meetwo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publié quand un destinataire lit un message ou toute une conversation, pour les accusés de lecture
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class MessagesReadEvent {
+    private final Long readerId; // Le destinataire qui a lu
+    private final Long senderId; // L'expéditeur à prévenir
+    private final Long messageId; // null si toute la conversation a été lue
+    private final LocalDateTime readAt;
+}
@@ -15,6 +15,7 @@ import com.meetwo.exception.message.MessageNotFoundException;
 import com.meetwo.exception.message.InvalidMessageOperationException;
 import com.meetwo.exception.message.ConversationNotFoundException;
 import com.meetwo.exception.message.MessageNotAllowedException;
+import com.meetwo.exception.message.MessageSendTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -112,6 +113,11 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ex.getMessage());
     }
 
+    @ExceptionHandler(MessageSendTimeoutException.class)
+    public ResponseEntity<String> handleMessageSendTimeout(MessageSendTimeoutException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
+
     // === EXCEPTIONS GÉNÉRIQUES ===
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
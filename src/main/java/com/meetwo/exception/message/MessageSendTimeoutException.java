@@ -0,0 +1,12 @@
+package com.meetwo.exception.message;
+
+/**
+ * Exception levée quand un envoi n'a pas été pris en charge par le pipeline d'envoi dans le délai imparti.
+ * L'envoi est alors annulé : le message n'est jamais écrit et l'appelant peut réessayer sans doublon.
+ */
+public class MessageSendTimeoutException extends RuntimeException {
+
+    public MessageSendTimeoutException(long timeoutMillis) {
+        super("Message non envoyé : pipeline d'envoi saturé après " + timeoutMillis + " ms, réessayez");
+    }
+}
@@ -0,0 +1,57 @@
+package com.meetwo.job;
+
+import com.meetwo.entity.JobWatermark;
+import com.meetwo.repository.ConversationRepository;
+import com.meetwo.repository.JobWatermarkRepository;
+import com.meetwo.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Crée les résumés de conversation manquants pour les messages antérieurs à la table conversations
+ * (le schéma étant généré par Hibernate, la reprise de V7 n'est pas jouée automatiquement).
+ * La reprise n'est jouée qu'une fois : sa fin est enregistrée dans job_watermarks, dont la ligne est
+ * verrouillée pendant le traitement pour qu'une autre instance démarrée en même temps attende puis l'ignore.
+ * Les messages envoyés ensuite sont résumés à l'envoi.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.message.conversation-backfill-on-startup", havingValue = "true", matchIfMissing = true)
+public class ConversationBackfillJob {
+
+    static final String JOB_NAME = "conversation-backfill";
+
+    private final ConversationRepository conversationRepository;
+    private final MessageRepository messageRepository;
+    private final JobWatermarkRepository jobWatermarkRepository;
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillConversations() {
+        jobWatermarkRepository.insertIfAbsent(JOB_NAME);
+        JobWatermark watermark = jobWatermarkRepository.findByIdForUpdate(JOB_NAME)
+                .orElseThrow(() -> new IllegalStateException("Position de reprise introuvable : " + JOB_NAME));
+        if (watermark.getCompletedAt() != null) {
+            return;
+        }
+
+        Long maxMessageId = messageRepository.findMaxId();
+        int inserted = conversationRepository.insertMissingConversationsFromMessages();
+        if (inserted > 0) {
+            log.info("{} résumés de conversation repris à partir des messages existants", inserted);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        watermark.setLastId(maxMessageId != null ? maxMessageId : 0L);
+        watermark.setUpdatedAt(now);
+        watermark.setCompletedAt(now);
+    }
+}
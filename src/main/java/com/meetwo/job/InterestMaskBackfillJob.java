@@ -0,0 +1,71 @@
+package com.meetwo.job;
+
+import com.meetwo.enums.Interest;
+import com.meetwo.repository.UserRepository;
+import com.meetwo.util.InterestMasks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calcule au démarrage le masque d'intérêts des utilisateurs antérieurs à la colonne interests_mask,
+ * par tranches d'IDs traitées chacune dans sa propre transaction. Seules les lignes fausses sont écrites.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.user.interests-mask-backfill-on-startup", havingValue = "true", matchIfMissing = true)
+public class InterestMaskBackfillJob {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.user.interests-mask-backfill.batch-size:1000}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInterestMasks() {
+        Long maxId = userRepository.findMaxId();
+        if (maxId == null) {
+            return;
+        }
+
+        long updated = 0;
+        for (long fromId = 0; fromId < maxId; fromId += batchSize) {
+            long from = fromId;
+            long to = Math.min(fromId + batchSize, maxId);
+            Integer batchUpdated = transactionTemplate.execute(status -> backfillRange(from, to));
+            updated += batchUpdated == null ? 0 : batchUpdated;
+        }
+
+        if (updated > 0) {
+            log.info("Masque d'intérêts calculé pour {} utilisateurs existants", updated);
+        }
+    }
+
+    private int backfillRange(long fromId, long toId) {
+        Map<Long, Long> masksByUser = new HashMap<>();
+        for (Object[] row : userRepository.findInterestsInRange(fromId, toId)) {
+            masksByUser.merge((Long) row[0], InterestMasks.of(List.of((Interest) row[1])), (a, b) -> a | b);
+        }
+
+        // Une requête par masque distinct de la tranche
+        Map<Long, List<Long>> usersByMask = new HashMap<>();
+        masksByUser.forEach((userId, mask) -> usersByMask.computeIfAbsent(mask, m -> new ArrayList<>()).add(userId));
+        int updated = 0;
+        for (Map.Entry<Long, List<Long>> entry : usersByMask.entrySet()) {
+            updated += userRepository.updateInterestsMask(entry.getValue(), entry.getKey());
+        }
+        return updated;
+    }
+}
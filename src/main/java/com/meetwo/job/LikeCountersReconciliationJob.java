@@ -0,0 +1,62 @@
+package com.meetwo.job;
+
+import com.meetwo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Recalcule périodiquement les compteurs dénormalisés des utilisateurs (likes donnés, reçus, matches)
+ * à partir des tables likes et matches, par tranches d'IDs traitées chacune dans sa propre transaction.
+ * Le passage au démarrage initialise les compteurs des comptes existants. Un utilisateur dont un événement
+ * de l'outbox des likes est encore en attente n'est corrigé qu'au passage suivant.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeCountersReconciliationJob {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.like.counters.reconcile-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.like.counters.reconcile-on-startup:true}")
+    private boolean reconcileOnStartup;
+
+    // Ordre par défaut (le plus bas) : après MatchBackfillJob, pour compter les matches repris
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (reconcileOnStartup) {
+            reconcile();
+        }
+    }
+
+    @Scheduled(cron = "${app.like.counters.reconcile-cron:0 0 5 * * *}")
+    public synchronized void reconcile() {
+        Long maxId = userRepository.findMaxId();
+        if (maxId == null) {
+            return;
+        }
+
+        long fixed = 0;
+        for (long fromId = 0; fromId < maxId; fromId += batchSize) {
+            long from = fromId;
+            long to = Math.min(fromId + batchSize, maxId);
+            Integer updated = transactionTemplate.execute(status -> userRepository.reconcileLikeCounters(from, to));
+            fixed += updated == null ? 0 : updated;
+        }
+
+        if (fixed > 0) {
+            log.warn("{} compteurs de likes utilisateur corrigés par la réconciliation", fixed);
+        } else {
+            log.debug("Compteurs de likes utilisateur cohérents");
+        }
+    }
+}
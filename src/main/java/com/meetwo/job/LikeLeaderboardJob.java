@@ -0,0 +1,34 @@
+package com.meetwo.job;
+
+import com.meetwo.service.leaderboard.LikeLeaderboard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Rafraîchit périodiquement le classement des plus likés.
+ * Le classement lit le compteur users.likes_received, tenu à jour par l'outbox des likes
+ * et corrigé par LikeCountersReconciliationJob : aucun autre compteur n'est maintenu ici.
+ */
+@Component
+@RequiredArgsConstructor
+public class LikeLeaderboardJob {
+
+    private final LikeLeaderboard likeLeaderboard;
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        likeLeaderboard.refresh();
+    }
+
+    @Transactional(readOnly = true)
+    @Scheduled(fixedDelayString = "${app.like.leaderboard.refresh-interval:60s}",
+            initialDelayString = "${app.like.leaderboard.refresh-interval:60s}")
+    public void refresh() {
+        likeLeaderboard.refresh();
+    }
+}
@@ -0,0 +1,35 @@
+package com.meetwo.job;
+
+import com.meetwo.repository.MatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Crée au démarrage les matches manquants pour les likes mutuels antérieurs à la table matches
+ * (le schéma étant généré par Hibernate, la reprise de V6 n'est pas jouée automatiquement)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.like.match-backfill-on-startup", havingValue = "true", matchIfMissing = true)
+public class MatchBackfillJob {
+
+    private final MatchRepository matchRepository;
+
+    // Avant les autres traitements de démarrage qui lisent les matches (compteurs)
+    @Order(0)
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMatches() {
+        int inserted = matchRepository.insertMissingMatchesFromLikes();
+        if (inserted > 0) {
+            log.info("{} matches repris à partir des likes mutuels existants", inserted);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.meetwo.job;
+
+import com.meetwo.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Calcule au démarrage pair_key pour les messages antérieurs à la colonne.
+ * Une transaction courte par lot, avec une pause entre les lots, comme la purge des messages.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.message.pair-key-backfill-on-startup", havingValue = "true", matchIfMissing = true)
+public class MessagePairKeyBackfillJob {
+
+    private final MessageRepository messageRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.message.pair-key-backfill.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.message.pair-key-backfill.pause-between-batches:100ms}")
+    private Duration pauseBetweenBatches;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPairKeys() {
+        long updated = 0;
+        try {
+            while (true) {
+                Integer batchUpdated = transactionTemplate.execute(status ->
+                        messageRepository.fillMissingPairKeysBatch(batchSize));
+                int count = batchUpdated == null ? 0 : batchUpdated;
+                updated += count;
+                if (count < batchSize) {
+                    break;
+                }
+                if (!pauseBetweenBatches.isZero()) {
+                    Thread.sleep(pauseBetweenBatches.toMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Reprise de pair_key interrompue après {} messages", updated);
+            return;
+        }
+
+        if (updated > 0) {
+            log.info("pair_key calculée pour {} messages existants", updated);
+        }
+    }
+}
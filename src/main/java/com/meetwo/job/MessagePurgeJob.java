@@ -0,0 +1,135 @@
+package com.meetwo.job;
+
+import com.meetwo.dto.response.MessagePurgeStatsResponse;
+import com.meetwo.repository.ConversationRepository;
+import com.meetwo.repository.MessageRepository;
+import com.meetwo.service.partition.MessagePartitionManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Purge périodique des messages supprimés des deux côtés et des messages au-delà de la durée de rétention.
+ * Chaque lot est supprimé dans sa propre transaction courte, avec une pause entre les lots :
+ * la purge ne garde jamais de verrous longs sur la table messages.
+ * Quand la table est partitionnée par mois, les partitions entièrement expirées sont d'abord supprimées d'un bloc.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessagePurgeJob {
+
+    private final MessageRepository messageRepository;
+    private final ConversationRepository conversationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MessagePartitionManager messagePartitionManager;
+
+    @Value("${app.message.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${app.message.cleanup.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.message.cleanup.pause-between-batches:100ms}")
+    private Duration pauseBetweenBatches;
+
+    @Value("${app.message.cleanup.max-batches-per-run:10000}")
+    private int maxBatchesPerRun;
+
+    // Progression, lue par l'endpoint de statistiques pendant ou après une purge
+    private volatile boolean running = false;
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile LocalDateTime lastRunFinishedAt;
+    private volatile long lastRunDeletedMarked;
+    private volatile long lastRunDeletedExpired;
+    private volatile int lastRunDroppedPartitions;
+    private volatile long lastRunBatches;
+    private volatile boolean lastRunComplete;
+    private final AtomicLong currentRunDeleted = new AtomicLong();
+    private final AtomicLong totalDeleted = new AtomicLong();
+
+    @Scheduled(initialDelayString = "${app.message.cleanup-initial-delay:10m}",
+            fixedDelayString = "${app.message.cleanup-interval:24h}")
+    public synchronized void purge() {
+        running = true;
+        lastRunStartedAt = LocalDateTime.now();
+        currentRunDeleted.set(0);
+        LocalDateTime cutoff = lastRunStartedAt.minusDays(retentionDays);
+
+        try {
+            long[] batches = {0};
+            lastRunDroppedPartitions = messagePartitionManager.dropPartitionsBefore(cutoff);
+            lastRunDeletedMarked = deleteInBatches(messageRepository::deleteMarkedForDeletionBatch, batches);
+            // Seuls restent les messages expirés hors partitions supprimées (mois entamé par la date limite)
+            lastRunDeletedExpired = deleteInBatches(limit -> messageRepository.deleteCreatedBeforeBatch(cutoff, limit), batches);
+            lastRunBatches = batches[0];
+            lastRunComplete = batches[0] < maxBatchesPerRun;
+
+            if (lastRunDeletedExpired > 0 || lastRunDroppedPartitions > 0) {
+                Integer cleared = transactionTemplate.execute(status -> conversationRepository.clearLastMessagesBefore(cutoff));
+                log.debug("{} résumés de conversation vidés après la purge de rétention", cleared);
+            }
+            log.info("Purge des messages : {} partitions expirées supprimées, {} supprimés des deux côtés, {} expirés, en {} lots{}",
+                    lastRunDroppedPartitions, lastRunDeletedMarked, lastRunDeletedExpired, lastRunBatches,
+                    lastRunComplete ? "" : " (limite de lots atteinte, reprise à la prochaine exécution)");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Purge des messages interrompue après {} suppressions", currentRunDeleted.get());
+        } finally {
+            lastRunFinishedAt = LocalDateTime.now();
+            running = false;
+        }
+    }
+
+    public MessagePurgeStatsResponse getStats() {
+        LocalDateTime startedAt = lastRunStartedAt;
+        LocalDateTime finishedAt = lastRunFinishedAt;
+        return MessagePurgeStatsResponse.builder()
+                .running(running)
+                .lastRunStartedAt(startedAt)
+                .lastRunFinishedAt(finishedAt)
+                .lastRunDurationMs(startedAt != null && finishedAt != null && !finishedAt.isBefore(startedAt)
+                        ? Duration.between(startedAt, finishedAt).toMillis() : 0)
+                .currentRunDeleted(currentRunDeleted.get())
+                .lastRunDeletedMarked(lastRunDeletedMarked)
+                .lastRunDeletedExpired(lastRunDeletedExpired)
+                .lastRunDroppedPartitions(lastRunDroppedPartitions)
+                .lastRunBatches(lastRunBatches)
+                .lastRunComplete(lastRunComplete)
+                .totalDeleted(totalDeleted.get())
+                .retentionDays(retentionDays)
+                .partitioned(messagePartitionManager.isActive())
+                .build();
+    }
+
+    /**
+     * Supprime des lots jusqu'à un lot incomplet (plus rien à purger) ou jusqu'à la limite de lots de l'exécution
+     */
+    private long deleteInBatches(IntUnaryOperator deleteBatch, long[] batches) throws InterruptedException {
+        long deleted = 0;
+        while (batches[0] < maxBatchesPerRun) {
+            Integer batchDeleted = transactionTemplate.execute(status -> deleteBatch.applyAsInt(batchSize));
+            int count = batchDeleted == null ? 0 : batchDeleted;
+            batches[0]++;
+            deleted += count;
+            currentRunDeleted.addAndGet(count);
+            totalDeleted.addAndGet(count);
+
+            if (count < batchSize) {
+                break;
+            }
+            if (!pauseBetweenBatches.isZero()) {
+                Thread.sleep(pauseBetweenBatches.toMillis());
+            }
+        }
+        return deleted;
+    }
+}
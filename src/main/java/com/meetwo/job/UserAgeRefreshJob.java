@@ -0,0 +1,61 @@
+package com.meetwo.job;
+
+import com.meetwo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Rafraîchit chaque nuit l'âge stocké des utilisateurs dont l'anniversaire est passé
+ * (l'entité ne le recalcule qu'à la modification du profil), par tranches d'IDs traitées
+ * chacune dans sa propre transaction. Seules les lignes dont l'âge a changé sont écrites,
+ * ce qui rattrape aussi les nuits manquées.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserAgeRefreshJob {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.user.age-refresh.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.user.age-refresh.on-startup:true}")
+    private boolean refreshOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshOnStartup() {
+        if (refreshOnStartup) {
+            refresh();
+        }
+    }
+
+    @Scheduled(cron = "${app.user.age-refresh.cron:0 5 0 * * *}")
+    public synchronized void refresh() {
+        Long maxId = userRepository.findMaxId();
+        if (maxId == null) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        long refreshed = 0;
+        for (long fromId = 0; fromId < maxId; fromId += batchSize) {
+            long from = fromId;
+            long to = Math.min(fromId + batchSize, maxId);
+            Integer updated = transactionTemplate.execute(status -> userRepository.refreshAges(from, to, today,
+                    today.getYear(), today.getMonthValue(), today.getDayOfMonth()));
+            refreshed += updated == null ? 0 : updated;
+        }
+
+        log.info("Âge rafraîchi pour {} utilisateurs", refreshed);
+    }
+}
@@ -0,0 +1,137 @@
+package com.meetwo.repository;
+
+import com.meetwo.entity.Conversation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+
+    // Créer la ligne de résumé d'une paire si elle n'existe pas encore
+    @Modifying
+    @Query(value = "INSERT INTO conversations (user1_id, user2_id, user1_unread_count, user2_unread_count, " +
+            "user1_hidden, user2_hidden) VALUES (:user1Id, :user2Id, 0, 0, false, false) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
+
+    // Récupérer le résumé d'une paire ordonnée en le verrouillant (mise à jour des compteurs)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Conversation c WHERE c.user1.id = :user1Id AND c.user2.id = :user2Id")
+    Optional<Conversation> findByPairForUpdate(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
+
+    // Récupérer le résumé d'une paire ordonnée, sans verrou (lecture des compteurs)
+    @Query("SELECT c FROM Conversation c WHERE c.user1.id = :user1Id AND c.user2.id = :user2Id")
+    Optional<Conversation> findByPair(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
+
+    // Récupérer les résumés des paires formées par un ensemble d'utilisateurs (watermarks de lecture d'une liste de messages)
+    @Query("SELECT c FROM Conversation c WHERE c.user1.id IN :userIds AND c.user2.id IN :userIds")
+    List<Conversation> findAmongUsers(@Param("userIds") Collection<Long> userIds);
+
+    // Compter les messages non lus d'un utilisateur, toutes conversations confondues
+    @Query("SELECT COALESCE(SUM(CASE WHEN c.user1.id = :userId THEN c.user1UnreadCount ELSE c.user2UnreadCount END), 0) " +
+            "FROM Conversation c WHERE c.user1.id = :userId OR c.user2.id = :userId")
+    long sumUnreadCountByUserId(@Param("userId") Long userId);
+
+    // Récupérer les interlocuteurs dont l'utilisateur a des messages non lus
+    @Query("SELECT CASE WHEN c.user1.id = :userId THEN c.user2.id ELSE c.user1.id END FROM Conversation c WHERE " +
+            "(c.user1.id = :userId AND c.user1UnreadCount > 0) OR " +
+            "(c.user2.id = :userId AND c.user2UnreadCount > 0)")
+    List<Long> findPartnerIdsWithUnread(@Param("userId") Long userId);
+
+    // Récupérer, parmi les interlocuteurs donnés, ceux dont l'utilisateur a des messages non lus
+    @Query("SELECT CASE WHEN c.user1.id = :userId THEN c.user2.id ELSE c.user1.id END FROM Conversation c WHERE " +
+            "(c.user1.id = :userId AND c.user2.id IN :partnerIds AND c.user1UnreadCount > 0) OR " +
+            "(c.user2.id = :userId AND c.user1.id IN :partnerIds AND c.user2UnreadCount > 0)")
+    List<Long> findPartnerIdsWithUnreadAmong(@Param("userId") Long userId,
+                                             @Param("partnerIds") Collection<Long> partnerIds);
+
+    // Lecture en lot : le watermark de l'utilisateur passe au dernier message de chaque conversation
+    // et ses non lus sont remis à zéro, en une seule écriture
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+            "c.user1LastReadMessageId = CASE WHEN c.user1.id = :userId THEN c.lastMessageId ELSE c.user1LastReadMessageId END, " +
+            "c.user1LastReadAt = CASE WHEN c.user1.id = :userId THEN :readAt ELSE c.user1LastReadAt END, " +
+            "c.user1UnreadCount = CASE WHEN c.user1.id = :userId THEN 0 ELSE c.user1UnreadCount END, " +
+            "c.user2LastReadMessageId = CASE WHEN c.user2.id = :userId THEN c.lastMessageId ELSE c.user2LastReadMessageId END, " +
+            "c.user2LastReadAt = CASE WHEN c.user2.id = :userId THEN :readAt ELSE c.user2LastReadAt END, " +
+            "c.user2UnreadCount = CASE WHEN c.user2.id = :userId THEN 0 ELSE c.user2UnreadCount END " +
+            "WHERE (c.user1.id = :userId AND c.user2.id IN :partnerIds AND c.user1UnreadCount > 0) OR " +
+            "(c.user2.id = :userId AND c.user1.id IN :partnerIds AND c.user2UnreadCount > 0)")
+    int markConversationsRead(@Param("userId") Long userId,
+                              @Param("partnerIds") Collection<Long> partnerIds,
+                              @Param("readAt") LocalDateTime readAt);
+
+    // Boîte de réception : première page des conversations visibles, de la plus récente à la plus ancienne
+    @Query("SELECT c FROM Conversation c JOIN FETCH c.user1 JOIN FETCH c.user2 WHERE " +
+            "((c.user1.id = :userId AND c.user1Hidden = false) OR " +
+            "(c.user2.id = :userId AND c.user2Hidden = false)) " +
+            "AND c.lastMessageAt IS NOT NULL " +
+            "ORDER BY c.lastMessageAt DESC, c.id DESC LIMIT :limit")
+    List<Conversation> findInboxFirstPage(@Param("userId") Long userId, @Param("limit") int limit);
+
+    // Boîte de réception : page suivante à partir du curseur (lastMessageAt, id)
+    @Query("SELECT c FROM Conversation c JOIN FETCH c.user1 JOIN FETCH c.user2 WHERE " +
+            "((c.user1.id = :userId AND c.user1Hidden = false) OR " +
+            "(c.user2.id = :userId AND c.user2Hidden = false)) " +
+            "AND (c.lastMessageAt < :lastMessageAt OR (c.lastMessageAt = :lastMessageAt AND c.id < :id)) " +
+            "ORDER BY c.lastMessageAt DESC, c.id DESC LIMIT :limit")
+    List<Conversation> findInboxAfter(@Param("userId") Long userId,
+                                      @Param("lastMessageAt") LocalDateTime lastMessageAt,
+                                      @Param("id") Long id,
+                                      @Param("limit") int limit);
+
+    // Après la purge de rétention : tous les messages des paires inactives depuis la date limite ont disparu
+    @Modifying
+    @Query("UPDATE Conversation c SET c.lastMessageId = null, c.lastMessagePreview = null, c.lastSenderId = null, " +
+            "c.replyPendingSince = null, " +
+            "c.user1UnreadCount = 0, c.user2UnreadCount = 0 " +
+            "WHERE c.lastMessageAt < :cutoff AND c.lastMessageId IS NOT NULL")
+    int clearLastMessagesBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Supprimer les conversations d'un utilisateur (suppression de compte)
+    @Modifying
+    @Query("DELETE FROM Conversation c WHERE c.user1.id = :userId OR c.user2.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Reprise des résumés à partir des messages existants (paires sans résumé uniquement,
+    // une paire résumée entre-temps par un envoi est ignorée)
+    @Modifying
+    @Query(value = "INSERT INTO conversations (user1_id, user2_id, last_message_id, last_message_preview, " +
+            "last_message_at, last_sender_id, reply_pending_since, user1_unread_count, user2_unread_count, " +
+            "user1_last_read_message_id, user2_last_read_message_id, user1_hidden, user2_hidden) " +
+            "SELECT p.user1_id, p.user2_id, m.id_message, SUBSTRING(m.content, 1, 200), m.created_at, m.sender_id, " +
+            "m.created_at, " +
+            "(SELECT COUNT(*) FROM messages u WHERE u.receiver_id = p.user1_id AND u.sender_id = p.user2_id " +
+            "AND u.is_read = false AND u.is_deleted_by_receiver = false), " +
+            "(SELECT COUNT(*) FROM messages u WHERE u.receiver_id = p.user2_id AND u.sender_id = p.user1_id " +
+            "AND u.is_read = false AND u.is_deleted_by_receiver = false), " +
+            "(SELECT MAX(r.id_message) FROM messages r WHERE r.receiver_id = p.user1_id AND r.sender_id = p.user2_id " +
+            "AND r.is_read = true), " +
+            "(SELECT MAX(r.id_message) FROM messages r WHERE r.receiver_id = p.user2_id AND r.sender_id = p.user1_id " +
+            "AND r.is_read = true), " +
+            "NOT EXISTS (SELECT 1 FROM messages v WHERE " +
+            "(v.sender_id = p.user1_id AND v.receiver_id = p.user2_id AND v.is_deleted_by_sender = false) OR " +
+            "(v.receiver_id = p.user1_id AND v.sender_id = p.user2_id AND v.is_deleted_by_receiver = false)), " +
+            "NOT EXISTS (SELECT 1 FROM messages v WHERE " +
+            "(v.sender_id = p.user2_id AND v.receiver_id = p.user1_id AND v.is_deleted_by_sender = false) OR " +
+            "(v.receiver_id = p.user2_id AND v.sender_id = p.user1_id AND v.is_deleted_by_receiver = false)) " +
+            "FROM (SELECT LEAST(sender_id, receiver_id) AS user1_id, GREATEST(sender_id, receiver_id) AS user2_id, " +
+            "MAX(id_message) AS last_message_id FROM messages " +
+            "GROUP BY LEAST(sender_id, receiver_id), GREATEST(sender_id, receiver_id)) p " +
+            "JOIN messages m ON m.id_message = p.last_message_id " +
+            "WHERE NOT EXISTS (SELECT 1 FROM conversations c " +
+            "WHERE c.user1_id = p.user1_id AND c.user2_id = p.user2_id) " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertMissingConversationsFromMessages();
+}
@@ -0,0 +1,28 @@
+package com.meetwo.repository;
+
+import com.meetwo.entity.JobWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobWatermarkRepository extends JpaRepository<JobWatermark, String> {
+
+    // Créer la position initiale d'un traitement si elle n'existe pas encore
+    @Modifying
+    @Query(value = "INSERT INTO job_watermarks (job_name, last_id, updated_at) " +
+            "VALUES (:jobName, 0, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("jobName") String jobName);
+
+    // Récupérer la position d'un traitement en la verrouillant (une seule instance le joue à la fois)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM JobWatermark w WHERE w.jobName = :jobName")
+    Optional<JobWatermark> findByIdForUpdate(@Param("jobName") String jobName);
+}
@@ -0,0 +1,59 @@
+package com.meetwo.repository;
+
+import com.meetwo.enums.OutboxEventType;
+import com.meetwo.enums.OutboxStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Insertions de likes et d'événements d'outbox par lots JDBC.
+ * Les IDs IDENTITY empêchent Hibernate de regrouper les INSERT (hibernate.jdbc.batch_size est ignoré),
+ * d'où le passage direct par JdbcTemplate pour l'ingestion en masse.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LikeBatchRepository {
+
+    // Les NOT EXISTS rendent les insertions tolérantes à un like/match créé en parallèle par une autre requête
+    private static final String INSERT_LIKE_SQL =
+            "INSERT INTO likes (liker_id, liked_user_id, created_at, updated_at) " +
+            "SELECT ?, ?, ?, ? WHERE NOT EXISTS " +
+            "(SELECT 1 FROM likes WHERE liker_id = ? AND liked_user_id = ?)";
+
+    private static final String INSERT_OUTBOX_EVENT_SQL =
+            "INSERT INTO like_outbox (event_type, liker_id, liked_user_id, status, attempts, created_at, next_attempt_at) " +
+            "VALUES (?, ?, ?, ?, 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insère les likes de likerId vers chaque utilisateur, en un seul lot.
+     * Retourne pour chaque ligne le nombre de likes insérés (0 si le like existait déjà).
+     */
+    public int[] insertLikes(Long likerId, List<Long> likedUserIds, LocalDateTime createdAt) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        List<Object[]> rows = likedUserIds.stream()
+                .map(likedUserId -> new Object[]{likerId, likedUserId, timestamp, timestamp, likerId, likedUserId})
+                .toList();
+        return jdbcTemplate.batchUpdate(INSERT_LIKE_SQL, rows);
+    }
+
+    /**
+     * Insère dans l'outbox un événement par utilisateur liké, en un seul lot
+     */
+    public void insertOutboxEvents(OutboxEventType eventType, Long likerId, Collection<Long> likedUserIds,
+                                   LocalDateTime createdAt) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        List<Object[]> rows = likedUserIds.stream()
+                .map(likedUserId -> new Object[]{eventType.name(), likerId, likedUserId,
+                        OutboxStatus.PENDING.name(), timestamp, timestamp})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_EVENT_SQL, rows);
+    }
+}
@@ -0,0 +1,15 @@
+package com.meetwo.repository;
+
+/**
+ * Projection des compteurs de likes et matches d'un utilisateur (lecture par clé primaire)
+ */
+public interface LikeCountersView {
+
+    Long getId();
+
+    long getLikesGiven();
+
+    long getLikesReceived();
+
+    long getMatchesCount();
+}
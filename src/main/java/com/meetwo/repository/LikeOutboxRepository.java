@@ -0,0 +1,64 @@
+package com.meetwo.repository;
+
+import com.meetwo.entity.LikeOutboxEvent;
+import com.meetwo.enums.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LikeOutboxRepository extends JpaRepository<LikeOutboxEvent, Long> {
+
+    // Récupérer un événement en le verrouillant (un seul traitement à la fois par événement)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM LikeOutboxEvent e WHERE e.id = :id")
+    Optional<LikeOutboxEvent> findByIdForUpdate(@Param("id") Long id);
+
+    // Récupérer les IDs des événements à traiter dont l'échéance est passée
+    @Query("SELECT e.id FROM LikeOutboxEvent e WHERE e.status = :status AND e.nextAttemptAt <= :now " +
+            "ORDER BY e.id LIMIT :limit")
+    List<Long> findDueEventIds(@Param("status") OutboxStatus status,
+                               @Param("now") LocalDateTime now,
+                               @Param("limit") int limit);
+
+    // Compter les événements par statut
+    long countByStatus(OutboxStatus status);
+
+    // Remettre en attente les événements en échec (rejeu)
+    @Modifying
+    @Query("UPDATE LikeOutboxEvent e SET e.status = :pending, e.attempts = 0, e.nextAttemptAt = :now " +
+            "WHERE e.status = :failed")
+    int requeueFailed(@Param("pending") OutboxStatus pending,
+                      @Param("failed") OutboxStatus failed,
+                      @Param("now") LocalDateTime now);
+
+    // Remettre en attente un événement précis non encore appliqué (rejeu ciblé) :
+    // un événement traité ne doit jamais repasser, ses deltas de compteurs seraient comptés deux fois
+    @Modifying
+    @Query("UPDATE LikeOutboxEvent e SET e.status = :pending, e.attempts = 0, e.nextAttemptAt = :now " +
+            "WHERE e.id = :id AND e.status IN (:pending, :failed)")
+    int requeue(@Param("id") Long id,
+                @Param("pending") OutboxStatus pending,
+                @Param("failed") OutboxStatus failed,
+                @Param("now") LocalDateTime now);
+
+    // Écrire un événement LIKE_REMOVED pour chaque like donné ou reçu par un utilisateur (avant leur suppression en masse)
+    @Modifying
+    @Query(value = "INSERT INTO like_outbox (event_type, liker_id, liked_user_id, status, attempts, created_at, next_attempt_at) " +
+            "SELECT 'LIKE_REMOVED', l.liker_id, l.liked_user_id, 'PENDING', 0, :now, :now FROM likes l " +
+            "WHERE l.liker_id = :userId OR l.liked_user_id = :userId", nativeQuery = true)
+    int insertRemovedEventsForUser(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // Supprimer les événements traités plus anciens qu'une date
+    @Modifying
+    @Query("DELETE FROM LikeOutboxEvent e WHERE e.status = :status AND e.processedAt < :before")
+    int deleteProcessedBefore(@Param("status") OutboxStatus status, @Param("before") LocalDateTime before);
+}
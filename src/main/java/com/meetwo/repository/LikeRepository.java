@@ -2,10 +2,13 @@ package com.meetwo.repository;
 
 import com.meetwo.entity.Like;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +27,34 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     // Récupérer tous les likes reçus par un utilisateur
     List<Like> findByLikedUserIdOrderByCreatedAtDesc(Long likedUserId);
 
+    // Pagination par curseur des likes donnés : première page
+    @Query("SELECT l FROM Like l JOIN FETCH l.likedUser WHERE l.liker.id = :likerId " +
+            "ORDER BY l.createdAt DESC, l.id DESC LIMIT :limit")
+    List<Like> findGivenLikesFirstPage(@Param("likerId") Long likerId, @Param("limit") int limit);
+
+    // Pagination par curseur des likes donnés : page suivant le curseur (createdAt, id)
+    @Query("SELECT l FROM Like l JOIN FETCH l.likedUser WHERE l.liker.id = :likerId " +
+            "AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id)) " +
+            "ORDER BY l.createdAt DESC, l.id DESC LIMIT :limit")
+    List<Like> findGivenLikesAfter(@Param("likerId") Long likerId,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id,
+                                   @Param("limit") int limit);
+
+    // Pagination par curseur des likes reçus : première page
+    @Query("SELECT l FROM Like l JOIN FETCH l.liker WHERE l.likedUser.id = :likedUserId " +
+            "ORDER BY l.createdAt DESC, l.id DESC LIMIT :limit")
+    List<Like> findReceivedLikesFirstPage(@Param("likedUserId") Long likedUserId, @Param("limit") int limit);
+
+    // Pagination par curseur des likes reçus : page suivant le curseur (createdAt, id)
+    @Query("SELECT l FROM Like l JOIN FETCH l.liker WHERE l.likedUser.id = :likedUserId " +
+            "AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id)) " +
+            "ORDER BY l.createdAt DESC, l.id DESC LIMIT :limit")
+    List<Like> findReceivedLikesAfter(@Param("likedUserId") Long likedUserId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      @Param("limit") int limit);
+
     // Compter les likes donnés par un utilisateur
     long countByLikerId(Long likerId);
 
@@ -34,15 +65,6 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     @Query("SELECT l FROM Like l WHERE l.liker.id = :likerId ORDER BY l.createdAt DESC LIMIT :limit")
     List<Like> findRecentLikesByLiker(@Param("likerId") Long likerId, @Param("limit") int limit);
 
-    // Récupérer les likes mutuels (matches)
-    @Query("SELECT l1 FROM Like l1 " +
-            "WHERE EXISTS (SELECT l2 FROM Like l2 " +
-            "WHERE l1.liker.id = l2.likedUser.id " +
-            "AND l1.likedUser.id = l2.liker.id) " +
-            "AND l1.liker.id = :userId " +
-            "ORDER BY l1.createdAt DESC")
-    List<Like> findMutualLikesByUser(@Param("userId") Long userId);
-
     // Vérifier s'il y a un match mutuel entre deux utilisateurs
     @Query("SELECT COUNT(l) > 0 FROM Like l " +
             "WHERE (l.liker.id = :userId1 AND l.likedUser.id = :userId2) " +
@@ -53,29 +75,37 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     @Query("SELECT l.likedUser.id FROM Like l WHERE l.liker.id = :likerId")
     List<Long> findLikedUserIdsByLiker(@Param("likerId") Long likerId);
 
+    // Récupérer les IDs des utilisateurs ayant liké un utilisateur
+    @Query("SELECT l.liker.id FROM Like l WHERE l.likedUser.id = :likedUserId")
+    List<Long> findLikerIdsByLikedUser(@Param("likedUserId") Long likedUserId);
+
+    // Récupérer, parmi une liste d'utilisateurs, ceux déjà likés par un utilisateur
+    @Query("SELECT l.likedUser.id FROM Like l WHERE l.liker.id = :likerId AND l.likedUser.id IN :likedUserIds")
+    List<Long> findLikedUserIdsAmong(@Param("likerId") Long likerId,
+                                     @Param("likedUserIds") Collection<Long> likedUserIds);
+
+    // Récupérer, parmi une liste d'utilisateurs, ceux ayant liké un utilisateur
+    @Query("SELECT l.liker.id FROM Like l WHERE l.likedUser.id = :likedUserId AND l.liker.id IN :likerIds")
+    List<Long> findLikerIdsAmong(@Param("likedUserId") Long likedUserId,
+                                 @Param("likerIds") Collection<Long> likerIds);
+
+    // Parcourir les likes par lots ordonnés sur l'ID : {idLike, likerId, likedUserId}
+    @Query("SELECT l.id, l.liker.id, l.likedUser.id FROM Like l WHERE l.id > :afterId ORDER BY l.id LIMIT :limit")
+    List<Object[]> findLikeEdgesAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
     // Récupérer les likes récents reçus par un utilisateur (notifications)
     @Query("SELECT l FROM Like l WHERE l.likedUser.id = :userId " +
             "AND l.createdAt >= :since ORDER BY l.createdAt DESC")
-    List<Like> findRecentLikesReceived(@Param("userId") Long userId, @Param("since") java.time.LocalDateTime since);
+    List<Like> findRecentLikesReceived(@Param("userId") Long userId, @Param("since") LocalDateTime since);
 
-    // Supprimer un like spécifique
-    void deleteByLikerIdAndLikedUserId(Long likerId, Long likedUserId);
+    // Supprimer un like spécifique (retourne le nombre de likes supprimés)
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.liker.id = :likerId AND l.likedUser.id = :likedUserId")
+    int deleteByPair(@Param("likerId") Long likerId, @Param("likedUserId") Long likedUserId);
 
     // Supprimer tous les likes d'un utilisateur (quand il supprime son compte)
     void deleteByLikerIdOrLikedUserId(Long userId, Long userId2);
 
-    // Statistiques : Top des utilisateurs les plus likés
-    @Query("SELECT l.likedUser.id, COUNT(l) as likeCount FROM Like l " +
-            "GROUP BY l.likedUser.id ORDER BY likeCount DESC LIMIT :limit")
-    List<Object[]> findTopLikedUsers(@Param("limit") int limit);
-
-    // Récupérer les likes entre utilisateurs d'une même ville (pour matching local)
-    @Query("SELECT l FROM Like l " +
-            "WHERE l.liker.city = l.likedUser.city " +
-            "AND l.liker.city = :city " +
-            "ORDER BY l.createdAt DESC")
-    List<Like> findLikesByCity(@Param("city") String city);
-
     // Vérifier si c'est un match mutuel complet
     @Query("SELECT COUNT(l) FROM Like l " +
             "WHERE (l.liker.id = :userId1 AND l.likedUser.id = :userId2) " +
@@ -0,0 +1,92 @@
+package com.meetwo.repository;
+
+import com.meetwo.dto.response.MatchPairResponse;
+import com.meetwo.entity.Match;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Les paires sont toujours stockées ordonnées (user1Id < user2Id) :
+ * les appelants doivent passer les IDs dans cet ordre.
+ */
+@Repository
+public interface MatchRepository extends JpaRepository<Match, Long> {
+
+    // Récupérer la première page des matches entre utilisateurs d'une même ville (plus récents d'abord)
+    @Query("SELECT new com.meetwo.dto.response.MatchPairResponse(m.id, u1.id, u1.username, u1.name, " +
+            "u2.id, u2.username, u2.name, m.matchedAt) " +
+            "FROM Match m JOIN m.user1 u1 JOIN m.user2 u2 " +
+            "WHERE u1.city = :city AND u2.city = :city " +
+            "ORDER BY m.matchedAt DESC, m.id DESC LIMIT :limit")
+    List<MatchPairResponse> findCityMatchesFirstPage(@Param("city") String city, @Param("limit") int limit);
+
+    // Récupérer la page suivante des matches d'une ville après le curseur (matchedAt, id)
+    @Query("SELECT new com.meetwo.dto.response.MatchPairResponse(m.id, u1.id, u1.username, u1.name, " +
+            "u2.id, u2.username, u2.name, m.matchedAt) " +
+            "FROM Match m JOIN m.user1 u1 JOIN m.user2 u2 " +
+            "WHERE u1.city = :city AND u2.city = :city " +
+            "AND (m.matchedAt < :matchedAt OR (m.matchedAt = :matchedAt AND m.id < :id)) " +
+            "ORDER BY m.matchedAt DESC, m.id DESC LIMIT :limit")
+    List<MatchPairResponse> findCityMatchesAfter(@Param("city") String city,
+                                                 @Param("matchedAt") LocalDateTime matchedAt,
+                                                 @Param("id") Long id,
+                                                 @Param("limit") int limit);
+
+    // Vérifier si une paire d'utilisateurs a matché
+    boolean existsByUser1IdAndUser2Id(Long user1Id, Long user2Id);
+
+    // Trouver le match d'une paire d'utilisateurs
+    Optional<Match> findByUser1IdAndUser2Id(Long user1Id, Long user2Id);
+
+    // Récupérer les matches d'un utilisateur avec les deux profils chargés
+    @Query("SELECT m FROM Match m JOIN FETCH m.user1 JOIN FETCH m.user2 " +
+            "WHERE m.user1.id = :userId OR m.user2.id = :userId " +
+            "ORDER BY m.matchedAt DESC")
+    List<Match> findByUserId(@Param("userId") Long userId);
+
+    // Récupérer les IDs des utilisateurs matchés avec un utilisateur
+    @Query("SELECT CASE WHEN m.user1.id = :userId THEN m.user2.id ELSE m.user1.id END " +
+            "FROM Match m WHERE m.user1.id = :userId OR m.user2.id = :userId")
+    List<Long> findMatchedUserIds(@Param("userId") Long userId);
+
+    // Parmi une liste d'utilisateurs, récupérer ceux qui sont matchés avec un utilisateur
+    @Query("SELECT CASE WHEN m.user1.id = :userId THEN m.user2.id ELSE m.user1.id END " +
+            "FROM Match m WHERE (m.user1.id = :userId AND m.user2.id IN :candidateIds) " +
+            "OR (m.user2.id = :userId AND m.user1.id IN :candidateIds)")
+    List<Long> findMatchedUserIdsAmong(@Param("userId") Long userId,
+                                       @Param("candidateIds") Collection<Long> candidateIds);
+
+    // Compter les matches d'un utilisateur
+    @Query("SELECT COUNT(m) FROM Match m WHERE m.user1.id = :userId OR m.user2.id = :userId")
+    long countByUserId(@Param("userId") Long userId);
+
+    // Supprimer le match d'une paire d'utilisateurs
+    @Modifying
+    @Query("DELETE FROM Match m WHERE m.user1.id = :user1Id AND m.user2.id = :user2Id")
+    int deleteByPair(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
+
+    // Supprimer tous les matches d'un utilisateur (quand il supprime son compte)
+    @Modifying
+    @Query("DELETE FROM Match m WHERE m.user1.id = :userId OR m.user2.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Reprise : créer les matches manquants à partir des likes mutuels existants
+    @Modifying
+    @Query(value = "INSERT INTO matches (user1_id, user2_id, matched_at) " +
+            "SELECT l1.liker_id, l1.liked_user_id, GREATEST(l1.created_at, l2.created_at) " +
+            "FROM likes l1 JOIN likes l2 " +
+            "ON l2.liker_id = l1.liked_user_id AND l2.liked_user_id = l1.liker_id " +
+            "WHERE l1.liker_id < l1.liked_user_id " +
+            "AND NOT EXISTS (SELECT 1 FROM matches m " +
+            "WHERE m.user1_id = l1.liker_id AND m.user2_id = l1.liked_user_id)",
+            nativeQuery = true)
+    int insertMissingMatchesFromLikes();
+}
@@ -0,0 +1,69 @@
+package com.meetwo.repository;
+
+import com.meetwo.entity.Message;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Insertion de messages par lots JDBC, avec récupération des IDs générés.
+ * Comme pour les likes, les IDs IDENTITY empêchent Hibernate de regrouper les INSERT.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MessageBatchRepository {
+
+    private static final String INSERT_MESSAGE_SQL =
+            "INSERT INTO messages (sender_id, receiver_id, pair_key, content, message_type, is_read, " +
+            "created_at, updated_at, is_deleted_by_sender, is_deleted_by_receiver) " +
+            "VALUES (?, ?, ?, ?, ?, false, ?, ?, false, false)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insère les messages en un seul lot et renseigne leur ID (dans l'ordre de la liste)
+     */
+    public void insertMessages(List<Message> messages) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_MESSAGE_SQL, new String[]{"id_message"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Message message = messages.get(i);
+                        Timestamp createdAt = Timestamp.valueOf(message.getCreatedAt());
+                        ps.setLong(1, message.getSender().getId());
+                        ps.setLong(2, message.getReceiver().getId());
+                        ps.setString(3, message.getPairKey());
+                        ps.setString(4, message.getContent());
+                        ps.setString(5, message.getMessageType().name());
+                        ps.setTimestamp(6, createdAt);
+                        ps.setTimestamp(7, createdAt);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return messages.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != messages.size()) {
+            throw new IllegalStateException("IDs générés incomplets : " + keys.size() + " pour " + messages.size() + " messages");
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            Object id = keys.get(i).values().iterator().next();
+            messages.get(i).setId(((Number) id).longValue());
+        }
+    }
+}
@@ -2,60 +2,81 @@ package com.meetwo.repository;
 
 import com.meetwo.entity.Message;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
-    // Récupérer tous les messages entre deux utilisateurs
-    @Query("SELECT m FROM Message m WHERE " +
-            "(m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-            "(m.sender.id = :userId2 AND m.receiver.id = :userId1) " +
-            "ORDER BY m.createdAt ASC")
-    List<Message> findConversationBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
-
-    // Récupérer les messages d'une conversation avec pagination
-    @Query("SELECT m FROM Message m WHERE " +
-            "(m.sender.id = :userId1 AND m.receiver.id = :userId2 AND m.isDeletedBySender = false) OR " +
-            "(m.sender.id = :userId2 AND m.receiver.id = :userId1 AND m.isDeletedByReceiver = false) " +
-            "ORDER BY m.createdAt DESC LIMIT :limit")
-    List<Message> findRecentMessagesBetweenUsers(@Param("userId1") Long userId1,
-                                                 @Param("userId2") Long userId2,
+    // Historique d'une conversation vu par :userId : derniers messages visibles (du plus récent au plus ancien).
+    // Les requêtes de paire passent par pair_key : une seule plage de l'index (pair_key, created_at, id_message)
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.receiver WHERE " +
+            "m.pairKey = :pairKey AND " +
+            "((m.sender.id = :userId AND m.isDeletedBySender = false) OR " +
+            "(m.receiver.id = :userId AND m.isDeletedByReceiver = false)) " +
+            "ORDER BY m.createdAt DESC, m.id DESC LIMIT :limit")
+    List<Message> findHistoryLatest(@Param("userId") Long userId,
+                                    @Param("pairKey") String pairKey,
+                                    @Param("limit") int limit);
+
+    // Historique : messages visibles plus anciens que le curseur (createdAt, id), du plus récent au plus ancien
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.receiver WHERE " +
+            "m.pairKey = :pairKey AND " +
+            "((m.sender.id = :userId AND m.isDeletedBySender = false) OR " +
+            "(m.receiver.id = :userId AND m.isDeletedByReceiver = false)) " +
+            "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+            "ORDER BY m.createdAt DESC, m.id DESC LIMIT :limit")
+    List<Message> findHistoryBefore(@Param("userId") Long userId,
+                                    @Param("pairKey") String pairKey,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id,
+                                    @Param("limit") int limit);
+
+    // Historique : messages visibles plus récents que le curseur (createdAt, id), du plus ancien au plus récent
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.receiver WHERE " +
+            "m.pairKey = :pairKey AND " +
+            "((m.sender.id = :userId AND m.isDeletedBySender = false) OR " +
+            "(m.receiver.id = :userId AND m.isDeletedByReceiver = false)) " +
+            "AND (m.createdAt > :createdAt OR (m.createdAt = :createdAt AND m.id > :id)) " +
+            "ORDER BY m.createdAt ASC, m.id ASC LIMIT :limit")
+    List<Message> findHistoryAfter(@Param("userId") Long userId,
+                                   @Param("pairKey") String pairKey,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id,
+                                   @Param("limit") int limit);
+
+    // Récupérer les derniers messages d'une conversation visibles par :userId
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.receiver WHERE " +
+            "m.pairKey = :pairKey AND " +
+            "((m.sender.id = :userId AND m.isDeletedBySender = false) OR " +
+            "(m.receiver.id = :userId AND m.isDeletedByReceiver = false)) " +
+            "ORDER BY m.createdAt DESC, m.id DESC LIMIT :limit")
+    List<Message> findRecentMessagesBetweenUsers(@Param("userId") Long userId,
+                                                 @Param("pairKey") String pairKey,
                                                  @Param("limit") int limit);
 
-    // Récupérer le dernier message entre deux utilisateurs
-    @Query("SELECT m FROM Message m WHERE " +
-            "(m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-            "(m.sender.id = :userId2 AND m.receiver.id = :userId1) " +
-            "ORDER BY m.createdAt DESC LIMIT 1")
-    Optional<Message> findLastMessageBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
-
-    // Compter les messages non lus pour un utilisateur
-    @Query("SELECT COUNT(m) FROM Message m WHERE " +
-            "m.receiver.id = :userId AND m.isRead = false AND m.isDeletedByReceiver = false")
-    long countUnreadMessagesByReceiver(@Param("userId") Long userId);
+    // Récupérer le dernier message d'une paire
+    @Query("SELECT m FROM Message m WHERE m.pairKey = :pairKey ORDER BY m.createdAt DESC, m.id DESC LIMIT 1")
+    Optional<Message> findLastMessageByPairKey(@Param("pairKey") String pairKey);
 
-    // Compter les messages non lus d'une conversation spécifique
+    // Compter les messages reçus après un message donné (non lus restants sous le watermark de lecture)
     @Query("SELECT COUNT(m) FROM Message m WHERE " +
-            "m.receiver.id = :receiverId AND m.sender.id = :senderId AND " +
-            "m.isRead = false AND m.isDeletedByReceiver = false")
-    long countUnreadMessagesInConversation(@Param("receiverId") Long receiverId, @Param("senderId") Long senderId);
-
-    // Récupérer tous les messages envoyés par un utilisateur
-    List<Message> findBySenderIdAndIsDeletedBySenderFalseOrderByCreatedAtDesc(Long senderId);
+            "m.pairKey = :pairKey AND m.receiver.id = :receiverId AND " +
+            "m.id > :afterId AND m.isDeletedByReceiver = false")
+    long countReceivedAfter(@Param("pairKey") String pairKey,
+                            @Param("receiverId") Long receiverId,
+                            @Param("afterId") Long afterId);
 
     // Récupérer tous les messages reçus par un utilisateur
     List<Message> findByReceiverIdAndIsDeletedByReceiverFalseOrderByCreatedAtDesc(Long receiverId);
 
-    // Récupérer les messages non lus d'un utilisateur
-    List<Message> findByReceiverIdAndIsReadFalseAndIsDeletedByReceiverFalseOrderByCreatedAtDesc(Long receiverId);
-
     // Trouver les utilisateurs avec qui un utilisateur a des conversations
     @Query("SELECT DISTINCT " +
             "CASE WHEN m.sender.id = :userId THEN m.receiver.id ELSE m.sender.id END " +
@@ -64,27 +85,49 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
             "(m.receiver.id = :userId AND m.isDeletedByReceiver = false)")
     List<Long> findConversationPartnerIds(@Param("userId") Long userId);
 
-    // Marquer tous les messages d'une conversation comme lus
-    @Query("UPDATE Message m SET m.isRead = true, m.readAt = :readAt WHERE " +
-            "m.receiver.id = :receiverId AND m.sender.id = :senderId AND m.isRead = false")
-    void markConversationAsRead(@Param("receiverId") Long receiverId,
-                                @Param("senderId") Long senderId,
-                                @Param("readAt") LocalDateTime readAt);
-
     // Supprimer logiquement les messages d'un côté de la conversation
+    @Modifying
     @Query("UPDATE Message m SET m.isDeletedBySender = true WHERE " +
             "m.sender.id = :userId AND " +
             "(m.receiver.id = :otherUserId OR :otherUserId IS NULL)")
     void markMessagesAsDeletedBySender(@Param("userId") Long userId, @Param("otherUserId") Long otherUserId);
 
+    @Modifying
     @Query("UPDATE Message m SET m.isDeletedByReceiver = true WHERE " +
             "m.receiver.id = :userId AND " +
             "(m.sender.id = :otherUserId OR :otherUserId IS NULL)")
     void markMessagesAsDeletedByReceiver(@Param("userId") Long userId, @Param("otherUserId") Long otherUserId);
 
-    // Supprimer physiquement les messages supprimés des deux côtés
-    @Query("DELETE FROM Message m WHERE m.isDeletedBySender = true AND m.isDeletedByReceiver = true")
-    void deleteMessagesMarkedForDeletion();
+    // Supprimer logiquement un message d'un côté : 0 s'il l'était déjà (rien à décompter une seconde fois)
+    @Modifying
+    @Query("UPDATE Message m SET m.isDeletedBySender = true WHERE m.id = :messageId AND m.isDeletedBySender = false")
+    int markDeletedBySender(@Param("messageId") Long messageId);
+
+    @Modifying
+    @Query("UPDATE Message m SET m.isDeletedByReceiver = true WHERE m.id = :messageId AND m.isDeletedByReceiver = false")
+    int markDeletedByReceiver(@Param("messageId") Long messageId);
+
+    // Supprimer physiquement un message s'il est supprimé des deux côtés
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.id = :messageId AND m.isDeletedBySender = true AND m.isDeletedByReceiver = true")
+    int deleteIfDeletedOnBothSides(@Param("messageId") Long messageId);
+
+    // Purge : supprimer physiquement un lot de messages supprimés des deux côtés
+    @Modifying
+    @Query(value = "DELETE FROM messages WHERE id_message IN (" +
+            "SELECT id_message FROM messages " +
+            "WHERE is_deleted_by_sender = true AND is_deleted_by_receiver = true " +
+            "ORDER BY id_message LIMIT :limit)",
+            nativeQuery = true)
+    int deleteMarkedForDeletionBatch(@Param("limit") int limit);
+
+    // Purge : supprimer un lot de messages plus anciens que la durée de rétention
+    @Modifying
+    @Query(value = "DELETE FROM messages WHERE id_message IN (" +
+            "SELECT id_message FROM messages WHERE created_at < :cutoff " +
+            "ORDER BY created_at LIMIT :limit)",
+            nativeQuery = true)
+    int deleteCreatedBeforeBatch(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
 
     // Statistiques - Compter les messages envoyés par un utilisateur
     long countBySenderIdAndIsDeletedBySenderFalse(Long senderId);
@@ -98,19 +141,50 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
             "m.isDeletedByReceiver = false ORDER BY m.createdAt DESC")
     List<Message> findRecentMessagesForUser(@Param("userId") Long userId, @Param("since") LocalDateTime since);
 
-    // Vérifier s'il existe au moins un message entre deux utilisateurs
-    @Query("SELECT COUNT(m) > 0 FROM Message m WHERE " +
-            "(m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-            "(m.sender.id = :userId2 AND m.receiver.id = :userId1)")
-    boolean existsConversationBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+    // Vérifier s'il existe au moins un message dans une paire
+    boolean existsByPairKey(String pairKey);
 
-    // Rechercher des messages par contenu (pour futures fonctionnalités)
-    @Query("SELECT m FROM Message m WHERE " +
+    // Rechercher des messages par contenu (repli sans index plein texte), du plus récent au plus ancien
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.receiver WHERE " +
             "((m.sender.id = :userId AND m.isDeletedBySender = false) OR " +
             "(m.receiver.id = :userId AND m.isDeletedByReceiver = false)) AND " +
             "LOWER(m.content) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-            "ORDER BY m.createdAt DESC")
-    List<Message> searchMessagesByContent(@Param("userId") Long userId, @Param("searchTerm") String searchTerm);
+            "ORDER BY m.createdAt DESC, m.id DESC LIMIT :limit OFFSET :offset")
+    List<Message> searchMessagesByContent(@Param("userId") Long userId,
+                                          @Param("searchTerm") String searchTerm,
+                                          @Param("limit") int limit,
+                                          @Param("offset") int offset);
+
+    // Recherche plein texte Postgres (index GIN idx_messages_content_fts), triée par pertinence
+    @Query(value = "SELECT m.* FROM messages m WHERE " +
+            "((m.sender_id = :userId AND m.is_deleted_by_sender = false) OR " +
+            "(m.receiver_id = :userId AND m.is_deleted_by_receiver = false)) AND " +
+            "to_tsvector('french', m.content) @@ websearch_to_tsquery('french', :searchTerm) " +
+            "ORDER BY ts_rank(to_tsvector('french', m.content), websearch_to_tsquery('french', :searchTerm)) DESC, " +
+            "m.created_at DESC, m.id_message DESC LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Message> searchMessagesFullText(@Param("userId") Long userId,
+                                         @Param("searchTerm") String searchTerm,
+                                         @Param("limit") int limit,
+                                         @Param("offset") int offset);
+
+    // Récupérer le plus grand ID de message
+    @Query("SELECT MAX(m.id) FROM Message m")
+    Long findMaxId();
+
+    // Récupérer, parmi des messages donnés, ceux que l'utilisateur a supprimés de son côté
+    @Query("SELECT m.id FROM Message m WHERE m.id IN :messageIds AND " +
+            "((m.sender.id = :userId AND m.isDeletedBySender = true) OR " +
+            "(m.receiver.id = :userId AND m.isDeletedByReceiver = true))")
+    List<Long> findIdsDeletedByUser(@Param("userId") Long userId,
+                                    @Param("messageIds") Collection<Long> messageIds);
+
+    // Reprise de pair_key pour les messages antérieurs à la colonne, par lots
+    @Modifying
+    @Query(value = "UPDATE messages SET pair_key = CONCAT(LEAST(sender_id, receiver_id), ':', GREATEST(sender_id, receiver_id)) " +
+            "WHERE id_message IN (SELECT id_message FROM messages WHERE pair_key IS NULL LIMIT :limit)",
+            nativeQuery = true)
+    int fillMissingPairKeysBatch(@Param("limit") int limit);
 
     // Supprimer tous les messages d'un utilisateur (suppression de compte)
     void deleteBySenderIdOrReceiverId(Long senderId, Long receiverId);
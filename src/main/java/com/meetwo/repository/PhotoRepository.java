@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +24,10 @@ public interface PhotoRepository extends JpaRepository<Photo, Long> {
     @Query("SELECT p FROM Photo p WHERE p.estPrincipale = true")
     List<Photo> findAllMainPhotos();
 
+    // Trouver les photos principales d'un ensemble d'utilisateurs (une requête par page de résultats)
+    @Query("SELECT p FROM Photo p WHERE p.user.id IN :userIds AND p.estPrincipale = true")
+    List<Photo> findMainPhotosByUserIds(@Param("userIds") Collection<Long> userIds);
+
     // Compter les photos d'un utilisateur
     long countByUserId(Long userId);
 
@@ -0,0 +1,37 @@
+package com.meetwo.repository;
+
+import com.meetwo.entity.SwipeHistory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SwipeHistoryRepository extends JpaRepository<SwipeHistory, Long> {
+
+    // Créer l'historique vide s'il n'existe pas encore (sans erreur si une transaction concurrente vient de le créer)
+    @Modifying
+    @Query(value = "INSERT INTO swipes (user_id, passed_user_ids, passed_count, updated_at) " +
+            "VALUES (:userId, :emptyBitmap, 0, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("emptyBitmap") byte[] emptyBitmap);
+
+    // Récupérer l'historique en le verrouillant (lecture-modification-écriture du bitmap)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SwipeHistory s WHERE s.userId = :userId")
+    Optional<SwipeHistory> findByUserIdForUpdate(@Param("userId") Long userId);
+
+    // Récupérer uniquement le bitmap des utilisateurs passés
+    @Query("SELECT s.passedUserIds FROM SwipeHistory s WHERE s.userId = :userId")
+    Optional<byte[]> findPassedUserIds(@Param("userId") Long userId);
+
+    // Supprimer l'historique d'un utilisateur
+    @Modifying
+    @Query("DELETE FROM SwipeHistory s WHERE s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
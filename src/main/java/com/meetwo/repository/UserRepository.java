@@ -2,20 +2,21 @@ package com.meetwo.repository;
 
 import com.meetwo.entity.User;
 import com.meetwo.enums.Gender;
-import com.meetwo.enums.Interest;
 import com.meetwo.enums.RelationshipType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
 
     // Méthodes de base pour l'authentification
     Optional<User> findByUsername(String username);
@@ -28,46 +29,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
-    // Méthodes pour le site de rencontre - recherche de profils
-    List<User> findByGenderAndEnabledTrue(Gender gender);
-
-    List<User> findBySeekingRelationshipTypeAndEnabledTrue(RelationshipType relationshipType);
-
-    List<User> findByCityIgnoreCaseAndEnabledTrue(String city);
-
-    List<User> findByBirthDateBetweenAndEnabledTrue(LocalDate startDate, LocalDate endDate);
-
-    // Recherche par tranche d'âge (méthode personnalisée)
-    @Query("SELECT u FROM User u WHERE u.enabled = true AND " +
-            "YEAR(CURRENT_DATE) - YEAR(u.birthDate) BETWEEN :minAge AND :maxAge")
-    List<User> findByAgeBetween(@Param("minAge") int minAge, @Param("maxAge") int maxAge);
-
-    // Recherche par intérêts communs
-    @Query("SELECT u FROM User u JOIN u.interests i WHERE i IN :interests AND u.enabled = true")
-    List<User> findByInterestsIn(@Param("interests") Set<Interest> interests);
-
-    // Recherche avancée pour le matching
-    @Query("SELECT u FROM User u WHERE u.enabled = true AND " +
-            "u.gender = :gender AND " +
-            "u.seekingRelationshipType = :relationshipType AND " +
-            "(:city IS NULL OR LOWER(u.city) = LOWER(:city)) AND " +
-            "(:minAge IS NULL OR YEAR(CURRENT_DATE) - YEAR(u.birthDate) >= :minAge) AND " +
-            "(:maxAge IS NULL OR YEAR(CURRENT_DATE) - YEAR(u.birthDate) <= :maxAge)")
-    List<User> findPotentialMatches(@Param("gender") Gender gender,
-                                    @Param("relationshipType") RelationshipType relationshipType,
-                                    @Param("city") String city,
-                                    @Param("minAge") Integer minAge,
-                                    @Param("maxAge") Integer maxAge);
-
-    // Recherche par ville avec pagination (pour de gros volumes)
-    List<User> findByCityIgnoreCaseAndEnabledTrueOrderByCreatedAtDesc(String city);
-
-    // Recherche des nouveaux utilisateurs
-    @Query("SELECT u FROM User u WHERE u.enabled = true ORDER BY u.createdAt DESC")
-    List<User> findNewestUsers();
-
-    // Recherche d'utilisateurs avec au moins une biographie
-    List<User> findByBiographyIsNotNullAndEnabledTrueOrderByUpdatedAtDesc();
+    // Les recherches de profils par critères passent par JpaSpecificationExecutor (UserSpecifications), toujours paginées
 
     // Compter les utilisateurs par genre
     long countByGenderAndEnabledTrue(Gender gender);
@@ -75,13 +37,138 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Compter les utilisateurs par ville
     long countByCityIgnoreCaseAndEnabledTrue(String city);
 
-    // Recherche d'utilisateurs exclus (pour éviter de les montrer à nouveau)
-    @Query("SELECT u FROM User u WHERE u.enabled = true AND u.id NOT IN :excludedIds")
-    List<User> findUsersExcluding(@Param("excludedIds") List<Long> excludedIds);
-
-    // Recherche d'utilisateurs avec des intérêts similaires mais pas exactement les mêmes
-    @Query("SELECT DISTINCT u FROM User u JOIN u.interests ui WHERE " +
-            "EXISTS (SELECT 1 FROM User u2 JOIN u2.interests u2i WHERE u2.id = :userId AND ui = u2i) AND " +
-            "u.id != :userId AND u.enabled = true")
-    List<User> findUsersWithSimilarInterests(@Param("userId") Long userId);
+    // Récupérer le vivier de candidats de découverte (ID, date d'inscription, masque d'intérêts) en un seul parcours
+    // sans jointure, hors profils déjà likés, les plus récents d'abord ; le classement par intérêts communs est fait
+    // en mémoire (les profils passés sont filtrés côté application avec le bitmap de l'utilisateur)
+    @Query("SELECT u.id, u.createdAt, u.interestsMask " +
+            "FROM User u WHERE u.enabled = true AND u.id <> :userId AND " +
+            "(:gender IS NULL OR u.gender = :gender) AND " +
+            "(:relationshipType IS NULL OR u.seekingRelationshipType = :relationshipType) AND " +
+            "(:city IS NULL OR LOWER(u.city) = :city) AND " +
+            "(CAST(:minBirthDate AS LocalDate) IS NULL OR u.birthDate >= :minBirthDate) AND " +
+            "(CAST(:maxBirthDate AS LocalDate) IS NULL OR u.birthDate <= :maxBirthDate) AND " +
+            "NOT EXISTS (SELECT 1 FROM Like l WHERE l.liker.id = :userId AND l.likedUser.id = u.id) " +
+            "ORDER BY u.createdAt DESC, u.id DESC LIMIT :limit")
+    List<Object[]> findDiscoveryPool(@Param("userId") Long userId,
+                                     @Param("gender") Gender gender,
+                                     @Param("relationshipType") RelationshipType relationshipType,
+                                     @Param("city") String city,
+                                     @Param("minBirthDate") LocalDate minBirthDate,
+                                     @Param("maxBirthDate") LocalDate maxBirthDate,
+                                     @Param("limit") int limit);
+
+    // Récupérer des profils avec leurs intérêts en une seule requête (page de découverte)
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.interests WHERE u.id IN :ids")
+    List<User> findAllWithInterestsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // === COMPTEURS DE LIKES ET MATCHES (incréments atomiques côté base) ===
+
+    // Récupérer les compteurs d'un utilisateur en une lecture par clé primaire
+    @Query("SELECT u.id AS id, u.likesGiven AS likesGiven, u.likesReceived AS likesReceived, " +
+            "u.matchesCount AS matchesCount FROM User u WHERE u.id = :userId")
+    Optional<LikeCountersView> findLikeCountersById(@Param("userId") Long userId);
+
+    // Récupérer le classement des utilisateurs actifs les plus likés : {userId, likesReceived}
+    // (ville en minuscules et genre optionnels pour segmenter le classement)
+    @Query("SELECT u.id, u.likesReceived FROM User u WHERE u.likesReceived > 0 AND u.enabled = true AND " +
+            "(:city IS NULL OR LOWER(u.city) = :city) AND " +
+            "(:gender IS NULL OR u.gender = :gender) " +
+            "ORDER BY u.likesReceived DESC, u.id LIMIT :limit")
+    List<Object[]> findMostLikedUsers(@Param("city") String city,
+                                      @Param("gender") Gender gender,
+                                      @Param("limit") int limit);
+
+    // Appliquer un like (delta = 1) ou un unlike (delta = -1) aux deux utilisateurs en une seule requête
+    @Modifying
+    @Query("UPDATE User u SET " +
+            "u.likesGiven = u.likesGiven + CASE WHEN u.id = :likerId THEN :delta ELSE 0 END, " +
+            "u.likesReceived = u.likesReceived + CASE WHEN u.id = :likedUserId THEN :delta ELSE 0 END " +
+            "WHERE u.id IN (:likerId, :likedUserId)")
+    int applyLikeDelta(@Param("likerId") Long likerId,
+                       @Param("likedUserId") Long likedUserId,
+                       @Param("delta") long delta);
+
+    // Ajouter un delta au nombre de likes donnés d'un utilisateur
+    @Modifying
+    @Query("UPDATE User u SET u.likesGiven = u.likesGiven + :delta WHERE u.id = :userId")
+    int addLikesGiven(@Param("userId") Long userId, @Param("delta") long delta);
+
+    // Ajouter un delta au nombre de likes reçus de plusieurs utilisateurs
+    @Modifying
+    @Query("UPDATE User u SET u.likesReceived = u.likesReceived + :delta WHERE u.id IN :userIds")
+    int addLikesReceived(@Param("userIds") Collection<Long> userIds, @Param("delta") long delta);
+
+    // Ajouter un delta au nombre de matches de plusieurs utilisateurs
+    @Modifying
+    @Query("UPDATE User u SET u.matchesCount = u.matchesCount + :delta WHERE u.id IN :userIds")
+    int addMatchesCount(@Param("userIds") Collection<Long> userIds, @Param("delta") long delta);
+
+    // Décrémenter les matches des utilisateurs matchés avec un utilisateur (avant suppression de ses matches)
+    @Modifying
+    @Query("UPDATE User u SET u.matchesCount = u.matchesCount - 1 " +
+            "WHERE u.id IN (SELECT m.user2.id FROM Match m WHERE m.user1.id = :userId) " +
+            "OR u.id IN (SELECT m.user1.id FROM Match m WHERE m.user2.id = :userId)")
+    int decrementMatchesCountOfMatchedUsers(@Param("userId") Long userId);
+
+    // Recalculer les compteurs d'une tranche d'IDs à partir des likes et matches (seules les lignes fausses sont écrites).
+    // Les utilisateurs visés par un événement d'outbox encore en attente sont ignorés : son delta, pas encore appliqué,
+    // s'ajouterait au compte recalculé (ils sont repris au passage suivant)
+    @Modifying
+    @Query(value = "UPDATE users u SET likes_given = c.likes_given, likes_received = c.likes_received, " +
+            "matches_count = c.matches_count " +
+            "FROM (SELECT x.id, " +
+            "(SELECT COUNT(*) FROM likes l WHERE l.liker_id = x.id) AS likes_given, " +
+            "(SELECT COUNT(*) FROM likes l WHERE l.liked_user_id = x.id) AS likes_received, " +
+            "(SELECT COUNT(*) FROM matches m WHERE m.user1_id = x.id OR m.user2_id = x.id) AS matches_count " +
+            "FROM users x WHERE x.id > :fromId AND x.id <= :toId " +
+            "AND NOT EXISTS (SELECT 1 FROM like_outbox o WHERE o.status = 'PENDING' " +
+            "AND (o.liker_id = x.id OR o.liked_user_id = x.id))) c " +
+            "WHERE u.id = c.id AND (u.likes_given <> c.likes_given OR u.likes_received <> c.likes_received " +
+            "OR u.matches_count <> c.matches_count)", nativeQuery = true)
+    int reconcileLikeCounters(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Recalculer l'âge révolu d'une tranche d'IDs (seuls les utilisateurs dont l'anniversaire est passé sont écrits)
+    @Modifying
+    @Query("UPDATE User u SET u.age = :year - YEAR(u.birthDate) - " +
+            "CASE WHEN MONTH(u.birthDate) > :month OR (MONTH(u.birthDate) = :month AND DAY(u.birthDate) > :day) " +
+            "THEN 1 ELSE 0 END " +
+            "WHERE u.id > :fromId AND u.id <= :toId AND u.birthDate IS NOT NULL AND u.birthDate <= :today AND " +
+            "u.age <> :year - YEAR(u.birthDate) - " +
+            "CASE WHEN MONTH(u.birthDate) > :month OR (MONTH(u.birthDate) = :month AND DAY(u.birthDate) > :day) " +
+            "THEN 1 ELSE 0 END")
+    int refreshAges(@Param("fromId") Long fromId,
+                    @Param("toId") Long toId,
+                    @Param("today") LocalDate today,
+                    @Param("year") int year,
+                    @Param("month") int month,
+                    @Param("day") int day);
+
+    // Récupérer le plus grand ID utilisateur
+    @Query("SELECT MAX(u.id) FROM User u")
+    Long findMaxId();
+
+    // Récupérer le masque d'intérêts d'un utilisateur
+    @Query("SELECT u.interestsMask FROM User u WHERE u.id = :userId")
+    Optional<Long> findInterestsMaskById(@Param("userId") Long userId);
+
+    // Récupérer (ID, masque d'intérêts) des utilisateurs ayant au moins un intérêt en commun avec le masque,
+    // éventuellement dans une ville (déjà en minuscules), en un seul parcours sans jointure borné à :limit lignes
+    // (le score de similarité est calculé en mémoire)
+    @Query("SELECT u.id, u.interestsMask FROM User u WHERE u.enabled = true AND u.id <> :userId AND " +
+            "bitand(u.interestsMask, CAST(:mask AS Long)) <> 0 AND " +
+            "(:city IS NULL OR LOWER(u.city) = :city) " +
+            "ORDER BY u.id DESC LIMIT :limit")
+    List<Object[]> findInterestMasksOverlapping(@Param("userId") Long userId,
+                                                @Param("mask") long mask,
+                                                @Param("city") String city,
+                                                @Param("limit") int limit);
+
+    // Récupérer les intérêts d'une tranche d'IDs (reprise du masque d'intérêts)
+    @Query("SELECT u.id, i FROM User u JOIN u.interests i WHERE u.id > :fromId AND u.id <= :toId")
+    List<Object[]> findInterestsInRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Écrire un même masque d'intérêts pour plusieurs utilisateurs (seules les lignes différentes sont écrites)
+    @Modifying
+    @Query("UPDATE User u SET u.interestsMask = :mask WHERE u.id IN :userIds AND u.interestsMask <> :mask")
+    int updateInterestsMask(@Param("userIds") Collection<Long> userIds, @Param("mask") long mask);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.meetwo.repository;
+
+import com.meetwo.entity.UserResponseStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserResponseStatsRepository extends JpaRepository<UserResponseStats, Long> {
+
+    // Créer les statistiques vides d'un utilisateur si elles n'existent pas encore
+    @Modifying
+    @Query(value = "INSERT INTO user_response_stats (user_id, response_count, total_response_seconds, histogram, updated_at) " +
+            "VALUES (:userId, 0, 0, :emptyHistogram, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("emptyHistogram") long[] emptyHistogram);
+
+    // Récupérer les statistiques en les verrouillant (lecture-modification-écriture de l'histogramme)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserResponseStats s WHERE s.userId = :userId")
+    Optional<UserResponseStats> findByUserIdForUpdate(@Param("userId") Long userId);
+
+    // Supprimer les statistiques d'un utilisateur
+    @Modifying
+    @Query("DELETE FROM UserResponseStats s WHERE s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
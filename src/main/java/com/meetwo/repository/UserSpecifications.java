@@ -0,0 +1,140 @@
+package com.meetwo.repository;
+
+import com.meetwo.entity.Like;
+import com.meetwo.entity.User;
+import com.meetwo.enums.Gender;
+import com.meetwo.enums.RelationshipType;
+import com.meetwo.enums.UserSearchSort;
+import com.meetwo.util.DistanceCursor;
+import com.meetwo.util.KeysetCursor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Prédicats composables de recherche d'utilisateurs (JpaSpecificationExecutor).
+ * Un critère absent (null) ne filtre rien ; l'âge est traduit en bornes de date de naissance par l'appelant.
+ */
+public final class UserSpecifications {
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> enabled(Boolean enabled) {
+        return (root, query, cb) -> enabled == null ? null : cb.equal(root.get("enabled"), enabled);
+    }
+
+    public static Specification<User> gender(Gender gender) {
+        return (root, query, cb) -> gender == null ? null : cb.equal(root.get("gender"), gender);
+    }
+
+    public static Specification<User> relationshipType(RelationshipType relationshipType) {
+        return (root, query, cb) -> relationshipType == null
+                ? null : cb.equal(root.get("seekingRelationshipType"), relationshipType);
+    }
+
+    public static Specification<User> city(String city) {
+        return (root, query, cb) -> city == null || city.isBlank()
+                ? null : cb.equal(cb.lower(root.get("city")), city.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public static Specification<User> bornBetween(LocalDate minBirthDate, LocalDate maxBirthDate) {
+        return (root, query, cb) -> {
+            if (minBirthDate == null && maxBirthDate == null) {
+                return null;
+            }
+            if (minBirthDate == null) {
+                return cb.lessThanOrEqualTo(root.get("birthDate"), maxBirthDate);
+            }
+            if (maxBirthDate == null) {
+                return cb.greaterThanOrEqualTo(root.get("birthDate"), minBirthDate);
+            }
+            return cb.between(root.get("birthDate"), minBirthDate, maxBirthDate);
+        };
+    }
+
+    // Au moins un intérêt en commun avec le masque (ET binaire sur interests_mask, sans jointure)
+    public static Specification<User> anyInterest(long mask) {
+        return (root, query, cb) -> mask == 0L ? null : cb.notEqual(
+                cb.function("bitand", Long.class, root.get("interestsMask"), cb.literal(mask)), 0L);
+    }
+
+    public static Specification<User> hasBiography(Boolean hasBiography) {
+        return (root, query, cb) -> hasBiography == null ? null : hasBiography
+                ? cb.and(cb.isNotNull(root.get("biography")), cb.notEqual(root.get("biography"), ""))
+                : cb.or(cb.isNull(root.get("biography")), cb.equal(root.get("biography"), ""));
+    }
+
+    public static Specification<User> notUser(Long userId) {
+        return (root, query, cb) -> cb.notEqual(root.get("id"), userId);
+    }
+
+    // Hors profils déjà likés par l'utilisateur
+    public static Specification<User> notLikedBy(Long userId) {
+        return (root, query, cb) -> {
+            Subquery<Long> liked = query.subquery(Long.class);
+            Root<Like> like = liked.from(Like.class);
+            liked.select(like.get("id")).where(
+                    cb.equal(like.get("liker").get("id"), userId),
+                    cb.equal(like.get("likedUser"), root));
+            return cb.not(cb.exists(liked));
+        };
+    }
+
+    // Profils situés dans des cellules géohash, lues sur la colonne indexée de leur précision (3, 4 ou 5 caractères)
+    public static Specification<User> inGeohashCells(Collection<String> cells, int precision) {
+        String column = switch (precision) {
+            case 5 -> "geohash5";
+            case 4 -> "geohash4";
+            default -> "geohash3";
+        };
+        return (root, query, cb) -> root.get(column).in(cells);
+    }
+
+    // Du plus proche au plus éloigné (distance approchée de GeoHash.approximateDistanceKey), puis par ID,
+    // à partir de la position de reprise si elle est donnée
+    public static Specification<User> nearestFirst(double latitude, double longitude, double longitudeScale,
+                                                   DistanceCursor cursor) {
+        return (root, query, cb) -> {
+            Expression<Double> distanceKey = approximateDistanceKey(root, cb, latitude, longitude, longitudeScale);
+            query.orderBy(cb.asc(distanceKey), cb.asc(root.get("id")));
+            if (cursor == null) {
+                return null;
+            }
+            return cb.or(cb.greaterThan(distanceKey, cursor.getDistanceKey()),
+                    cb.and(cb.equal(distanceKey, cursor.getDistanceKey()),
+                            cb.greaterThan(root.get("id"), cursor.getId())));
+        };
+    }
+
+    // Position de reprise (keyset) sur (createdAt, id) dans l'ordre demandé
+    public static Specification<User> after(KeysetCursor cursor, UserSearchSort sort) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return null;
+            }
+            if (sort == UserSearchSort.OLDEST) {
+                return cb.or(cb.greaterThan(root.get("createdAt"), cursor.getCreatedAt()),
+                        cb.and(cb.equal(root.get("createdAt"), cursor.getCreatedAt()),
+                                cb.greaterThan(root.get("id"), cursor.getId())));
+            }
+            return cb.or(cb.lessThan(root.get("createdAt"), cursor.getCreatedAt()),
+                    cb.and(cb.equal(root.get("createdAt"), cursor.getCreatedAt()),
+                            cb.lessThan(root.get("id"), cursor.getId())));
+        };
+    }
+
+    private static Expression<Double> approximateDistanceKey(Root<User> root, CriteriaBuilder cb,
+                                                             double latitude, double longitude, double longitudeScale) {
+        Expression<Double> latitudeDelta = cb.diff(root.<Double>get("latitude"), latitude);
+        Expression<Double> longitudeDelta = cb.diff(root.<Double>get("longitude"), longitude);
+        return cb.sum(cb.prod(latitudeDelta, latitudeDelta),
+                cb.prod(cb.prod(longitudeDelta, longitudeDelta), longitudeScale));
+    }
+}
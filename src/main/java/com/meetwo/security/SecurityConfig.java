@@ -4,6 +4,7 @@ import com.meetwo.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -44,9 +45,13 @@ public class SecurityConfig {
 
                         // Routes d'authentification - nouvelles routes publiques
                         .requestMatchers("/api/auth/**").permitAll()
-                        .requestMatchers("/api/users").permitAll() // Pour l'inscription
+                        // Inscription uniquement : la recherche GET /api/users expose les comptes et reste protégée
+                        .requestMatchers(HttpMethod.POST, "/api/users").permitAll()
                         .requestMatchers("/api/users/check/**").permitAll() // Pour vérifier username/email
 
+                        // Poignée de main WebSocket : l'authentification se fait sur la trame STOMP CONNECT
+                        .requestMatchers("/ws/**").permitAll()
+
                         // Routes protégées - maintenant on protège vraiment /api/users/**
                         .requestMatchers("/api/users/**").authenticated()
                         .anyRequest().authenticated()
@@ -0,0 +1,82 @@
+package com.meetwo.security;
+
+import com.meetwo.entity.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authentifie les connexions STOMP avec le JWT de l'API REST (header natif "Authorization: Bearer ..." de la trame CONNECT).
+ * Le nom du principal STOMP est l'ID de l'utilisateur, ce qui fait de /user/{id}/queue/... sa destination privée.
+ * Un client n'envoie qu'aux contrôleurs (/app/...) et ne s'abonne qu'à ses propres files (/user/queue/...) :
+ * il ne peut ni écrire directement dans la file d'un autre utilisateur, ni s'y abonner.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompJwtChannelInterceptor implements ChannelInterceptor {
+
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String SEND_PREFIX = "/app/";
+    private static final String SUBSCRIBE_PREFIX = "/user/queue/";
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsService userDetailsService;
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader(AUTHORIZATION_HEADER)));
+        } else if (accessor.getCommand() != null && accessor.getCommand() != StompCommand.DISCONNECT
+                && accessor.getUser() == null) {
+            // Les autres trames d'une session non authentifiée sont refusées
+            throw new MessageDeliveryException("Session WebSocket non authentifiée");
+        } else if (StompCommand.SEND.equals(accessor.getCommand())) {
+            checkDestination(accessor.getDestination(), SEND_PREFIX);
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            checkDestination(accessor.getDestination(), SUBSCRIBE_PREFIX);
+        }
+        return message;
+    }
+
+    private void checkDestination(String destination, String allowedPrefix) {
+        if (destination == null || !destination.startsWith(allowedPrefix) || destination.contains("..")) {
+            log.warn("Trame STOMP refusée vers la destination {}", destination);
+            throw new MessageDeliveryException("Destination STOMP non autorisée : " + destination);
+        }
+    }
+
+    private UsernamePasswordAuthenticationToken authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            throw new MessageDeliveryException("Token JWT manquant dans la trame CONNECT");
+        }
+
+        String jwt = authHeader.substring(BEARER_PREFIX.length());
+        try {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(jwtUtil.extractUsername(jwt));
+            if (jwtUtil.validateToken(jwt, userDetails) && userDetails instanceof User user) {
+                return new UsernamePasswordAuthenticationToken(user.getId().toString(), null, user.getAuthorities());
+            }
+        } catch (Exception e) {
+            log.warn("Connexion WebSocket refusée: {}", e.getMessage());
+        }
+        throw new MessageDeliveryException("Token JWT invalide");
+    }
+}
@@ -1,10 +1,17 @@
 package com.meetwo.service;
 
+import com.meetwo.dto.request.BulkSwipeRequest;
 import com.meetwo.dto.request.CreateLikeRequest;
 import com.meetwo.dto.request.UpdateLikeRequest;
+import com.meetwo.dto.response.BulkSwipeResponse;
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.LikeGraphConsistencyResponse;
 import com.meetwo.dto.response.LikeResponse;
 import com.meetwo.dto.response.MatchResponse;
 import com.meetwo.dto.response.LikeStatsResponse;
+import com.meetwo.dto.response.MatchPairResponse;
+import com.meetwo.dto.response.OutboxReplayResponse;
+import com.meetwo.enums.Gender;
 
 import java.util.List;
 
@@ -23,6 +30,21 @@ public interface LikeService {
      */
     LikeResponse likeUser(Long likerId, Long likedUserId);
 
+    /**
+     * Traite un lot de swipes (likes et passes) d'un utilisateur en un seul appel
+     */
+    BulkSwipeResponse bulkSwipe(BulkSwipeRequest request);
+
+    /**
+     * Passe le profil d'un utilisateur (swipe négatif) pour ne plus le proposer en découverte
+     */
+    void passUser(Long userId, Long passedUserId);
+
+    /**
+     * Vérifie si un utilisateur a passé le profil d'un autre utilisateur
+     */
+    boolean hasUserPassed(Long userId, Long passedUserId);
+
     /**
      * Met à jour un like existant
      */
@@ -34,14 +56,14 @@ public interface LikeService {
     LikeResponse getLikeById(Long id);
 
     /**
-     * Récupère tous les likes donnés par un utilisateur
+     * Récupère une page des likes donnés par un utilisateur (pagination par curseur)
      */
-    List<LikeResponse> getLikesGivenByUser(Long userId);
+    CursorPageResponse<LikeResponse> getLikesGivenByUser(Long userId, String cursor, Integer size);
 
     /**
-     * Récupère tous les likes reçus par un utilisateur
+     * Récupère une page des likes reçus par un utilisateur (pagination par curseur)
      */
-    List<LikeResponse> getLikesReceivedByUser(Long userId);
+    CursorPageResponse<LikeResponse> getLikesReceivedByUser(Long userId, String cursor, Integer size);
 
     /**
      * Récupère les matches mutuels d'un utilisateur
@@ -79,9 +101,9 @@ public interface LikeService {
     List<Long> getLikedUserIds(Long likerId);
 
     /**
-     * Récupère les utilisateurs les plus populaires (les plus likés)
+     * Récupère les utilisateurs les plus populaires (les plus likés), éventuellement par ville et/ou genre
      */
-    List<MatchResponse> getTopLikedUsers(int limit);
+    List<MatchResponse> getTopLikedUsers(int limit, String city, Gender gender);
 
     /**
      * Récupère les likes récents reçus par un utilisateur (pour notifications)
@@ -104,12 +126,22 @@ public interface LikeService {
     long countMatchesByUser(Long userId);
 
     /**
-     * Récupère les matches dans une ville spécifique
+     * Récupère une page des matches entre utilisateurs d'une même ville (pagination par curseur, résultat mis en cache)
      */
-    List<MatchResponse> getMatchesByCity(String city);
+    CursorPageResponse<MatchPairResponse> getMatchesByCity(String city, String cursor, Integer size);
 
     /**
      * Supprime tous les likes d'un utilisateur (lors de suppression de compte)
      */
     void removeAllLikesForUser(Long userId);
+
+    /**
+     * Remet en attente un événement non traité de l'outbox des likes, ou tous ceux en échec si eventId est null
+     */
+    OutboxReplayResponse replayOutbox(Long eventId);
+
+    /**
+     * Vérifie la cohérence de l'index mémoire des likes avec la base (et le reconstruit si demandé)
+     */
+    LikeGraphConsistencyResponse checkLikeGraphConsistency(boolean repair);
 }
\ No newline at end of file
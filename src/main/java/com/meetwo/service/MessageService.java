@@ -1,12 +1,18 @@
 package com.meetwo.service;
 
 import com.meetwo.dto.request.CreateMessageRequest;
+import com.meetwo.dto.request.MarkConversationsReadRequest;
 import com.meetwo.dto.request.UpdateMessageRequest;
+import com.meetwo.dto.response.MessagePurgeStatsResponse;
+import com.meetwo.dto.response.MessageSendPipelineStatsResponse;
 import com.meetwo.dto.response.MessageResponse;
+import com.meetwo.dto.response.MessageSearchResponse;
 import com.meetwo.dto.response.ConversationResponse;
+import com.meetwo.dto.response.CursorPageResponse;
 import com.meetwo.dto.response.MessageStatsResponse;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service pour la gestion des messages dans l'application de rencontre
@@ -18,6 +24,12 @@ public interface MessageService {
      */
     MessageResponse sendMessage(CreateMessageRequest request);
 
+    /**
+     * Envoie un nouveau message de façon asynchrone : le future est complété avec le message persisté
+     * (regroupé avec les envois concurrents quand le pipeline d'envoi est activé)
+     */
+    CompletableFuture<MessageResponse> sendMessageAsync(CreateMessageRequest request);
+
     /**
      * Envoie un message rapide avec juste les IDs
      */
@@ -34,9 +46,11 @@ public interface MessageService {
     MessageResponse getMessageById(Long id);
 
     /**
-     * Récupère tous les messages d'une conversation entre deux utilisateurs
+     * Récupère une page de l'historique d'une conversation vue par userId, en ordre chronologique.
+     * Sans curseur : les messages les plus récents ; before : les plus anciens ; after : les plus récents.
      */
-    List<MessageResponse> getConversation(Long userId1, Long userId2);
+    CursorPageResponse<MessageResponse> getConversation(Long userId, Long otherUserId,
+                                                        String before, String after, Integer size);
 
     /**
      * Récupère les messages récents d'une conversation (avec pagination)
@@ -44,12 +58,12 @@ public interface MessageService {
     List<MessageResponse> getRecentMessagesInConversation(Long userId1, Long userId2, int limit);
 
     /**
-     * Récupère toutes les conversations d'un utilisateur
+     * Récupère une page des conversations d'un utilisateur, de la plus récente à la plus ancienne
      */
-    List<ConversationResponse> getUserConversations(Long userId);
+    CursorPageResponse<ConversationResponse> getUserConversations(Long userId, String cursor, Integer size);
 
     /**
-     * Marque un message comme lu
+     * Marque un message comme lu (ainsi que tous les messages reçus avant lui dans la conversation)
      */
     void markMessageAsRead(Long messageId);
 
@@ -58,6 +72,13 @@ public interface MessageService {
      */
     void markConversationAsRead(Long receiverId, Long senderId);
 
+    /**
+     * Marque plusieurs conversations comme lues en une seule écriture (toutes si la liste est vide)
+     *
+     * @return le nombre de conversations qui avaient des messages non lus
+     */
+    int markConversationsAsRead(MarkConversationsReadRequest request);
+
     /**
      * Supprime un message (suppression logique)
      */
@@ -94,9 +115,9 @@ public interface MessageService {
     boolean hasConversation(Long userId1, Long userId2);
 
     /**
-     * Recherche dans les messages par contenu
+     * Recherche dans les messages d'un utilisateur par contenu, page par page (plafonnée à max-results)
      */
-    List<MessageResponse> searchMessages(Long userId, String searchTerm);
+    MessageSearchResponse searchMessages(Long userId, String searchTerm, int page, Integer size);
 
     /**
      * Supprime tous les messages d'un utilisateur (suppression de compte)
@@ -107,4 +128,14 @@ public interface MessageService {
      * Vérifie si un utilisateur peut envoyer un message à un autre (match requis)
      */
     boolean canSendMessage(Long senderId, Long receiverId);
-}
\ No newline at end of file
+
+    /**
+     * Récupère la progression de la purge des messages (exécution en cours ou dernière exécution)
+     */
+    MessagePurgeStatsResponse getPurgeStats();
+
+    /**
+     * Statistiques du pipeline d'envoi des messages (taille des lots, latence, débit)
+     */
+    MessageSendPipelineStatsResponse getSendPipelineStats();
+}
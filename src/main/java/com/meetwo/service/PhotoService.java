@@ -5,7 +5,9 @@ import com.meetwo.dto.request.UpdatePhotoRequest;
 import com.meetwo.dto.response.PhotoResponse;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service pour la gestion des photos des utilisateurs
@@ -71,4 +73,9 @@ public interface PhotoService {
      * Récupère l'URL de la photo principale d'un utilisateur
      */
     String getMainPhotoUrl(Long userId);
-}
\ No newline at end of file
+
+    /**
+     * Récupère les URLs des photos principales de plusieurs utilisateurs (absents si pas de photo principale)
+     */
+    Map<Long, String> getMainPhotoUrls(Collection<Long> userIds);
+}
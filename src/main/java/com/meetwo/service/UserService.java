@@ -2,13 +2,14 @@ package com.meetwo.service;
 
 import com.meetwo.dto.request.CreateUserRequest;
 import com.meetwo.dto.request.UpdateUserRequest;
+import com.meetwo.dto.request.UserSearchRequest;
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.NearbyUserResponse;
 import com.meetwo.dto.response.UserResponse;
 import com.meetwo.enums.Gender;
-import com.meetwo.enums.Interest;
-import com.meetwo.enums.RelationshipType;
+import com.meetwo.service.discovery.DiscoveryFilter;
 
 import java.util.List;
-import java.util.Set;
 
 public interface UserService {
 
@@ -17,7 +18,7 @@ public interface UserService {
     UserResponse getUserById(Long id);
     UserResponse getUserByUsername(String username);
     UserResponse getUserByEmail(String email);
-    List<UserResponse> getAllUsers();
+    CursorPageResponse<UserResponse> searchUsers(UserSearchRequest criteria, String cursor, Integer size);
     UserResponse updateUser(Long id, UpdateUserRequest request);
     void deleteUser(Long id);
 
@@ -25,24 +26,13 @@ public interface UserService {
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
 
-    // Search methods for dating features
-    List<UserResponse> getUsersByCity(String city);
-    List<UserResponse> getUsersByGender(Gender gender);
-    List<UserResponse> getUsersByRelationshipType(RelationshipType relationshipType);
-    List<UserResponse> getUsersByInterests(Set<Interest> interests);
-    List<UserResponse> getUsersByAgeRange(int minAge, int maxAge);
-
     // Advanced matching methods
-    List<UserResponse> findPotentialMatches(Gender gender, RelationshipType relationshipType,
-                                            String city, Integer minAge, Integer maxAge);
-    List<UserResponse> findUsersWithSimilarInterests(Long userId);
-    List<UserResponse> getNewestUsers();
-    List<UserResponse> getUsersWithBiography();
+    List<UserResponse> findUsersWithSimilarInterests(Long userId, String city, Integer size);
+    CursorPageResponse<UserResponse> getDiscoveryCandidates(Long userId, DiscoveryFilter filter, String cursor, Integer size);
+    CursorPageResponse<NearbyUserResponse> findNearbyUsers(Long userId, Double radiusKm, DiscoveryFilter filter,
+                                                           String cursor, Integer size);
 
     // Statistics methods
     long countUsersByGender(Gender gender);
     long countUsersByCity(String city);
-
-    // Utility methods
-    List<UserResponse> getUsersExcluding(List<Long> excludedIds);
 }
\ No newline at end of file
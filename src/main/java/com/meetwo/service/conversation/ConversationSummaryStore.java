@@ -0,0 +1,252 @@
+package com.meetwo.service.conversation;
+
+import com.meetwo.entity.Conversation;
+import com.meetwo.entity.Message;
+import com.meetwo.repository.ConversationRepository;
+import com.meetwo.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Maintien des résumés de conversation (dernier message, watermarks de lecture et non lus par côté, masquage).
+ * Chaque opération verrouille la ligne de la paire, dans la transaction de l'opération sur les messages.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConversationSummaryStore {
+
+    private final ConversationRepository conversationRepository;
+    private final MessageRepository messageRepository;
+    private final ResponseTimeTracker responseTimeTracker;
+
+    /**
+     * Nouveau message : il devient le dernier message, le destinataire a un non lu de plus
+     * et la conversation réapparaît des deux côtés
+     */
+    @Transactional
+    public void onMessageSent(Message message) {
+        onMessagesSent(List.of(message));
+    }
+
+    /**
+     * Nouveaux messages d'une même paire, dans l'ordre d'envoi (lot du pipeline d'envoi) :
+     * la ligne de la paire n'est verrouillée qu'une fois pour tout le lot
+     */
+    @Transactional
+    public void onMessagesSent(List<Message> pairMessages) {
+        Message firstMessage = pairMessages.get(0);
+        long[] pair = Conversation.orderedPair(firstMessage.getSender().getId(), firstMessage.getReceiver().getId());
+
+        conversationRepository.insertIfAbsent(pair[0], pair[1]);
+        Conversation conversation = conversationRepository.findByPairForUpdate(pair[0], pair[1])
+                .orElseThrow(() -> new IllegalStateException(
+                        "Résumé de conversation introuvable pour " + pair[0] + " / " + pair[1]));
+
+        // Délais de réponse par répondant, enregistrés en une fois après le lot
+        Map<Long, List<Duration>> replyDelays = new TreeMap<>();
+        for (Message message : pairMessages) {
+            Long senderId = message.getSender().getId();
+            Long receiverId = message.getReceiver().getId();
+            if (conversation.getLastMessageAt() == null
+                    || !message.getCreatedAt().isBefore(conversation.getLastMessageAt())) {
+                trackReply(conversation, senderId, message, replyDelays);
+                conversation.applyLastMessage(message);
+            }
+            conversation.setUnreadCountFor(receiverId, conversation.getUnreadCountFor(receiverId) + 1);
+            conversation.setHiddenFor(senderId, false);
+            conversation.setHiddenFor(receiverId, false);
+        }
+        replyDelays.forEach(responseTimeTracker::recordReplies);
+    }
+
+    /**
+     * Le destinataire a lu un message : son watermark avance jusqu'à ce message
+     * et les non lus restants sont ceux reçus après lui.
+     *
+     * @return false si le message était déjà sous le watermark
+     */
+    @Transactional
+    public boolean onMessageRead(Message message, LocalDateTime readAt) {
+        Long senderId = message.getSender().getId();
+        Long receiverId = message.getReceiver().getId();
+        return findForUpdate(senderId, receiverId)
+                .map(conversation -> {
+                    if (!conversation.advanceReadWatermark(receiverId, message.getId(), readAt)) {
+                        return false;
+                    }
+                    boolean lastMessage = conversation.getLastMessageId() == null
+                            || message.getId() >= conversation.getLastMessageId();
+                    conversation.setUnreadCountFor(receiverId, lastMessage ? 0
+                            : (int) messageRepository.countReceivedAfter(conversation.getPairKey(), receiverId, message.getId()));
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * Lecture de plusieurs conversations en une seule écriture (toutes celles avec des non lus si partnerIds est vide).
+     *
+     * @return les interlocuteurs dont des messages viennent d'être lus
+     */
+    @Transactional
+    public List<Long> onConversationsRead(Long userId, Collection<Long> partnerIds, LocalDateTime readAt) {
+        List<Long> unreadPartnerIds = partnerIds == null || partnerIds.isEmpty()
+                ? conversationRepository.findPartnerIdsWithUnread(userId)
+                : conversationRepository.findPartnerIdsWithUnreadAmong(userId, partnerIds);
+        if (unreadPartnerIds.isEmpty()) {
+            return unreadPartnerIds;
+        }
+
+        int updated = conversationRepository.markConversationsRead(userId, unreadPartnerIds, readAt);
+        log.debug("{} conversations marquées comme lues pour l'utilisateur {}", updated, userId);
+        return unreadPartnerIds;
+    }
+
+    /**
+     * Nombre de messages non lus d'un utilisateur, toutes conversations confondues
+     */
+    @Transactional(readOnly = true)
+    public long countUnread(Long userId) {
+        return conversationRepository.sumUnreadCountByUserId(userId);
+    }
+
+    /**
+     * Nombre de messages non lus reçus d'un interlocuteur
+     */
+    @Transactional(readOnly = true)
+    public long countUnread(Long receiverId, Long senderId) {
+        long[] pair = Conversation.orderedPair(receiverId, senderId);
+        return conversationRepository.findByPair(pair[0], pair[1])
+                .map(conversation -> (long) conversation.getUnreadCountFor(receiverId))
+                .orElse(0L);
+    }
+
+    /**
+     * Résumés des conversations d'une liste de messages, indexés par clé de paire (watermarks de lecture)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Conversation> findByMessages(Collection<Message> messages) {
+        Set<Long> userIds = new HashSet<>();
+        for (Message message : messages) {
+            userIds.add(message.getSender().getId());
+            userIds.add(message.getReceiver().getId());
+        }
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Conversation> conversations = new HashMap<>();
+        for (Conversation conversation : conversationRepository.findAmongUsers(userIds)) {
+            conversations.put(conversation.getPairKey(), conversation);
+        }
+        return conversations;
+    }
+
+    /**
+     * Dernier message visible par un utilisateur, pour les conversations dont il a supprimé de son côté
+     * le dernier message : le résumé est commun aux deux côtés, seul le message supprimé physiquement
+     * y est remplacé. Une seule requête par clé primaire pour la page, puis une relecture par conversation concernée.
+     *
+     * @return par ID de conversation concernée, le dernier message encore visible (vide s'il n'en reste aucun)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Optional<Message>> findVisibleLastMessages(Long userId, Collection<Conversation> conversations) {
+        Map<Long, Conversation> conversationsByLastMessageId = new HashMap<>();
+        for (Conversation conversation : conversations) {
+            if (conversation.getLastMessageId() != null) {
+                conversationsByLastMessageId.put(conversation.getLastMessageId(), conversation);
+            }
+        }
+        if (conversationsByLastMessageId.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, Optional<Message>> visibleLastMessages = new HashMap<>();
+        for (Long deletedMessageId : messageRepository.findIdsDeletedByUser(userId, conversationsByLastMessageId.keySet())) {
+            Conversation conversation = conversationsByLastMessageId.get(deletedMessageId);
+            visibleLastMessages.put(conversation.getId(), messageRepository
+                    .findRecentMessagesBetweenUsers(userId, conversation.getPairKey(), 1)
+                    .stream()
+                    .findFirst());
+        }
+        return visibleLastMessages;
+    }
+
+    /**
+     * Un message a été supprimé d'un côté (et physiquement si les deux côtés l'ont supprimé).
+     * Appelé une seule fois par côté : une suppression répétée n'est pas notifiée
+     */
+    @Transactional
+    public void onMessageDeleted(Message message, Long deletedByUserId, boolean physicallyDeleted) {
+        Long receiverId = message.getReceiver().getId();
+        findForUpdate(message.getSender().getId(), receiverId).ifPresent(conversation -> {
+            // Les messages supprimés par le destinataire ne comptent plus comme non lus
+            if (deletedByUserId.equals(receiverId) && !Boolean.TRUE.equals(message.getIsRead())
+                    && !conversation.hasRead(receiverId, message.getId())) {
+                conversation.setUnreadCountFor(receiverId, conversation.getUnreadCountFor(receiverId) - 1);
+            }
+            if (physicallyDeleted && message.getId().equals(conversation.getLastMessageId())) {
+                conversation.applyLastMessage(messageRepository
+                        .findLastMessageByPairKey(conversation.getPairKey())
+                        .orElse(null));
+            }
+        });
+    }
+
+    /**
+     * La conversation a été supprimée par un utilisateur : elle disparaît de sa boîte de réception
+     */
+    @Transactional
+    public void onConversationDeleted(Long userId, Long otherUserId) {
+        findForUpdate(userId, otherUserId).ifPresent(conversation -> {
+            conversation.setHiddenFor(userId, true);
+            conversation.setUnreadCountFor(userId, 0);
+        });
+    }
+
+    /**
+     * Supprime les résumés de conversation d'un utilisateur (lors de suppression de compte)
+     */
+    @Transactional
+    public void removeUser(Long userId) {
+        int deleted = conversationRepository.deleteByUserId(userId);
+        log.debug("{} résumés de conversation supprimés pour l'utilisateur {}", deleted, userId);
+    }
+
+    /**
+     * Un message qui suit ceux de l'autre utilisateur est une réponse : son délai est mesuré
+     * depuis le premier message sans réponse, puis l'attente passe de l'autre côté
+     */
+    private void trackReply(Conversation conversation, Long senderId, Message message,
+                            Map<Long, List<Duration>> replyDelays) {
+        Long previousSenderId = conversation.getLastSenderId();
+        if (senderId.equals(previousSenderId)) {
+            return;
+        }
+        if (previousSenderId != null && conversation.getReplyPendingSince() != null) {
+            replyDelays.computeIfAbsent(senderId, id -> new ArrayList<>())
+                    .add(Duration.between(conversation.getReplyPendingSince(), message.getCreatedAt()));
+        }
+        conversation.setReplyPendingSince(message.getCreatedAt());
+    }
+
+    private Optional<Conversation> findForUpdate(Long userIdA, Long userIdB) {
+        long[] pair = Conversation.orderedPair(userIdA, userIdB);
+        return conversationRepository.findByPairForUpdate(pair[0], pair[1]);
+    }
+}
@@ -0,0 +1,64 @@
+package com.meetwo.service.conversation;
+
+import com.meetwo.entity.UserResponseStats;
+import com.meetwo.repository.UserResponseStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Suivi incrémental des temps de réponse : chaque réponse (premier message après un ou plusieurs messages
+ * de l'autre utilisateur) ajoute l'écart depuis le premier message resté sans réponse aux statistiques du répondant.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResponseTimeTracker {
+
+    private final UserResponseStatsRepository userResponseStatsRepository;
+
+    // Au-delà, la conversation est considérée comme relancée et non comme une réponse
+    @Value("${app.message.response-time.max-gap:7d}")
+    private Duration maxGap;
+
+    /**
+     * Enregistre les délais de réponse d'un utilisateur en ne verrouillant ses statistiques qu'une fois
+     */
+    @Transactional
+    public void recordReplies(Long responderId, List<Duration> delays) {
+        List<Long> seconds = delays.stream()
+                .map(Duration::getSeconds)
+                .filter(delay -> delay >= 0 && delay <= maxGap.getSeconds())
+                .toList();
+        if (seconds.isEmpty()) {
+            return;
+        }
+
+        // Ligne créée avant d'être verrouillée : deux premières réponses simultanées ne se heurtent pas sur la clé primaire
+        userResponseStatsRepository.insertIfAbsent(responderId, new UserResponseStats(responderId).getHistogram());
+        UserResponseStats stats = userResponseStatsRepository.findByUserIdForUpdate(responderId)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Statistiques de réponse introuvables pour l'utilisateur " + responderId));
+        seconds.forEach(stats::recordResponse);
+        log.debug("{} temps de réponse enregistrés pour l'utilisateur {}", seconds.size(), responderId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<UserResponseStats> getStats(Long userId) {
+        return userResponseStatsRepository.findById(userId);
+    }
+
+    /**
+     * Supprime les statistiques de réponse d'un utilisateur (lors de suppression de compte)
+     */
+    @Transactional
+    public void removeUser(Long userId) {
+        userResponseStatsRepository.deleteByUserId(userId);
+    }
+}
@@ -0,0 +1,298 @@
+package com.meetwo.service.discovery;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.meetwo.repository.LikeRepository;
+import com.meetwo.repository.UserRepository;
+import com.meetwo.service.graph.LikeGraphIndex;
+import com.meetwo.service.swipe.SwipePassStore;
+import com.meetwo.util.AgeRanges;
+import com.meetwo.util.InterestMasks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fil de découverte : une file de candidats classés est précalculée par utilisateur et par filtre,
+ * puis servie par tranches (curseur = génération de la file + position).
+ * Le classement combine la similarité des intérêts (Jaccard sur les masques) et la récence de l'inscription.
+ * Les files sont reconstruites en arrière-plan (rafraîchissement périodique, file presque épuisée,
+ * connexion), les likes et passes survenus depuis sont écartés au moment de servir la page.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiscoveryFeed {
+
+    private final UserRepository userRepository;
+    private final LikeRepository likeRepository;
+    private final LikeGraphIndex likeGraphIndex;
+    private final SwipePassStore swipePassStore;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.discovery.queue.pool-size:500}")
+    private int poolSize;
+
+    @Value("${app.discovery.queue.scan-limit:100000}")
+    private int scanLimit;
+
+    @Value("${app.discovery.queue.refill-threshold:50}")
+    private int refillThreshold;
+
+    @Value("${app.discovery.queue.refresh-after:5m}")
+    private Duration refreshAfter;
+
+    @Value("${app.discovery.queue.idle-ttl:30m}")
+    private Duration idleTtl;
+
+    @Value("${app.discovery.queue.max-queues:10000}")
+    private long maxQueues;
+
+    @Value("${app.discovery.queue.threads:2}")
+    private int threads;
+
+    @Value("${app.discovery.score.recency-weight:0.3}")
+    private double recencyWeight;
+
+    @Value("${app.discovery.score.recency-half-life:14d}")
+    private Duration recencyHalfLife;
+
+    private final AtomicLong generations = new AtomicLong();
+    private ThreadPoolExecutor executor;
+    private LoadingCache<QueueKey, CandidateQueue> queues;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "discovery-feed-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // Une file non consultée depuis idle-ttl est libérée ; au-delà de refresh-after,
+        // la lecture suivante sert encore l'ancienne file et déclenche sa reconstruction en arrière-plan
+        queues = Caffeine.newBuilder()
+                .maximumSize(maxQueues)
+                .expireAfterAccess(idleTtl)
+                .refreshAfterWrite(refreshAfter)
+                .executor(executor)
+                .build(this::buildQueue);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Sert la tranche suivante de la file de l'utilisateur, en écartant les profils likés ou passés depuis sa construction
+     */
+    public Page nextPage(Long userId, DiscoveryFilter filter, String cursor, int pageSize) {
+        QueueKey key = new QueueKey(userId, filter);
+        CandidateQueue queue = queues.get(key);
+        int offset = decodeOffset(cursor, queue);
+        Roaring64NavigableMap passedUserIds = swipePassStore.getPassedUserIds(userId);
+
+        Set<Long> selected = new LinkedHashSet<>(pageSize);
+        boolean rebuilt = false;
+        while (selected.size() < pageSize) {
+            if (offset >= queue.userIds.length) {
+                if (!queue.truncated || rebuilt) {
+                    break;
+                }
+                // File consommée alors que d'autres candidats existent : reconstruction immédiate
+                queue = buildQueue(key);
+                queues.put(key, queue);
+                offset = 0;
+                rebuilt = true;
+                continue;
+            }
+
+            // Fenêtre un peu plus large que le besoin pour absorber les profils écartés
+            int end = Math.min(queue.userIds.length, offset + (pageSize - selected.size()) * 2);
+            Set<Long> liked = findLiked(userId, queue.userIds, offset, end);
+            int i = offset;
+            while (i < end && selected.size() < pageSize) {
+                long candidateId = queue.userIds[i++];
+                if (!passedUserIds.contains(candidateId) && !liked.contains(candidateId)) {
+                    selected.add(candidateId);
+                }
+            }
+            offset = i;
+        }
+
+        int remaining = queue.userIds.length - offset;
+        if (!rebuilt && queue.truncated && remaining < refillThreshold) {
+            // Préparer la file suivante avant que le paquet ne soit épuisé
+            queues.refresh(key);
+        }
+
+        boolean hasMore = remaining > 0 || queue.truncated;
+        return new Page(new ArrayList<>(selected), hasMore ? queue.generation + ":" + offset : null, hasMore);
+    }
+
+    /**
+     * Construit en arrière-plan la file par défaut d'un utilisateur (à la connexion par exemple)
+     */
+    public void prefetch(Long userId, DiscoveryFilter filter) {
+        QueueKey key = new QueueKey(userId, filter);
+        if (queues.getIfPresent(key) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> queues.get(key));
+        } catch (RejectedExecutionException e) {
+            log.debug("Préchargement de la file de découverte de l'utilisateur {} ignoré (pool saturé)", userId);
+        }
+    }
+
+    /**
+     * Oublie les files d'un utilisateur (suppression de compte)
+     */
+    public void evictUser(Long userId) {
+        queues.asMap().keySet().removeIf(key -> key.userId.equals(userId));
+    }
+
+    private CandidateQueue buildQueue(QueueKey key) {
+        long start = System.nanoTime();
+        Roaring64NavigableMap passedUserIds = swipePassStore.getPassedUserIds(key.userId);
+
+        DiscoveryFilter filter = key.filter;
+        LocalDate today = LocalDate.now();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        long mask = transactionTemplate.execute(status -> userRepository.findInterestsMaskById(key.userId).orElse(0L));
+        // Un seul parcours (ID, date, masque) des profils filtrés, sans jointure sur les intérêts
+        List<Object[]> rows = transactionTemplate.execute(status -> userRepository.findDiscoveryPool(key.userId,
+                filter.gender(), filter.relationshipType(), filter.city(),
+                AgeRanges.earliestBirthDate(filter.maxAge(), today), AgeRanges.latestBirthDate(filter.minAge(), today),
+                scanLimit));
+
+        // Les poolSize meilleurs scores, gardés dans un tas borné (le moins bon en tête)
+        LocalDateTime now = LocalDateTime.now();
+        Comparator<Candidate> ranking = Comparator.comparingDouble(Candidate::score)
+                .thenComparing(Comparator.comparingLong(Candidate::userId).reversed());
+        PriorityQueue<Candidate> best = new PriorityQueue<>(poolSize + 1, ranking);
+        int eligible = 0;
+        for (Object[] row : rows) {
+            long candidateId = (Long) row[0];
+            if (passedUserIds.contains(candidateId)) {
+                continue;
+            }
+            eligible++;
+            best.add(new Candidate(candidateId, score((LocalDateTime) row[1], mask, (Long) row[2], now)));
+            if (best.size() > poolSize) {
+                best.poll();
+            }
+        }
+
+        List<Candidate> candidates = new ArrayList<>(best);
+        candidates.sort(ranking.reversed());
+        long[] userIds = new long[candidates.size()];
+        for (int i = 0; i < userIds.length; i++) {
+            userIds[i] = candidates.get(i).userId();
+        }
+        CandidateQueue queue = new CandidateQueue(generations.incrementAndGet(), userIds,
+                rows.size() == scanLimit || eligible > userIds.length);
+        log.debug("File de découverte de l'utilisateur {} construite : {} candidats sur {} lus en {} ms",
+                key.userId, userIds.length, rows.size(), (System.nanoTime() - start) / 1_000_000);
+        return queue;
+    }
+
+    // Indice de Jaccard des intérêts, plus un bonus de récence divisé par deux à chaque demi-vie depuis l'inscription
+    private double score(LocalDateTime createdAt, long mask, long candidateMask, LocalDateTime now) {
+        double ageSeconds = Math.max(0, Duration.between(createdAt, now).getSeconds());
+        double recency = Math.pow(0.5, ageSeconds / Math.max(1, recencyHalfLife.getSeconds()));
+        return InterestMasks.jaccard(mask, candidateMask) + recencyWeight * recency;
+    }
+
+    private Set<Long> findLiked(Long userId, long[] userIds, int from, int to) {
+        Set<Long> liked = new HashSet<>();
+        if (likeGraphIndex.isAvailable()) {
+            for (int i = from; i < to; i++) {
+                if (likeGraphIndex.hasLiked(userId, userIds[i])) {
+                    liked.add(userIds[i]);
+                }
+            }
+            return liked;
+        }
+        List<Long> window = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            window.add(userIds[i]);
+        }
+        if (!window.isEmpty()) {
+            liked.addAll(likeRepository.findLikedUserIdsAmong(userId, window));
+        }
+        return liked;
+    }
+
+    // Curseur "génération:position" ; une file reconstruite depuis repart de son début
+    private static int decodeOffset(String cursor, CandidateQueue queue) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        int separator = cursor.indexOf(':');
+        try {
+            if (separator < 0) {
+                throw new NumberFormatException();
+            }
+            long generation = Long.parseLong(cursor.substring(0, separator));
+            int offset = Integer.parseInt(cursor.substring(separator + 1));
+            if (offset < 0) {
+                throw new NumberFormatException();
+            }
+            return generation == queue.generation ? Math.min(offset, queue.userIds.length) : 0;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide : " + cursor);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Page {
+        private final List<Long> userIds; // Dans l'ordre du classement
+        private final String nextCursor;
+        private final boolean hasMore;
+    }
+
+    private record QueueKey(Long userId, DiscoveryFilter filter) {
+    }
+
+    private record CandidateQueue(long generation, long[] userIds, boolean truncated) {
+    }
+
+    private record Candidate(long userId, double score) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.meetwo.service.discovery;
+
+import com.meetwo.enums.Gender;
+import com.meetwo.enums.RelationshipType;
+
+import java.util.Locale;
+
+/**
+ * Critères de découverte choisis par l'utilisateur (null = pas de filtre).
+ * La ville est normalisée pour que deux demandes équivalentes partagent la même file de candidats.
+ */
+public record DiscoveryFilter(Gender gender, RelationshipType relationshipType, Integer minAge, Integer maxAge,
+                              String city) {
+
+    public static final DiscoveryFilter NONE = new DiscoveryFilter(null, null, null, null, null);
+
+    public DiscoveryFilter {
+        if (minAge != null && minAge < 0 || maxAge != null && maxAge < 0) {
+            throw new IllegalArgumentException("L'âge doit être positif");
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new IllegalArgumentException("L'âge minimum doit être inférieur ou égal à l'âge maximum");
+        }
+        city = city == null || city.isBlank() ? null : city.trim().toLowerCase(Locale.ROOT);
+    }
+}
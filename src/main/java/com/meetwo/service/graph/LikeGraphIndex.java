@@ -0,0 +1,235 @@
+package com.meetwo.service.graph;
+
+import com.meetwo.dto.response.LikeGraphConsistencyResponse;
+import com.meetwo.repository.LikeRepository;
+import com.meetwo.util.LongHashSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index mémoire du graphe des likes : pour chaque utilisateur, l'ensemble primitif des utilisateurs qu'il a likés.
+ * Il répond à hasLiked / isMatch sans aller-retour en base. L'index est propre à l'instance :
+ * il doit être désactivé (app.like.graph-index.enabled=false) si plusieurs instances écrivent des likes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeGraphIndex {
+
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final LikeRepository likeRepository;
+
+    @Value("${app.like.graph-index.enabled:false}")
+    private boolean enabled;
+
+    private volatile Map<Long, LongHashSet> outgoingLikes = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+
+    // Les écritures prennent le verrou partagé, l'échange de l'index reconstruit prend le verrou exclusif
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Queue<long[]> writesDuringRebuild; // {likerId, likedUserId, 1 = ajout / 0 = retrait}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public boolean isAvailable() {
+        return enabled && ready;
+    }
+
+    public boolean hasLiked(long likerId, long likedUserId) {
+        LongHashSet liked = outgoingLikes.get(likerId);
+        if (liked == null) {
+            return false;
+        }
+        synchronized (liked) {
+            return liked.contains(likedUserId);
+        }
+    }
+
+    public boolean isMatch(long userId1, long userId2) {
+        return hasLiked(userId1, userId2) && hasLiked(userId2, userId1);
+    }
+
+    public void addLike(long likerId, long likedUserId) {
+        applyWrite(likerId, likedUserId, true);
+    }
+
+    public void removeLike(long likerId, long likedUserId) {
+        applyWrite(likerId, likedUserId, false);
+    }
+
+    /**
+     * Retire un utilisateur du graphe : ses likes donnés et les likes reçus de likerIds
+     */
+    public void removeUser(long userId, Collection<Long> likerIds) {
+        for (Long likerId : likerIds) {
+            removeLike(likerId, userId);
+        }
+        LongHashSet liked = outgoingLikes.get(userId);
+        if (liked != null) {
+            long[] likedUserIds = snapshot(liked);
+            for (long likedUserId : likedUserIds) {
+                removeLike(userId, likedUserId);
+            }
+        }
+    }
+
+    /**
+     * Recharge entièrement l'index depuis la base, par lots ordonnés sur l'ID du like.
+     * Les écritures concurrentes sont journalisées puis rejouées avant l'échange.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        writesDuringRebuild = new ConcurrentLinkedQueue<>();
+
+        Map<Long, LongHashSet> rebuilt = new ConcurrentHashMap<>();
+        long loaded = 0;
+        long afterId = 0;
+        List<Object[]> batch;
+        do {
+            batch = likeRepository.findLikeEdgesAfter(afterId, LOAD_BATCH_SIZE);
+            for (Object[] edge : batch) {
+                afterId = (Long) edge[0];
+                rebuilt.computeIfAbsent((Long) edge[1], id -> new LongHashSet()).add((Long) edge[2]);
+            }
+            loaded += batch.size();
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        swapLock.writeLock().lock();
+        try {
+            for (long[] write : writesDuringRebuild) {
+                apply(rebuilt, write[0], write[1], write[2] == 1);
+            }
+            outgoingLikes = rebuilt;
+            writesDuringRebuild = null;
+            ready = true;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        log.info("Index des likes chargé : {} likes pour {} utilisateurs en {} ms",
+                loaded, rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Compare l'index au contenu de la base (parcours par lots) et le reconstruit si demandé
+     */
+    public LikeGraphConsistencyResponse checkConsistency(boolean repair) {
+        if (!isAvailable()) {
+            return LikeGraphConsistencyResponse.builder()
+                    .enabled(enabled)
+                    .ready(ready)
+                    .build();
+        }
+
+        long databaseLikes = 0;
+        long missingInIndex = 0;
+        long afterId = 0;
+        List<Object[]> batch;
+        do {
+            batch = likeRepository.findLikeEdgesAfter(afterId, LOAD_BATCH_SIZE);
+            for (Object[] edge : batch) {
+                afterId = (Long) edge[0];
+                if (!hasLiked((Long) edge[1], (Long) edge[2])) {
+                    missingInIndex++;
+                }
+            }
+            databaseLikes += batch.size();
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        long indexedLikes = countIndexedLikes();
+        long extraInIndex = Math.max(0, indexedLikes - (databaseLikes - missingInIndex));
+        boolean consistent = missingInIndex == 0 && extraInIndex == 0;
+
+        boolean rebuilt = false;
+        if (!consistent) {
+            log.warn("Index des likes incohérent : {} likes manquants, {} likes en trop", missingInIndex, extraInIndex);
+            if (repair) {
+                rebuild();
+                rebuilt = true;
+            }
+        }
+
+        return LikeGraphConsistencyResponse.builder()
+                .enabled(true)
+                .ready(true)
+                .databaseLikes(databaseLikes)
+                .indexedLikes(indexedLikes)
+                .missingInIndex(missingInIndex)
+                .extraInIndex(extraInIndex)
+                .consistent(consistent)
+                .rebuilt(rebuilt)
+                .build();
+    }
+
+    // === MÉTHODES UTILITAIRES PRIVÉES ===
+
+    private void applyWrite(long likerId, long likedUserId, boolean added) {
+        if (!enabled) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            apply(outgoingLikes, likerId, likedUserId, added);
+            Queue<long[]> pendingWrites = writesDuringRebuild;
+            if (pendingWrites != null) {
+                pendingWrites.add(new long[]{likerId, likedUserId, added ? 1 : 0});
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static void apply(Map<Long, LongHashSet> index, long likerId, long likedUserId, boolean added) {
+        if (added) {
+            LongHashSet liked = index.computeIfAbsent(likerId, id -> new LongHashSet());
+            synchronized (liked) {
+                liked.add(likedUserId);
+            }
+        } else {
+            LongHashSet liked = index.get(likerId);
+            if (liked != null) {
+                synchronized (liked) {
+                    liked.remove(likedUserId);
+                }
+            }
+        }
+    }
+
+    private long countIndexedLikes() {
+        AtomicLong count = new AtomicLong();
+        outgoingLikes.values().forEach(liked -> {
+            synchronized (liked) {
+                count.addAndGet(liked.size());
+            }
+        });
+        return count.get();
+    }
+
+    private static long[] snapshot(LongHashSet set) {
+        synchronized (set) {
+            long[] values = new long[set.size()];
+            int[] position = {0};
+            set.forEach(value -> values[position[0]++] = value);
+            return values;
+        }
+    }
+}
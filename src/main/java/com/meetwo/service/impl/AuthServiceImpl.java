@@ -11,6 +11,8 @@ import com.meetwo.exception.user.UserNotFoundException;
 import com.meetwo.repository.UserRepository;
 import com.meetwo.security.JwtUtil;
 import com.meetwo.service.AuthService;
+import com.meetwo.service.discovery.DiscoveryFeed;
+import com.meetwo.service.discovery.DiscoveryFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -33,6 +35,7 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final DiscoveryFeed discoveryFeed;
 
     @Override
     public AuthResponse register(CreateUserRequest request) {
@@ -84,6 +87,9 @@ public class AuthServiceImpl implements AuthService {
             String token = jwtUtil.generateToken(userDetails);
             UserResponse userResponse = userMapper.toResponse(user);
 
+            // Préparer le fil de découverte pendant que le client charge
+            discoveryFeed.prefetch(user.getId(), DiscoveryFilter.NONE);
+
             return new AuthResponse(token, userResponse);
 
         } catch (BadCredentialsException e) {
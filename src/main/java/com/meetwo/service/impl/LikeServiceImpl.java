@@ -1,27 +1,61 @@
 package com.meetwo.service.impl;
 
+import com.meetwo.config.CacheConfig;
 import com.meetwo.dto.mapper.LikeMapper;
+import com.meetwo.dto.request.BulkSwipeRequest;
 import com.meetwo.dto.request.CreateLikeRequest;
+import com.meetwo.dto.request.SwipeRequest;
 import com.meetwo.dto.request.UpdateLikeRequest;
+import com.meetwo.dto.response.BulkSwipeResponse;
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.LikeGraphConsistencyResponse;
 import com.meetwo.dto.response.LikeResponse;
 import com.meetwo.dto.response.MatchResponse;
 import com.meetwo.dto.response.LikeStatsResponse;
+import com.meetwo.dto.response.MatchPairResponse;
+import com.meetwo.dto.response.OutboxReplayResponse;
+import com.meetwo.dto.response.SwipeResultResponse;
 import com.meetwo.entity.Like;
+import com.meetwo.entity.LikeOutboxEvent;
 import com.meetwo.entity.User;
+import com.meetwo.enums.Gender;
+import com.meetwo.enums.OutboxEventType;
+import com.meetwo.enums.OutboxStatus;
+import com.meetwo.enums.SwipeAction;
+import com.meetwo.enums.SwipeStatus;
+import com.meetwo.exception.like.InvalidLikeOperationException;
 import com.meetwo.exception.like.LikeAlreadyExistsException;
 import com.meetwo.exception.like.LikeNotFoundException;
 import com.meetwo.exception.like.SelfLikeNotAllowedException;
 import com.meetwo.exception.user.UserNotFoundException;
+import com.meetwo.repository.LikeBatchRepository;
+import com.meetwo.repository.LikeCountersView;
+import com.meetwo.repository.LikeOutboxRepository;
 import com.meetwo.repository.LikeRepository;
+import com.meetwo.repository.MatchRepository;
 import com.meetwo.repository.UserRepository;
 import com.meetwo.service.LikeService;
+import com.meetwo.service.graph.LikeGraphIndex;
+import com.meetwo.service.leaderboard.LikeLeaderboard;
+import com.meetwo.service.outbox.LikeOutboxDispatcher;
+import com.meetwo.service.swipe.SwipePassStore;
 import lombok.RequiredArgsConstructor;
+import com.meetwo.util.KeysetCursor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -31,8 +65,21 @@ import java.util.stream.Collectors;
 public class LikeServiceImpl implements LikeService {
 
     private final LikeRepository likeRepository;
+    private final LikeBatchRepository likeBatchRepository;
+    private final MatchRepository matchRepository;
     private final UserRepository userRepository;
     private final LikeMapper likeMapper;
+    private final LikeGraphIndex likeGraphIndex;
+    private final SwipePassStore swipePassStore;
+    private final LikeLeaderboard likeLeaderboard;
+    private final LikeOutboxRepository likeOutboxRepository;
+    private final LikeOutboxDispatcher likeOutboxDispatcher;
+
+    @Value("${app.like.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.like.page.max-size:100}")
+    private int maxPageSize;
 
     @Override
     public LikeResponse createLike(CreateLikeRequest request) {
@@ -58,16 +105,14 @@ public class LikeServiceImpl implements LikeService {
         // Créer le like
         Like like = likeMapper.toEntity(request, liker, likedUser);
         Like savedLike = likeRepository.save(like);
+        publishLikeEvent(OutboxEventType.LIKE_CREATED, request.getLikerId(), request.getLikedUserId(),
+                savedLike.getCreatedAt());
+        afterCommit(() -> likeGraphIndex.addLike(request.getLikerId(), request.getLikedUserId()));
 
-        // Vérifier si c'est un match mutuel
+        // Vérifier si c'est un match mutuel (le match et les compteurs sont créés par l'outbox)
         boolean isMatch = likeRepository.existsByLikerIdAndLikedUserId(
                 request.getLikedUserId(), request.getLikerId());
 
-        if (isMatch) {
-            log.info("Match détecté entre les utilisateurs {} et {}",
-                    request.getLikerId(), request.getLikedUserId());
-        }
-
         log.info("Like créé avec l'ID {} (Match: {})", savedLike.getId(), isMatch);
         return likeMapper.toResponseWithMatch(savedLike, isMatch);
     }
@@ -80,6 +125,129 @@ public class LikeServiceImpl implements LikeService {
         return createLike(request);
     }
 
+    @Override
+    public BulkSwipeResponse bulkSwipe(BulkSwipeRequest request) {
+        Long likerId = request.getLikerId();
+        log.info("Traitement d'un lot de {} swipes pour l'utilisateur {}", request.getSwipes().size(), likerId);
+
+        if (!userRepository.existsById(likerId)) {
+            throw new UserNotFoundException(likerId);
+        }
+
+        // Valider tous les utilisateurs ciblés en une seule requête
+        Set<Long> targetIds = request.getSwipes().stream()
+                .map(SwipeRequest::getTargetUserId)
+                .filter(targetId -> !targetId.equals(likerId))
+                .collect(Collectors.toSet());
+        Set<Long> existingUserIds = userRepository.findAllById(targetIds).stream()
+                .map(User::getId)
+                .collect(Collectors.toSet());
+
+        // Une seule requête pour les likes déjà existants parmi les cibles
+        Set<Long> alreadyLikedIds = existingUserIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(likeRepository.findLikedUserIdsAmong(likerId, existingUserIds));
+
+        List<SwipeResultResponse> results = new ArrayList<>(request.getSwipes().size());
+        Set<Long> seenTargetIds = new HashSet<>();
+        List<Long> likesToInsert = new ArrayList<>();
+        List<Long> passedIds = new ArrayList<>();
+
+        for (SwipeRequest swipe : request.getSwipes()) {
+            Long targetId = swipe.getTargetUserId();
+            SwipeStatus status;
+            if (targetId.equals(likerId)) {
+                status = SwipeStatus.SELF_SWIPE;
+            } else if (!existingUserIds.contains(targetId)) {
+                status = SwipeStatus.USER_NOT_FOUND;
+            } else if (!seenTargetIds.add(targetId)) {
+                status = SwipeStatus.DUPLICATE_IN_BATCH;
+            } else if (swipe.getAction() == SwipeAction.PASS) {
+                status = SwipeStatus.PASSED;
+                passedIds.add(targetId);
+            } else if (alreadyLikedIds.contains(targetId)) {
+                status = SwipeStatus.ALREADY_LIKED;
+            } else {
+                status = SwipeStatus.CREATED;
+                likesToInsert.add(targetId);
+            }
+            results.add(SwipeResultResponse.builder()
+                    .targetUserId(targetId)
+                    .action(swipe.getAction())
+                    .status(status)
+                    .build());
+        }
+
+        // Les passes sont ajoutées au bitmap de l'utilisateur en une seule écriture
+        swipePassStore.recordPasses(likerId, passedIds);
+
+        // Insertion des nouveaux likes en un seul lot JDBC
+        LocalDateTime now = LocalDateTime.now();
+        int[] insertedRows = likesToInsert.isEmpty()
+                ? new int[0]
+                : likeBatchRepository.insertLikes(likerId, likesToInsert, now);
+
+        // Un like inséré en parallèle par une autre requête entre-temps n'est pas compté comme créé
+        Set<Long> createdIds = new HashSet<>();
+        for (int i = 0; i < insertedRows.length; i++) {
+            if (insertedRows[i] != 0) {
+                createdIds.add(likesToInsert.get(i));
+            }
+        }
+
+        // Une seule requête de réciprocité pour détecter les nouveaux matches,
+        // créés ensuite avec les compteurs par l'outbox (un événement par like, écrits en un lot)
+        Set<Long> matchedIds = createdIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(likeRepository.findLikerIdsAmong(likerId, createdIds));
+        if (!createdIds.isEmpty()) {
+            likeBatchRepository.insertOutboxEvents(OutboxEventType.LIKE_CREATED, likerId, createdIds, now);
+            afterCommit(likeOutboxDispatcher::dispatchDue);
+        }
+
+        for (SwipeResultResponse result : results) {
+            if (result.getStatus() == SwipeStatus.CREATED && !createdIds.contains(result.getTargetUserId())) {
+                result.setStatus(SwipeStatus.ALREADY_LIKED);
+            }
+            result.setMatch(matchedIds.contains(result.getTargetUserId())
+                    && result.getStatus() == SwipeStatus.CREATED);
+        }
+
+        afterCommit(() -> createdIds.forEach(targetId -> likeGraphIndex.addLike(likerId, targetId)));
+
+        log.info("Lot traité pour l'utilisateur {} : {} likes créés, {} matches",
+                likerId, createdIds.size(), matchedIds.size());
+        return BulkSwipeResponse.builder()
+                .likerId(likerId)
+                .likesCreated(createdIds.size())
+                .matchesCreated(matchedIds.size())
+                .results(results)
+                .build();
+    }
+
+    @Override
+    public void passUser(Long userId, Long passedUserId) {
+        log.info("L'utilisateur {} passe le profil de l'utilisateur {}", userId, passedUserId);
+
+        if (userId.equals(passedUserId)) {
+            throw new InvalidLikeOperationException("pass", "un utilisateur ne peut pas se passer lui-même");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException(userId);
+        }
+        if (!userRepository.existsById(passedUserId)) {
+            throw new UserNotFoundException(passedUserId);
+        }
+
+        swipePassStore.recordPasses(userId, List.of(passedUserId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean hasUserPassed(Long userId, Long passedUserId) {
+        return swipePassStore.hasPassed(userId, passedUserId);
+    }
+
     @Override
     public LikeResponse updateLike(Long id, UpdateLikeRequest request) {
         log.info("Mise à jour du like avec l'ID {}", id);
@@ -114,38 +282,36 @@ public class LikeServiceImpl implements LikeService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<LikeResponse> getLikesGivenByUser(Long userId) {
-        log.debug("Récupération des likes donnés par l'utilisateur {}", userId);
+    public CursorPageResponse<LikeResponse> getLikesGivenByUser(Long userId, String cursor, Integer size) {
+        log.debug("Récupération d'une page des likes donnés par l'utilisateur {}", userId);
 
         if (!userRepository.existsById(userId)) {
             throw new UserNotFoundException(userId);
         }
 
-        return likeRepository.findByLikerIdOrderByCreatedAtDesc(userId).stream()
-                .map(like -> {
-                    boolean isMatch = likeRepository.existsByLikerIdAndLikedUserId(
-                            like.getLikedUser().getId(), like.getLiker().getId());
-                    return likeMapper.toResponseWithMatch(like, isMatch);
-                })
-                .collect(Collectors.toList());
+        int pageSize = resolvePageSize(size);
+        List<Like> likes = cursor == null
+                ? likeRepository.findGivenLikesFirstPage(userId, pageSize + 1)
+                : findGivenLikesAfter(userId, KeysetCursor.decode(cursor), pageSize + 1);
+
+        return toLikePage(userId, likes, pageSize, Like::getLikedUser);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<LikeResponse> getLikesReceivedByUser(Long userId) {
-        log.debug("Récupération des likes reçus par l'utilisateur {}", userId);
+    public CursorPageResponse<LikeResponse> getLikesReceivedByUser(Long userId, String cursor, Integer size) {
+        log.debug("Récupération d'une page des likes reçus par l'utilisateur {}", userId);
 
         if (!userRepository.existsById(userId)) {
             throw new UserNotFoundException(userId);
         }
 
-        return likeRepository.findByLikedUserIdOrderByCreatedAtDesc(userId).stream()
-                .map(like -> {
-                    boolean isMatch = likeRepository.existsByLikerIdAndLikedUserId(
-                            like.getLikedUser().getId(), like.getLiker().getId());
-                    return likeMapper.toResponseWithMatch(like, isMatch);
-                })
-                .collect(Collectors.toList());
+        int pageSize = resolvePageSize(size);
+        List<Like> likes = cursor == null
+                ? likeRepository.findReceivedLikesFirstPage(userId, pageSize + 1)
+                : findReceivedLikesAfter(userId, KeysetCursor.decode(cursor), pageSize + 1);
+
+        return toLikePage(userId, likes, pageSize, Like::getLiker);
     }
 
     @Override
@@ -157,33 +323,30 @@ public class LikeServiceImpl implements LikeService {
             throw new UserNotFoundException(userId);
         }
 
-        List<Like> mutualLikes = likeRepository.findMutualLikesByUser(userId);
-
-        return mutualLikes.stream()
-                .map(like -> {
-                    // Déterminer l'utilisateur matché (l'autre que userId)
-                    User matchedUser = like.getLiker().getId().equals(userId)
-                            ? like.getLikedUser()
-                            : like.getLiker();
-
-                    // Trouver la date du match (le plus récent des deux likes)
-                    LocalDateTime matchedAt = findMatchDate(userId, matchedUser.getId());
-
-                    return likeMapper.toMatchResponse(matchedUser, matchedAt);
-                })
+        return matchRepository.findByUserId(userId).stream()
+                .map(match -> likeMapper.toMatchResponse(match.getOtherUser(userId), match.getMatchedAt()))
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean isMatch(Long userId1, Long userId2) {
-        return likeRepository.existsByLikerIdAndLikedUserId(userId1, userId2) &&
-                likeRepository.existsByLikerIdAndLikedUserId(userId2, userId1);
+        if (userId1.equals(userId2)) {
+            return false;
+        }
+        if (likeGraphIndex.isAvailable()) {
+            return likeGraphIndex.isMatch(userId1, userId2);
+        }
+        return matchRepository.existsByUser1IdAndUser2Id(
+                Math.min(userId1, userId2), Math.max(userId1, userId2));
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean hasUserLiked(Long likerId, Long likedUserId) {
+        if (likeGraphIndex.isAvailable()) {
+            return likeGraphIndex.hasLiked(likerId, likedUserId);
+        }
         return likeRepository.existsByLikerIdAndLikedUserId(likerId, likedUserId);
     }
 
@@ -195,7 +358,10 @@ public class LikeServiceImpl implements LikeService {
             throw new LikeNotFoundException(likerId, likedUserId);
         }
 
-        likeRepository.deleteByLikerIdAndLikedUserId(likerId, likedUserId);
+        if (likeRepository.deleteByPair(likerId, likedUserId) > 0) {
+            publishLikeEvent(OutboxEventType.LIKE_REMOVED, likerId, likedUserId, LocalDateTime.now());
+        }
+        afterCommit(() -> likeGraphIndex.removeLike(likerId, likedUserId));
         log.info("Like supprimé entre les utilisateurs {} et {}", likerId, likedUserId);
     }
 
@@ -203,11 +369,14 @@ public class LikeServiceImpl implements LikeService {
     public void removeLike(Long likeId) {
         log.info("Suppression du like avec l'ID {}", likeId);
 
-        if (!likeRepository.existsById(likeId)) {
-            throw new LikeNotFoundException(likeId);
-        }
+        Like like = likeRepository.findById(likeId)
+                .orElseThrow(() -> new LikeNotFoundException(likeId));
 
-        likeRepository.deleteById(likeId);
+        Long likerId = like.getLiker().getId();
+        Long likedUserId = like.getLikedUser().getId();
+        likeRepository.delete(like);
+        publishLikeEvent(OutboxEventType.LIKE_REMOVED, likerId, likedUserId, LocalDateTime.now());
+        afterCommit(() -> likeGraphIndex.removeLike(likerId, likedUserId));
         log.info("Like {} supprimé", likeId);
     }
 
@@ -216,15 +385,11 @@ public class LikeServiceImpl implements LikeService {
     public LikeStatsResponse getUserLikeStats(Long userId) {
         log.debug("Récupération des statistiques de likes pour l'utilisateur {}", userId);
 
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException(userId);
-        }
+        LikeCountersView counters = userRepository.findLikeCountersById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
 
-        long likesGiven = likeRepository.countByLikerId(userId);
-        long likesReceived = likeRepository.countByLikedUserId(userId);
-        long matchesCount = countMatchesByUser(userId);
-
-        return likeMapper.toStatsResponse(userId, likesGiven, likesReceived, matchesCount);
+        return likeMapper.toStatsResponse(userId, counters.getLikesGiven(), counters.getLikesReceived(),
+                counters.getMatchesCount());
     }
 
     @Override
@@ -236,27 +401,21 @@ public class LikeServiceImpl implements LikeService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<MatchResponse> getTopLikedUsers(int limit) {
-        log.debug("Récupération des {} utilisateurs les plus likés", limit);
+    public List<MatchResponse> getTopLikedUsers(int limit, String city, Gender gender) {
+        log.debug("Récupération des {} utilisateurs les plus likés (ville : {}, genre : {})", limit, city, gender);
 
-        List<Object[]> topLiked = likeRepository.findTopLikedUsers(limit);
+        // Classement précalculé, puis chargement des profils en une seule requête
+        List<LikeLeaderboard.Entry> topLiked = likeLeaderboard.getTop(limit, city, gender);
+        Map<Long, User> usersById = userRepository.findAllById(topLiked.stream()
+                        .map(LikeLeaderboard.Entry::getUserId)
+                        .toList()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
 
+        LocalDateTime now = LocalDateTime.now();
         return topLiked.stream()
-                .map(result -> {
-                    Long userId = (Long) result[0];
-                    Long likeCount = (Long) result[1];
-
-                    User user = userRepository.findById(userId)
-                            .orElse(null);
-
-                    if (user != null) {
-                        MatchResponse response = likeMapper.toMatchResponse(user, LocalDateTime.now());
-                        // On pourrait ajouter le nombre de likes dans une extension du DTO
-                        return response;
-                    }
-                    return null;
-                })
-                .filter(response -> response != null)
+                .map(entry -> usersById.get(entry.getUserId()))
+                .filter(user -> user != null)
+                .map(user -> likeMapper.toMatchResponse(user, now))
                 .collect(Collectors.toList());
     }
 
@@ -271,46 +430,64 @@ public class LikeServiceImpl implements LikeService {
 
         LocalDateTime since = LocalDateTime.now().minusHours(hours);
 
+        Set<Long> matchedUserIds = findMatchedUserIds(userId);
+
         return likeRepository.findRecentLikesReceived(userId, since).stream()
-                .map(like -> {
-                    boolean isMatch = likeRepository.existsByLikerIdAndLikedUserId(
-                            like.getLikedUser().getId(), like.getLiker().getId());
-                    return likeMapper.toResponseWithMatch(like, isMatch);
-                })
+                .map(like -> likeMapper.toResponseWithMatch(like,
+                        matchedUserIds.contains(like.getLiker().getId())))
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
     public long countLikesGivenByUser(Long userId) {
-        return likeRepository.countByLikerId(userId);
+        return userRepository.findLikeCountersById(userId)
+                .map(LikeCountersView::getLikesGiven)
+                .orElse(0L);
     }
 
     @Override
     @Transactional(readOnly = true)
     public long countLikesReceivedByUser(Long userId) {
-        return likeRepository.countByLikedUserId(userId);
+        return userRepository.findLikeCountersById(userId)
+                .map(LikeCountersView::getLikesReceived)
+                .orElse(0L);
     }
 
     @Override
     @Transactional(readOnly = true)
     public long countMatchesByUser(Long userId) {
-        return likeRepository.findMutualLikesByUser(userId).size();
+        return userRepository.findLikeCountersById(userId)
+                .map(LikeCountersView::getMatchesCount)
+                .orElse(0L);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<MatchResponse> getMatchesByCity(String city) {
-        log.debug("Récupération des matches dans la ville {}", city);
-
-        return likeRepository.findLikesByCity(city).stream()
-                .filter(like -> isMatch(like.getLiker().getId(), like.getLikedUser().getId()))
-                .map(like -> {
-                    LocalDateTime matchedAt = findMatchDate(like.getLiker().getId(), like.getLikedUser().getId());
-                    return likeMapper.toMatchResponse(like, matchedAt);
-                })
-                .distinct()
-                .collect(Collectors.toList());
+    @Cacheable(cacheNames = CacheConfig.CITY_MATCHES_CACHE, key = "#city + '|' + #cursor + '|' + #size")
+    public CursorPageResponse<MatchPairResponse> getMatchesByCity(String city, String cursor, Integer size) {
+        log.debug("Récupération d'une page des matches dans la ville {}", city);
+
+        // Une seule requête sur la table matches : chaque paire n'apparaît qu'une fois
+        int pageSize = resolvePageSize(size);
+        List<MatchPairResponse> matches;
+        if (cursor == null) {
+            matches = matchRepository.findCityMatchesFirstPage(city, pageSize + 1);
+        } else {
+            KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+            matches = matchRepository.findCityMatchesAfter(city, keysetCursor.getCreatedAt(), keysetCursor.getId(),
+                    pageSize + 1);
+        }
+
+        boolean hasMore = matches.size() > pageSize;
+        List<MatchPairResponse> pageMatches = hasMore ? new ArrayList<>(matches.subList(0, pageSize)) : matches;
+        MatchPairResponse last = pageMatches.isEmpty() ? null : pageMatches.get(pageMatches.size() - 1);
+
+        return CursorPageResponse.<MatchPairResponse>builder()
+                .items(pageMatches)
+                .nextCursor(hasMore ? new KeysetCursor(last.getMatchedAt(), last.getMatchId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
     }
 
     @Override
@@ -321,24 +498,136 @@ public class LikeServiceImpl implements LikeService {
             throw new UserNotFoundException(userId);
         }
 
+        List<Long> likerIds = likeGraphIndex.isAvailable()
+                ? likeRepository.findLikerIdsByLikedUser(userId)
+                : List.of();
+
+        // Un événement LIKE_REMOVED par like : les compteurs de likes passent par l'outbox,
+        // où ces -1 commutent avec les +1 des LIKE_CREATED encore en attente pour les mêmes likes
+        LocalDateTime now = LocalDateTime.now();
+        int removedLikes = likeOutboxRepository.insertRemovedEventsForUser(userId, now);
+
+        // Les matches sont supprimés tout de suite (clés étrangères vers users), avec leurs compteurs :
+        // l'outbox ne les retrouvera plus et ne les décomptera pas une seconde fois
+        userRepository.decrementMatchesCountOfMatchedUsers(userId);
+        int removedMatches = matchRepository.deleteByUserId(userId);
+        userRepository.addMatchesCount(List.of(userId), -removedMatches);
+
         likeRepository.deleteByLikerIdOrLikedUserId(userId, userId);
+        swipePassStore.removeUser(userId);
+        if (removedLikes > 0) {
+            afterCommit(likeOutboxDispatcher::dispatchDue);
+        }
+        afterCommit(() -> likeGraphIndex.removeUser(userId, likerIds));
         log.info("Tous les likes de l'utilisateur {} ont été supprimés", userId);
     }
 
+    @Override
+    public OutboxReplayResponse replayOutbox(Long eventId) {
+        log.info("Rejeu de l'outbox des likes (événement : {})", eventId == null ? "tous les échecs" : eventId);
+
+        LocalDateTime now = LocalDateTime.now();
+        int requeued = eventId == null
+                ? likeOutboxRepository.requeueFailed(OutboxStatus.PENDING, OutboxStatus.FAILED, now)
+                : likeOutboxRepository.requeue(eventId, OutboxStatus.PENDING, OutboxStatus.FAILED, now);
+        if (requeued > 0) {
+            afterCommit(likeOutboxDispatcher::dispatchDue);
+        }
+
+        return OutboxReplayResponse.builder()
+                .requeued(requeued)
+                .pending(likeOutboxRepository.countByStatus(OutboxStatus.PENDING))
+                .failed(likeOutboxRepository.countByStatus(OutboxStatus.FAILED))
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LikeGraphConsistencyResponse checkLikeGraphConsistency(boolean repair) {
+        log.info("Vérification de la cohérence de l'index des likes (réparation : {})", repair);
+        return likeGraphIndex.checkConsistency(repair);
+    }
+
     // === MÉTHODES UTILITAIRES PRIVÉES ===
 
     /**
-     * Trouve la date du match entre deux utilisateurs (le plus récent des deux likes)
+     * Exécute une action après le commit de la transaction courante (index mémoire, effets externes)
      */
-    private LocalDateTime findMatchDate(Long userId1, Long userId2) {
-        LocalDateTime date1 = likeRepository.findByLikerIdAndLikedUserId(userId1, userId2)
-                .map(Like::getCreatedAt)
-                .orElse(LocalDateTime.MIN);
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Récupère en une seule requête les IDs des utilisateurs matchés avec userId
+     */
+    private Set<Long> findMatchedUserIds(Long userId) {
+        return new HashSet<>(matchRepository.findMatchedUserIds(userId));
+    }
+
+    /**
+     * Applique la taille par défaut et le plafond configurés à la taille de page demandée
+     */
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    private List<Like> findGivenLikesAfter(Long userId, KeysetCursor cursor, int limit) {
+        return likeRepository.findGivenLikesAfter(userId, cursor.getCreatedAt(), cursor.getId(), limit);
+    }
+
+    private List<Like> findReceivedLikesAfter(Long userId, KeysetCursor cursor, int limit) {
+        return likeRepository.findReceivedLikesAfter(userId, cursor.getCreatedAt(), cursor.getId(), limit);
+    }
 
-        LocalDateTime date2 = likeRepository.findByLikerIdAndLikedUserId(userId2, userId1)
-                .map(Like::getCreatedAt)
-                .orElse(LocalDateTime.MIN);
+    /**
+     * Construit une page de likes à partir de pageSize + 1 lignes (la ligne en trop signale une page suivante).
+     * Les matches sont résolus en une seule requête limitée aux utilisateurs de la page.
+     */
+    private CursorPageResponse<LikeResponse> toLikePage(Long userId, List<Like> likes, int pageSize,
+                                                        Function<Like, User> otherUser) {
+        boolean hasMore = likes.size() > pageSize;
+        List<Like> pageLikes = hasMore ? likes.subList(0, pageSize) : likes;
+
+        Set<Long> otherUserIds = pageLikes.stream()
+                .map(like -> otherUser.apply(like).getId())
+                .collect(Collectors.toSet());
+        Set<Long> matchedUserIds = otherUserIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(matchRepository.findMatchedUserIdsAmong(userId, otherUserIds));
+
+        List<LikeResponse> items = pageLikes.stream()
+                .map(like -> likeMapper.toResponseWithMatch(like,
+                        matchedUserIds.contains(otherUser.apply(like).getId())))
+                .collect(Collectors.toList());
 
-        return date1.isAfter(date2) ? date1 : date2;
+        Like last = pageLikes.isEmpty() ? null : pageLikes.get(pageLikes.size() - 1);
+        String nextCursor = hasMore ? new KeysetCursor(last.getCreatedAt(), last.getId()).encode() : null;
+
+        return CursorPageResponse.<LikeResponse>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Écrit un événement de like dans l'outbox (même transaction que le like) et le soumet au commit
+     */
+    private void publishLikeEvent(OutboxEventType eventType, Long likerId, Long likedUserId, LocalDateTime createdAt) {
+        LikeOutboxEvent event = likeOutboxRepository.save(
+                new LikeOutboxEvent(eventType, likerId, likedUserId, createdAt));
+        afterCommit(() -> likeOutboxDispatcher.dispatch(List.of(event.getId())));
     }
 }
\ No newline at end of file
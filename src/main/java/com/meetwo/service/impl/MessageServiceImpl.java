@@ -2,30 +2,50 @@ package com.meetwo.service.impl;
 
 import com.meetwo.dto.mapper.MessageMapper;
 import com.meetwo.dto.request.CreateMessageRequest;
+import com.meetwo.dto.request.MarkConversationsReadRequest;
 import com.meetwo.dto.request.UpdateMessageRequest;
+import com.meetwo.dto.response.MessagePurgeStatsResponse;
+import com.meetwo.dto.response.MessageSendPipelineStatsResponse;
 import com.meetwo.dto.response.MessageResponse;
 import com.meetwo.dto.response.ConversationResponse;
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.MessageSearchResponse;
 import com.meetwo.dto.response.MessageStatsResponse;
+import com.meetwo.entity.Conversation;
 import com.meetwo.entity.Message;
 import com.meetwo.entity.User;
+import com.meetwo.entity.UserResponseStats;
+import com.meetwo.event.MessageSentEvent;
+import com.meetwo.event.MessagesReadEvent;
 import com.meetwo.exception.message.MessageNotFoundException;
 import com.meetwo.exception.message.InvalidMessageOperationException;
 import com.meetwo.exception.message.MessageNotAllowedException;
 import com.meetwo.exception.user.UserNotFoundException;
+import com.meetwo.job.MessagePurgeJob;
+import com.meetwo.repository.ConversationRepository;
 import com.meetwo.repository.MessageRepository;
 import com.meetwo.repository.UserRepository;
 import com.meetwo.service.MessageService;
 import com.meetwo.service.LikeService;
+import com.meetwo.service.conversation.ConversationSummaryStore;
+import com.meetwo.service.conversation.ResponseTimeTracker;
+import com.meetwo.service.pipeline.MessageSendPipeline;
+import com.meetwo.service.search.MessageFullTextSearch;
+import com.meetwo.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
@@ -37,9 +57,60 @@ public class MessageServiceImpl implements MessageService {
     private final UserRepository userRepository;
     private final MessageMapper messageMapper;
     private final LikeService likeService;
+    private final ConversationRepository conversationRepository;
+    private final ConversationSummaryStore conversationSummaryStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MessageFullTextSearch messageFullTextSearch;
+    private final MessagePurgeJob messagePurgeJob;
+    private final ResponseTimeTracker responseTimeTracker;
+    private final MessageSendPipeline messageSendPipeline;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.message.conversation.default-page-size:20}")
+    private int defaultConversationPageSize;
+
+    @Value("${app.message.conversation.max-page-size:100}")
+    private int maxConversationPageSize;
+
+    @Value("${app.message.history.default-page-size:50}")
+    private int defaultHistoryPageSize;
+
+    @Value("${app.message.history.max-page-size:200}")
+    private int maxHistoryPageSize;
+
+    @Value("${app.message.search.min-term-length:3}")
+    private int searchMinTermLength;
+
+    @Value("${app.message.search.max-results:100}")
+    private int searchMaxResults;
+
+    @Value("${app.message.search.default-page-size:20}")
+    private int searchDefaultPageSize;
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public MessageResponse sendMessage(CreateMessageRequest request) {
+        // Pas de transaction ouverte pendant l'attente du lot : la connexion reste disponible pour le pipeline
+        if (messageSendPipeline.isEnabled()) {
+            return messageSendPipeline.send(request);
+        }
+        return transactionTemplate.execute(status -> sendMessageNow(request));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<MessageResponse> sendMessageAsync(CreateMessageRequest request) {
+        if (messageSendPipeline.isEnabled()) {
+            return messageSendPipeline.submit(request);
+        }
+        try {
+            return CompletableFuture.completedFuture(transactionTemplate.execute(status -> sendMessageNow(request)));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private MessageResponse sendMessageNow(CreateMessageRequest request) {
         log.info("Envoi d'un message de l'utilisateur {} vers l'utilisateur {}",
                 request.getSenderId(), request.getReceiverId());
 
@@ -62,14 +133,19 @@ public class MessageServiceImpl implements MessageService {
         // Créer le message
         Message message = messageMapper.toEntity(request, sender, receiver);
         Message savedMessage = messageRepository.save(message);
+        conversationSummaryStore.onMessageSent(savedMessage);
 
         log.info("Message créé avec l'ID {} de {} vers {}",
                 savedMessage.getId(), request.getSenderId(), request.getReceiverId());
 
-        return messageMapper.toResponse(savedMessage);
+        MessageResponse response = messageMapper.toResponse(savedMessage);
+        // Livraison en temps réel après commit
+        eventPublisher.publishEvent(new MessageSentEvent(response));
+        return response;
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public MessageResponse sendMessage(Long senderId, Long receiverId, String content) {
         CreateMessageRequest request = new CreateMessageRequest();
         request.setSenderId(senderId);
@@ -104,20 +180,61 @@ public class MessageServiceImpl implements MessageService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<MessageResponse> getConversation(Long userId1, Long userId2) {
-        log.debug("Récupération de la conversation entre {} et {}", userId1, userId2);
+    public CursorPageResponse<MessageResponse> getConversation(Long userId, Long otherUserId,
+                                                               String before, String after, Integer size) {
+        log.debug("Récupération d'une page de la conversation entre {} et {}", userId, otherUserId);
 
-        if (!userRepository.existsById(userId1)) {
-            throw new UserNotFoundException(userId1);
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Les curseurs before et after ne peuvent pas être utilisés ensemble");
         }
-        if (!userRepository.existsById(userId2)) {
-            throw new UserNotFoundException(userId2);
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException(userId);
+        }
+        if (!userRepository.existsById(otherUserId)) {
+            throw new UserNotFoundException(otherUserId);
+        }
+
+        int pageSize = resolveHistoryPageSize(size);
+        String pairKey = Conversation.pairKey(userId, otherUserId);
+        List<Message> messages;
+        if (after != null) {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            messages = messageRepository.findHistoryAfter(userId, pairKey,
+                    cursor.getCreatedAt(), cursor.getId(), pageSize + 1);
+        } else if (before != null) {
+            KeysetCursor cursor = KeysetCursor.decode(before);
+            messages = messageRepository.findHistoryBefore(userId, pairKey,
+                    cursor.getCreatedAt(), cursor.getId(), pageSize + 1);
+        } else {
+            messages = messageRepository.findHistoryLatest(userId, pairKey, pageSize + 1);
+        }
+
+        boolean hasMore = messages.size() > pageSize;
+        List<Message> pageMessages = new ArrayList<>(hasMore ? messages.subList(0, pageSize) : messages);
+        if (pageMessages.isEmpty()) {
+            return CursorPageResponse.<MessageResponse>builder()
+                    .items(List.of())
+                    .previousCursor(after)
+                    .hasMore(false)
+                    .build();
         }
 
-        return messageRepository.findConversationBetweenUsers(userId1, userId2).stream()
-                .filter(message -> message.isVisibleForUser(userId1) || message.isVisibleForUser(userId2))
-                .map(messageMapper::toResponse)
-                .collect(Collectors.toList());
+        // Bornes de la page dans le sens de parcours : la dernière ligne lue continue le parcours
+        // (toujours renvoyée vers les plus récents, de nouveaux messages pouvant arriver),
+        // la première permet de repartir dans l'autre sens
+        boolean keepCursor = hasMore || after != null;
+        Message first = pageMessages.get(0);
+        Message last = pageMessages.get(pageMessages.size() - 1);
+        if (after == null) {
+            Collections.reverse(pageMessages);
+        }
+
+        return CursorPageResponse.<MessageResponse>builder()
+                .items(messageMapper.toResponses(pageMessages))
+                .nextCursor(keepCursor ? new KeysetCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .previousCursor(new KeysetCursor(first.getCreatedAt(), first.getId()).encode())
+                .hasMore(hasMore)
+                .build();
     }
 
     @Override
@@ -125,55 +242,38 @@ public class MessageServiceImpl implements MessageService {
     public List<MessageResponse> getRecentMessagesInConversation(Long userId1, Long userId2, int limit) {
         log.debug("Récupération des {} derniers messages entre {} et {}", limit, userId1, userId2);
 
-        return messageRepository.findRecentMessagesBetweenUsers(userId1, userId2, limit).stream()
-                .map(messageMapper::toResponse)
-                .collect(Collectors.toList());
+        return messageMapper.toResponses(messageRepository.findRecentMessagesBetweenUsers(userId1,
+                Conversation.pairKey(userId1, userId2), limit));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ConversationResponse> getUserConversations(Long userId) {
-        log.debug("Récupération des conversations de l'utilisateur {}", userId);
+    public CursorPageResponse<ConversationResponse> getUserConversations(Long userId, String cursor, Integer size) {
+        log.debug("Récupération d'une page des conversations de l'utilisateur {}", userId);
 
         if (!userRepository.existsById(userId)) {
             throw new UserNotFoundException(userId);
         }
 
-        List<Long> conversationPartnerIds = messageRepository.findConversationPartnerIds(userId);
-        List<ConversationResponse> conversations = new ArrayList<>();
-
-        for (Long partnerId : conversationPartnerIds) {
-            User partner = userRepository.findById(partnerId)
-                    .orElse(null);
-
-            if (partner != null) {
-                MessageResponse lastMessage = messageRepository
-                        .findLastMessageBetweenUsers(userId, partnerId)
-                        .map(messageMapper::toResponse)
-                        .orElse(null);
-
-                long unreadCount = messageRepository.countUnreadMessagesInConversation(userId, partnerId);
-
-                List<MessageResponse> recentMessages = getRecentMessagesInConversation(userId, partnerId, 5);
-
-                ConversationResponse conversation = messageMapper.toConversationResponse(
-                        partner, lastMessage, unreadCount, recentMessages);
-
-                conversations.add(conversation);
-            }
+        int pageSize = resolveConversationPageSize(size);
+        List<Conversation> conversations;
+        if (cursor == null) {
+            conversations = conversationRepository.findInboxFirstPage(userId, pageSize + 1);
+        } else {
+            KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+            conversations = conversationRepository.findInboxAfter(userId, keysetCursor.getCreatedAt(),
+                    keysetCursor.getId(), pageSize + 1);
         }
 
-        // Trier par date du dernier message
-        conversations.sort((c1, c2) -> {
-            LocalDateTime date1 = c1.getLastMessageAt();
-            LocalDateTime date2 = c2.getLastMessageAt();
-            if (date1 == null && date2 == null) return 0;
-            if (date1 == null) return 1;
-            if (date2 == null) return -1;
-            return date2.compareTo(date1);
-        });
-
-        return conversations;
+        boolean hasMore = conversations.size() > pageSize;
+        List<Conversation> pageConversations = hasMore ? conversations.subList(0, pageSize) : conversations;
+        Conversation last = pageConversations.isEmpty() ? null : pageConversations.get(pageConversations.size() - 1);
+
+        return CursorPageResponse.<ConversationResponse>builder()
+                .items(messageMapper.toConversationResponses(userId, pageConversations))
+                .nextCursor(hasMore ? new KeysetCursor(last.getLastMessageAt(), last.getId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
     }
 
     @Override
@@ -183,18 +283,41 @@ public class MessageServiceImpl implements MessageService {
         Message message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new MessageNotFoundException(messageId));
 
-        message.markAsRead();
-        messageRepository.save(message);
+        // Une seule écriture : le watermark de lecture du destinataire avance jusqu'à ce message
+        LocalDateTime readAt = LocalDateTime.now();
+        if (conversationSummaryStore.onMessageRead(message, readAt)) {
+            eventPublisher.publishEvent(new MessagesReadEvent(message.getReceiver().getId(),
+                    message.getSender().getId(), messageId, readAt));
+        }
     }
 
     @Override
     public void markConversationAsRead(Long receiverId, Long senderId) {
         log.info("Marquage de la conversation comme lue pour {} (messages de {})", receiverId, senderId);
 
-        messageRepository.markConversationAsRead(receiverId, senderId, LocalDateTime.now());
+        markConversationsAsRead(receiverId, List.of(senderId));
         log.info("Conversation marquée comme lue");
     }
 
+    @Override
+    public int markConversationsAsRead(MarkConversationsReadRequest request) {
+        log.info("Marquage en lot des conversations comme lues pour l'utilisateur {}", request.getUserId());
+
+        if (!userRepository.existsById(request.getUserId())) {
+            throw new UserNotFoundException(request.getUserId());
+        }
+        return markConversationsAsRead(request.getUserId(), request.getOtherUserIds());
+    }
+
+    private int markConversationsAsRead(Long userId, List<Long> otherUserIds) {
+        LocalDateTime readAt = LocalDateTime.now();
+        List<Long> readPartnerIds = conversationSummaryStore.onConversationsRead(userId, otherUserIds, readAt);
+        for (Long partnerId : readPartnerIds) {
+            eventPublisher.publishEvent(new MessagesReadEvent(userId, partnerId, null, readAt));
+        }
+        return readPartnerIds.size();
+    }
+
     @Override
     public void deleteMessage(Long messageId, Long userId) {
         log.info("Suppression du message {} par l'utilisateur {}", messageId, userId);
@@ -202,22 +325,27 @@ public class MessageServiceImpl implements MessageService {
         Message message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new MessageNotFoundException(messageId));
 
-        // Marquer comme supprimé du côté approprié
+        // Marquer comme supprimé du côté approprié (mise à jour conditionnelle : une seconde suppression,
+        // même concurrente, ne change rien et ne décompte pas deux fois le message non lu)
+        int marked;
         if (message.getSender().getId().equals(userId)) {
-            message.setIsDeletedBySender(true);
+            marked = messageRepository.markDeletedBySender(messageId);
         } else if (message.getReceiver().getId().equals(userId)) {
-            message.setIsDeletedByReceiver(true);
+            marked = messageRepository.markDeletedByReceiver(messageId);
         } else {
             throw new InvalidMessageOperationException("L'utilisateur n'est pas autorisé à supprimer ce message");
         }
-
-        messageRepository.save(message);
+        if (marked == 0) {
+            log.debug("Message {} déjà supprimé par l'utilisateur {}", messageId, userId);
+            return;
+        }
 
         // Si le message est supprimé des deux côtés, le supprimer physiquement
-        if (message.getIsDeletedBySender() && message.getIsDeletedByReceiver()) {
-            messageRepository.delete(message);
+        boolean physicallyDeleted = messageRepository.deleteIfDeletedOnBothSides(messageId) > 0;
+        if (physicallyDeleted) {
             log.info("Message {} supprimé physiquement", messageId);
         }
+        conversationSummaryStore.onMessageDeleted(message, userId, physicallyDeleted);
     }
 
     @Override
@@ -230,6 +358,7 @@ public class MessageServiceImpl implements MessageService {
 
         messageRepository.markMessagesAsDeletedBySender(userId, otherUserId);
         messageRepository.markMessagesAsDeletedByReceiver(userId, otherUserId);
+        conversationSummaryStore.onConversationDeleted(userId, otherUserId);
 
         log.info("Conversation supprimée pour l'utilisateur {}", userId);
     }
@@ -237,13 +366,13 @@ public class MessageServiceImpl implements MessageService {
     @Override
     @Transactional(readOnly = true)
     public long countUnreadMessages(Long userId) {
-        return messageRepository.countUnreadMessagesByReceiver(userId);
+        return conversationSummaryStore.countUnread(userId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public long countUnreadMessagesInConversation(Long receiverId, Long senderId) {
-        return messageRepository.countUnreadMessagesInConversation(receiverId, senderId);
+        return conversationSummaryStore.countUnread(receiverId, senderId);
     }
 
     @Override
@@ -257,14 +386,14 @@ public class MessageServiceImpl implements MessageService {
 
         long messagesSent = messageRepository.countBySenderIdAndIsDeletedBySenderFalse(userId);
         long messagesReceived = messageRepository.countByReceiverIdAndIsDeletedByReceiverFalse(userId);
-        long unreadMessages = messageRepository.countUnreadMessagesByReceiver(userId);
+        long unreadMessages = conversationSummaryStore.countUnread(userId);
         long activeConversations = messageRepository.countActiveConversationsByUser(userId);
 
-        // Calcul du temps de réponse moyen (simplifié)
-        double averageResponseTime = calculateAverageResponseTime(userId);
+        // Temps de réponse agrégés au fil de l'eau (lecture d'une seule ligne)
+        UserResponseStats responseStats = responseTimeTracker.getStats(userId).orElse(null);
 
         return messageMapper.toStatsResponse(userId, messagesSent, messagesReceived,
-                unreadMessages, activeConversations, averageResponseTime);
+                unreadMessages, activeConversations, responseStats);
     }
 
     @Override
@@ -278,29 +407,54 @@ public class MessageServiceImpl implements MessageService {
 
         LocalDateTime since = LocalDateTime.now().minusHours(hours);
 
-        return messageRepository.findRecentMessagesForUser(userId, since).stream()
-                .map(messageMapper::toResponse)
-                .collect(Collectors.toList());
+        return messageMapper.toResponses(messageRepository.findRecentMessagesForUser(userId, since));
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean hasConversation(Long userId1, Long userId2) {
-        return messageRepository.existsConversationBetweenUsers(userId1, userId2);
+        return messageRepository.existsByPairKey(Conversation.pairKey(userId1, userId2));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<MessageResponse> searchMessages(Long userId, String searchTerm) {
-        log.debug("Recherche de messages pour l'utilisateur {} avec le terme '{}'", userId, searchTerm);
+    public MessageSearchResponse searchMessages(Long userId, String searchTerm, int page, Integer size) {
+        log.debug("Recherche de messages pour l'utilisateur {} avec le terme '{}' (page {})", userId, searchTerm, page);
 
+        String term = searchTerm == null ? "" : searchTerm.trim();
+        if (term.length() < searchMinTermLength) {
+            throw new InvalidMessageOperationException(
+                    "Le terme de recherche doit contenir au moins " + searchMinTermLength + " caractères");
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("Le numéro de page doit être positif");
+        }
         if (!userRepository.existsById(userId)) {
             throw new UserNotFoundException(userId);
         }
 
-        return messageRepository.searchMessagesByContent(userId, searchTerm).stream()
-                .map(messageMapper::toResponse)
-                .collect(Collectors.toList());
+        // Les résultats au-delà de max-results ne sont jamais servis : l'OFFSET reste borné
+        int pageSize = resolvePageSize(size, searchDefaultPageSize, searchMaxResults);
+        long offset = (long) page * pageSize;
+        int limit = (int) Math.max(0, Math.min(pageSize, searchMaxResults - offset));
+        boolean ranked = messageFullTextSearch.isAvailable();
+        List<Message> messages = List.of();
+        if (limit > 0) {
+            messages = ranked
+                    ? messageRepository.searchMessagesFullText(userId, term, limit + 1, (int) offset)
+                    : messageRepository.searchMessagesByContent(userId, term, limit + 1, (int) offset);
+        }
+
+        // La ligne en trop ne compte que si elle reste sous le plafond de résultats
+        boolean hasMore = messages.size() > limit && offset + limit < searchMaxResults;
+        return MessageSearchResponse.builder()
+                .searchTerm(term)
+                .page(page)
+                .size(pageSize)
+                .hasMore(hasMore)
+                .ranked(ranked)
+                .results(messageMapper.toResponses(hasMore ? messages.subList(0, limit) : messages))
+                .build();
     }
 
     @Override
@@ -312,6 +466,8 @@ public class MessageServiceImpl implements MessageService {
         }
 
         messageRepository.deleteBySenderIdOrReceiverId(userId, userId);
+        conversationSummaryStore.removeUser(userId);
+        responseTimeTracker.removeUser(userId);
         log.info("Tous les messages de l'utilisateur {} ont été supprimés", userId);
     }
 
@@ -322,39 +478,35 @@ public class MessageServiceImpl implements MessageService {
         return likeService.isMatch(senderId, receiverId);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public MessagePurgeStatsResponse getPurgeStats() {
+        return messagePurgeJob.getStats();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public MessageSendPipelineStatsResponse getSendPipelineStats() {
+        return messageSendPipeline.getStats();
+    }
+
     // === MÉTHODES UTILITAIRES PRIVÉES ===
 
     /**
-     * Calcule le temps de réponse moyen en minutes (méthode simplifiée)
+     * Applique la taille par défaut et le plafond configurés à la taille de page demandée
      */
-    private double calculateAverageResponseTime(Long userId) {
-        // Cette implémentation est simplifiée
-        // Dans un vrai système, on analyserait les timestamps des conversations
-        // pour calculer le temps entre la réception d'un message et la réponse
-
-        List<Message> recentSentMessages = messageRepository
-                .findBySenderIdAndIsDeletedBySenderFalseOrderByCreatedAtDesc(userId);
-
-        if (recentSentMessages.size() < 2) {
-            return 0.0;
-        }
-
-        long totalMinutes = 0;
-        int responseCount = 0;
+    private int resolveConversationPageSize(Integer size) {
+        return resolvePageSize(size, defaultConversationPageSize, maxConversationPageSize);
+    }
 
-        for (int i = 0; i < Math.min(recentSentMessages.size() - 1, 10); i++) {
-            Message current = recentSentMessages.get(i);
-            Message next = recentSentMessages.get(i + 1);
+    private int resolveHistoryPageSize(Integer size) {
+        return resolvePageSize(size, defaultHistoryPageSize, maxHistoryPageSize);
+    }
 
-            if (current.getReceiver().getId().equals(next.getReceiver().getId())) {
-                long minutes = ChronoUnit.MINUTES.between(next.getCreatedAt(), current.getCreatedAt());
-                if (minutes > 0 && minutes < 1440) { // Moins de 24 heures
-                    totalMinutes += minutes;
-                    responseCount++;
-                }
-            }
+    private int resolvePageSize(Integer size, int defaultSize, int maxSize) {
+        if (size == null || size <= 0) {
+            return defaultSize;
         }
-
-        return responseCount > 0 ? (double) totalMinutes / responseCount : 0.0;
+        return Math.min(size, maxSize);
     }
 }
\ No newline at end of file
@@ -25,7 +25,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -439,4 +441,15 @@ public class PhotoServiceImpl implements PhotoService {
                 .map(Photo::getUrl)
                 .orElse(null);
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, String> getMainPhotoUrls(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return photoRepository.findMainPhotosByUserIds(userIds).stream()
+                .collect(Collectors.toMap(photo -> photo.getUser().getId(), Photo::getUrl,
+                        (first, second) -> first));
+    }
+}
@@ -3,24 +3,49 @@ package com.meetwo.service.impl;
 import com.meetwo.dto.mapper.UserMapper;
 import com.meetwo.dto.request.CreateUserRequest;
 import com.meetwo.dto.request.UpdateUserRequest;
+import com.meetwo.dto.request.UserSearchRequest;
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.NearbyUserResponse;
 import com.meetwo.dto.response.UserResponse;
 import com.meetwo.entity.User;
 import com.meetwo.enums.Gender;
-import com.meetwo.enums.Interest;
-import com.meetwo.enums.RelationshipType;
+import com.meetwo.enums.UserSearchSort;
+import com.meetwo.exception.user.InvalidUserDataException;
 import com.meetwo.exception.user.UserAlreadyExistsException;
 import com.meetwo.exception.user.UserNotFoundException;
 import com.meetwo.repository.UserRepository;
+import com.meetwo.repository.UserSpecifications;
 import com.meetwo.service.UserService;
+import com.meetwo.service.discovery.DiscoveryFeed;
+import com.meetwo.service.discovery.DiscoveryFilter;
+import com.meetwo.service.swipe.SwipePassStore;
+import com.meetwo.util.AgeRanges;
+import com.meetwo.util.DistanceCursor;
+import com.meetwo.util.GeoHash;
+import com.meetwo.util.InterestMasks;
+import com.meetwo.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +56,40 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final DiscoveryFeed discoveryFeed;
+    private final SwipePassStore swipePassStore;
+
+    // Au plus 3 x 3 cellules lues par recherche de proximité
+    private static final int NEARBY_MAX_CELLS = 9;
+    // Au plus 10 lots lus par page de proximité, même si la page n'est pas remplie
+    private static final int NEARBY_MAX_BATCHES = 10;
+
+    @Value("${app.discovery.page.default-size:20}")
+    private int discoveryDefaultPageSize;
+
+    @Value("${app.discovery.page.max-size:50}")
+    private int discoveryMaxPageSize;
+
+    @Value("${app.user.search.default-size:20}")
+    private int searchDefaultPageSize;
+
+    @Value("${app.user.search.max-size:100}")
+    private int searchMaxPageSize;
+
+    @Value("${app.discovery.nearby.default-radius-km:10}")
+    private double nearbyDefaultRadiusKm;
+
+    @Value("${app.discovery.nearby.max-radius-km:100}")
+    private double nearbyMaxRadiusKm;
+
+    @Value("${app.user.similar.default-size:20}")
+    private int similarDefaultSize;
+
+    @Value("${app.user.similar.max-size:100}")
+    private int similarMaxSize;
+
+    @Value("${app.user.similar.scan-limit:100000}")
+    private int similarScanLimit;
 
     @Override
     public UserResponse createUser(CreateUserRequest request) {
@@ -76,10 +135,46 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(userMapper::toResponse)
-                .collect(Collectors.toList());
+    public CursorPageResponse<UserResponse> searchUsers(UserSearchRequest criteria, String cursor, Integer size) {
+        if (criteria.getMinAge() != null && criteria.getMaxAge() != null && criteria.getMinAge() > criteria.getMaxAge()) {
+            throw new IllegalArgumentException("L'âge minimum doit être inférieur ou égal à l'âge maximum");
+        }
+
+        // Taille de page toujours bornée : aucune recherche ne renvoie la table entière
+        int pageSize = size == null || size <= 0 ? searchDefaultPageSize : Math.min(size, searchMaxPageSize);
+        UserSearchSort sort = criteria.getSort() == null ? UserSearchSort.NEWEST : criteria.getSort();
+        Sort.Direction direction = sort == UserSearchSort.OLDEST ? Sort.Direction.ASC : Sort.Direction.DESC;
+        LocalDate today = LocalDate.now();
+
+        Specification<User> specification = Specification.allOf(
+                UserSpecifications.enabled(criteria.getEnabled()),
+                UserSpecifications.gender(criteria.getGender()),
+                UserSpecifications.relationshipType(criteria.getRelationshipType()),
+                UserSpecifications.city(criteria.getCity()),
+                UserSpecifications.bornBetween(AgeRanges.earliestBirthDate(criteria.getMaxAge(), today),
+                        AgeRanges.latestBirthDate(criteria.getMinAge(), today)),
+                UserSpecifications.anyInterest(InterestMasks.of(criteria.getInterests())),
+                UserSpecifications.hasBiography(criteria.getHasBiography()),
+                UserSpecifications.after(cursor == null ? null : KeysetCursor.decode(cursor), sort));
+
+        // Une ligne de plus que la page pour savoir s'il reste des résultats
+        List<User> users = userRepository.findBy(specification, query -> query
+                .sortBy(Sort.by(direction, "createdAt", "id"))
+                .limit(pageSize + 1)
+                .all());
+        boolean hasMore = users.size() > pageSize;
+        List<User> page = hasMore ? users.subList(0, pageSize) : users;
+        if (!page.isEmpty()) {
+            // Charge les intérêts de toute la page en une requête (au lieu d'une par profil)
+            userRepository.findAllWithInterestsByIdIn(page.stream().map(User::getId).collect(Collectors.toList()));
+        }
+
+        User last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return CursorPageResponse.<UserResponse>builder()
+                .items(page.stream().map(userMapper::toResponse).collect(Collectors.toList()))
+                .nextCursor(hasMore ? new KeysetCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
     }
 
     @Override
@@ -100,6 +195,7 @@ public class UserServiceImpl implements UserService {
             throw new UserNotFoundException(id);
         }
         userRepository.deleteById(id);
+        discoveryFeed.evictUser(id);
     }
 
     @Override
@@ -135,75 +231,147 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponse> getUsersByCity(String city) {
-        return userRepository.findByCityIgnoreCaseAndEnabledTrue(city).stream()
-                .map(userMapper::toResponse)
-                .collect(Collectors.toList());
-    }
+    public List<UserResponse> findUsersWithSimilarInterests(Long userId, String city, Integer size) {
+        long mask = userRepository.findInterestsMaskById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+        if (mask == 0L) {
+            return List.of();
+        }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<UserResponse> getUsersByGender(Gender gender) {
-        return userRepository.findByGenderAndEnabledTrue(gender).stream()
-                .map(userMapper::toResponse)
+        int limit = size == null || size <= 0 ? similarDefaultSize : Math.min(size, similarMaxSize);
+        String normalizedCity = city == null || city.isBlank() ? null : city.trim().toLowerCase(Locale.ROOT);
+        List<Object[]> rows = userRepository.findInterestMasksOverlapping(userId, mask, normalizedCity, similarScanLimit);
+
+        // Un seul parcours (ID, masque) sans jointure ; les limit meilleurs indices de Jaccard sont gardés
+        // dans un tas borné (le moins bon en tête), puis seuls ces profils sont chargés
+        Comparator<Object[]> ranking = Comparator.comparingDouble((Object[] row) -> InterestMasks.jaccard(mask, (Long) row[1]))
+                .thenComparing(Comparator.comparingLong((Object[] row) -> (Long) row[0]).reversed());
+        PriorityQueue<Object[]> best = new PriorityQueue<>(limit + 1, ranking);
+        for (Object[] row : rows) {
+            best.add(row);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Long> rankedIds = best.stream()
+                .sorted(ranking.reversed())
+                .map(row -> (Long) row[0])
                 .collect(Collectors.toList());
-    }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<UserResponse> getUsersByRelationshipType(RelationshipType relationshipType) {
-        return userRepository.findBySeekingRelationshipTypeAndEnabledTrue(relationshipType).stream()
+        Map<Long, User> usersById = userRepository.findAllWithInterestsByIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
                 .map(userMapper::toResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponse> getUsersByInterests(Set<Interest> interests) {
-        return userRepository.findByInterestsIn(interests).stream()
-                .map(userMapper::toResponse)
-                .collect(Collectors.toList());
-    }
+    public CursorPageResponse<UserResponse> getDiscoveryCandidates(Long userId, DiscoveryFilter filter,
+                                                                   String cursor, Integer size) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException(userId);
+        }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<UserResponse> getUsersByAgeRange(int minAge, int maxAge) {
-        return userRepository.findByAgeBetween(minAge, maxAge).stream()
-                .map(userMapper::toResponse)
-                .collect(Collectors.toList());
-    }
+        int pageSize = size == null || size <= 0 ? discoveryDefaultPageSize : Math.min(size, discoveryMaxPageSize);
+        DiscoveryFeed.Page page = discoveryFeed.nextPage(userId, filter, cursor, pageSize);
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<UserResponse> findPotentialMatches(Gender gender, RelationshipType relationshipType,
-                                                   String city, Integer minAge, Integer maxAge) {
-        return userRepository.findPotentialMatches(gender, relationshipType, city, minAge, maxAge).stream()
+        // Chargement des profils de la page en une requête, puis remise dans l'ordre du classement
+        Map<Long, User> usersById = userRepository.findAllWithInterestsByIdIn(page.getUserIds()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserResponse> items = page.getUserIds().stream()
+                .map(usersById::get)
+                .filter(user -> user != null && user.isEnabled())
                 .map(userMapper::toResponse)
                 .collect(Collectors.toList());
-    }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<UserResponse> findUsersWithSimilarInterests(Long userId) {
-        return userRepository.findUsersWithSimilarInterests(userId).stream()
-                .map(userMapper::toResponse)
-                .collect(Collectors.toList());
+        return CursorPageResponse.<UserResponse>builder()
+                .items(items)
+                .nextCursor(page.getNextCursor())
+                .hasMore(page.isHasMore())
+                .build();
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponse> getNewestUsers() {
-        return userRepository.findNewestUsers().stream()
-                .map(userMapper::toResponse)
-                .collect(Collectors.toList());
-    }
+    public CursorPageResponse<NearbyUserResponse> findNearbyUsers(Long userId, Double radiusKm, DiscoveryFilter filter,
+                                                                  String cursor, Integer size) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+        if (!user.hasLocation()) {
+            throw new InvalidUserDataException("L'utilisateur " + userId + " n'a pas de position");
+        }
+        double radius = radiusKm == null || radiusKm <= 0 ? nearbyDefaultRadiusKm : Math.min(radiusKm, nearbyMaxRadiusKm);
+        int pageSize = size == null || size <= 0 ? discoveryDefaultPageSize : Math.min(size, discoveryMaxPageSize);
+        double latitude = user.getLatitude();
+        double longitude = user.getLongitude();
+
+        // Seules les cellules qui recouvrent le cercle sont lues, à la précision la plus fine possible
+        int precision = GeoHash.precisionFor(latitude, radius, NEARBY_MAX_CELLS);
+        Set<String> cells = GeoHash.coveringCells(latitude, longitude, radius, precision);
+        double longitudeScale = GeoHash.longitudeScale(latitude);
+        Roaring64NavigableMap passedUserIds = swipePassStore.getPassedUserIds(userId);
+        LocalDate today = LocalDate.now();
+        Specification<User> specification = Specification.allOf(
+                UserSpecifications.inGeohashCells(cells, precision),
+                UserSpecifications.enabled(true),
+                UserSpecifications.notUser(userId),
+                UserSpecifications.gender(filter.gender()),
+                UserSpecifications.relationshipType(filter.relationshipType()),
+                UserSpecifications.bornBetween(AgeRanges.earliestBirthDate(filter.maxAge(), today),
+                        AgeRanges.latestBirthDate(filter.minAge(), today)),
+                UserSpecifications.notLikedBy(userId));
+
+        // Lecture par lots du plus proche au plus éloigné : les profils passés (bitmap en mémoire) et ceux des coins
+        // des cellules hors du cercle sont sautés, et la lecture continue jusqu'à remplir la page
+        int batchSize = pageSize * 2;
+        DistanceCursor position = cursor == null ? null : DistanceCursor.decode(cursor);
+        List<User> page = new ArrayList<>(pageSize);
+        Map<Long, Double> distances = new LinkedHashMap<>();
+        boolean hasMore = false;
+        for (int batch = 0; !hasMore; batch++) {
+            if (batch == NEARBY_MAX_BATCHES) {
+                // Trop de profils écartés d'affilée : page courte, reprise après le dernier profil lu
+                hasMore = true;
+                break;
+            }
+            List<User> candidates = userRepository.findBy(
+                    specification.and(UserSpecifications.nearestFirst(latitude, longitude, longitudeScale, position)),
+                    query -> query.limit(batchSize).all());
+            for (User candidate : candidates) {
+                double distance = GeoHash.distanceKm(latitude, longitude, candidate.getLatitude(), candidate.getLongitude());
+                boolean eligible = distance <= radius && !passedUserIds.contains(candidate.getId());
+                if (eligible && page.size() == pageSize) {
+                    // Un profil retenu de plus que la page : il reste des résultats, relus à la page suivante
+                    hasMore = true;
+                    break;
+                }
+                position = new DistanceCursor(GeoHash.approximateDistanceKey(latitude, longitude, longitudeScale,
+                        candidate.getLatitude(), candidate.getLongitude()), candidate.getId());
+                if (eligible) {
+                    page.add(candidate);
+                    distances.put(candidate.getId(), distance);
+                }
+            }
+            if (candidates.size() < batchSize) {
+                break;
+            }
+        }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<UserResponse> getUsersWithBiography() {
-        return userRepository.findByBiographyIsNotNullAndEnabledTrueOrderByUpdatedAtDesc().stream()
-                .map(userMapper::toResponse)
-                .collect(Collectors.toList());
+        if (!page.isEmpty()) {
+            // Charge les intérêts de toute la page en une requête (au lieu d'une par profil)
+            userRepository.findAllWithInterestsByIdIn(distances.keySet());
+        }
+        return CursorPageResponse.<NearbyUserResponse>builder()
+                .items(page.stream()
+                        .map(nearby -> new NearbyUserResponse(userMapper.toResponse(nearby),
+                                Math.round(distances.get(nearby.getId()) * 10) / 10.0))
+                        .collect(Collectors.toList()))
+                .nextCursor(hasMore ? position.encode() : null)
+                .hasMore(hasMore)
+                .build();
     }
 
     @Override
@@ -218,11 +386,4 @@ public class UserServiceImpl implements UserService {
         return userRepository.countByCityIgnoreCaseAndEnabledTrue(city);
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<UserResponse> getUsersExcluding(List<Long> excludedIds) {
-        return userRepository.findUsersExcluding(excludedIds).stream()
-                .map(userMapper::toResponse)
-                .collect(Collectors.toList());
-    }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.meetwo.service.leaderboard;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.meetwo.enums.Gender;
+import com.meetwo.repository.UserRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Instantané du classement des utilisateurs les plus likés, recalculé à partir du compteur users.likes_received
+ * (maintenu par l'outbox des likes, réconcilié chaque nuit) à chaque passage de LikeLeaderboardJob. Les classements global et par genre sont calculés
+ * à chaque rafraîchissement, ceux par ville à la première demande puis conservés jusqu'au suivant
+ * (au plus app.like.leaderboard.city-max-entries combinaisons ville/genre, les moins utilisées étant évincées).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeLeaderboard {
+
+    private final UserRepository userRepository;
+
+    @Value("${app.like.leaderboard.size:100}")
+    private int size;
+
+    @Value("${app.like.leaderboard.city-max-entries:1000}")
+    private long cityMaxEntries;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Recalcule l'instantané à partir des compteurs (appelé périodiquement par le job)
+     */
+    public void refresh() {
+        List<Entry> global = loadTop(null, null);
+        Map<Gender, List<Entry>> byGender = new EnumMap<>(Gender.class);
+        for (Gender gender : Gender.values()) {
+            byGender.put(gender, loadTop(null, gender));
+        }
+        Cache<String, List<Entry>> byCity = Caffeine.newBuilder()
+                .maximumSize(cityMaxEntries)
+                .build();
+        snapshot = new Snapshot(global, byGender, byCity);
+        log.debug("Classement des utilisateurs les plus likés rafraîchi ({} entrées)", global.size());
+    }
+
+    /**
+     * Récupère les premiers du classement, éventuellement segmenté par ville et/ou genre
+     */
+    public List<Entry> getTop(int limit, String city, Gender gender) {
+        int effectiveLimit = Math.max(0, Math.min(limit, size));
+        Snapshot current = snapshot;
+
+        List<Entry> entries;
+        if (current == null) {
+            // Premier rafraîchissement pas encore effectué : lecture directe des compteurs
+            entries = loadTop(city, gender);
+        } else if (city == null || city.isBlank()) {
+            entries = gender == null ? current.global : current.byGender.get(gender);
+        } else {
+            String key = city.trim().toLowerCase(Locale.ROOT) + "|" + (gender == null ? "" : gender.name());
+            entries = current.byCity.get(key, k -> loadTop(city, gender));
+        }
+        return entries.subList(0, Math.min(effectiveLimit, entries.size()));
+    }
+
+    private List<Entry> loadTop(String city, Gender gender) {
+        String normalizedCity = city == null || city.isBlank() ? null : city.trim().toLowerCase(Locale.ROOT);
+        return userRepository.findMostLikedUsers(normalizedCity, gender, size).stream()
+                .map(row -> new Entry((Long) row[0], (Long) row[1]))
+                .toList();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final Long userId;
+        private final long likesReceived;
+    }
+
+    @AllArgsConstructor
+    private static class Snapshot {
+        private final List<Entry> global;
+        private final Map<Gender, List<Entry>> byGender;
+        private final Cache<String, List<Entry>> byCity; // Clé : "ville|genre"
+    }
+}
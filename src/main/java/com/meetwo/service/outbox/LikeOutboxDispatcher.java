@@ -0,0 +1,124 @@
+package com.meetwo.service.outbox;
+
+import com.meetwo.enums.OutboxStatus;
+import com.meetwo.repository.LikeOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Distribue les événements de l'outbox des likes sur un pool de threads borné.
+ * Les événements sont soumis dès le commit du like, et une scrutation périodique reprend
+ * ceux qui n'ont pas pu l'être (file pleine, redémarrage) ainsi que les nouveaux essais planifiés.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeOutboxDispatcher {
+
+    private final LikeOutboxRepository likeOutboxRepository;
+    private final LikeOutboxProcessor likeOutboxProcessor;
+
+    @Value("${app.like.outbox.threads:4}")
+    private int threads;
+
+    @Value("${app.like.outbox.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.like.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.like.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "like-outbox-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Soumet des événements au pool ; ceux refusés (file pleine) seront repris par la scrutation
+     */
+    public void dispatch(Collection<Long> eventIds) {
+        for (Long eventId : eventIds) {
+            if (!inFlight.add(eventId)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> run(eventId));
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(eventId);
+                log.debug("File de l'outbox pleine, événement {} laissé à la scrutation", eventId);
+            }
+        }
+    }
+
+    /**
+     * Soumet les événements en attente dont l'échéance est passée
+     */
+    @Scheduled(fixedDelayString = "${app.like.outbox.poll-interval:5s}")
+    public void dispatchDue() {
+        List<Long> dueIds = likeOutboxRepository.findDueEventIds(OutboxStatus.PENDING, LocalDateTime.now(), batchSize);
+        if (!dueIds.isEmpty()) {
+            dispatch(dueIds);
+        }
+    }
+
+    /**
+     * Supprime les événements traités au-delà de la durée de rétention
+     */
+    @Transactional
+    @Scheduled(cron = "${app.like.outbox.cleanup-cron:0 15 3 * * *}")
+    public void purgeProcessed() {
+        int deleted = likeOutboxRepository.deleteProcessedBefore(OutboxStatus.PROCESSED,
+                LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("{} événements de like traités supprimés de l'outbox", deleted);
+        }
+    }
+
+    private void run(Long eventId) {
+        try {
+            likeOutboxProcessor.process(eventId);
+        } catch (Exception e) {
+            likeOutboxProcessor.markFailed(eventId, e);
+        } finally {
+            inFlight.remove(eventId);
+        }
+    }
+}
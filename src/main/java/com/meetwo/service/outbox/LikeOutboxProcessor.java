@@ -0,0 +1,131 @@
+package com.meetwo.service.outbox;
+
+import com.meetwo.entity.LikeOutboxEvent;
+import com.meetwo.entity.Match;
+import com.meetwo.enums.OutboxStatus;
+import com.meetwo.event.LikeMatchedEvent;
+import com.meetwo.repository.LikeOutboxRepository;
+import com.meetwo.repository.LikeRepository;
+import com.meetwo.repository.MatchRepository;
+import com.meetwo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Applique les effets de bord d'un événement de like, dans une transaction qui marque aussi l'événement traité.
+ * Les compteurs reçoivent des deltas commutatifs (+1 / -1), le match est créé ou supprimé
+ * après vérification de l'état courant des likes.
+ * Les deltas ne sont pas idempotents : seul un événement PENDING est traité, et le rejeu
+ * ne remet en attente que des événements en échec, dont la transaction n'a rien appliqué.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeOutboxProcessor {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final LikeOutboxRepository likeOutboxRepository;
+    private final LikeRepository likeRepository;
+    private final MatchRepository matchRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.like.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.like.outbox.max-backoff-seconds:600}")
+    private long maxBackoffSeconds;
+
+    @Transactional
+    public void process(Long eventId) {
+        // Le verrou sur l'événement empêche deux traitements concurrents (déclenchement + scrutation)
+        LikeOutboxEvent event = likeOutboxRepository.findByIdForUpdate(eventId).orElse(null);
+        if (event == null || event.getStatus() != OutboxStatus.PENDING) {
+            return;
+        }
+
+        switch (event.getEventType()) {
+            case LIKE_CREATED -> handleLikeCreated(event);
+            case LIKE_REMOVED -> handleLikeRemoved(event);
+        }
+
+        event.setStatus(OutboxStatus.PROCESSED);
+        event.setAttempts(event.getAttempts() + 1);
+        event.setProcessedAt(LocalDateTime.now());
+        event.setLastError(null);
+    }
+
+    /**
+     * Enregistre l'échec d'un traitement et planifie un nouvel essai (backoff exponentiel)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markFailed(Long eventId, Exception error) {
+        likeOutboxRepository.findByIdForUpdate(eventId).ifPresent(event -> {
+            if (event.getStatus() != OutboxStatus.PENDING) {
+                return;
+            }
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(truncate(error.getClass().getSimpleName() + " : " + error.getMessage()));
+            if (attempts >= maxAttempts) {
+                event.setStatus(OutboxStatus.FAILED);
+                log.error("Événement de like {} en échec après {} essais", eventId, attempts, error);
+            } else {
+                long backoffSeconds = Math.min(1L << Math.min(attempts, 20), maxBackoffSeconds);
+                event.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds));
+                log.warn("Échec du traitement de l'événement de like {} (essai {}), nouvel essai dans {}s : {}",
+                        eventId, attempts, backoffSeconds, error.getMessage());
+            }
+        });
+    }
+
+    // === MÉTHODES UTILITAIRES PRIVÉES ===
+
+    private void handleLikeCreated(LikeOutboxEvent event) {
+        Long likerId = event.getLikerId();
+        Long likedUserId = event.getLikedUserId();
+        userRepository.applyLikeDelta(likerId, likedUserId, 1);
+
+        long user1Id = Math.min(likerId, likedUserId);
+        long user2Id = Math.max(likerId, likedUserId);
+        boolean mutual = likeRepository.existsByLikerIdAndLikedUserId(likerId, likedUserId)
+                && likeRepository.existsByLikerIdAndLikedUserId(likedUserId, likerId);
+        if (!mutual || matchRepository.existsByUser1IdAndUser2Id(user1Id, user2Id)) {
+            return;
+        }
+
+        // Un doublon concurrent viole uk_matches_pair : l'événement est alors réessayé et trouve le match existant
+        matchRepository.save(new Match(userRepository.getReferenceById(likerId),
+                userRepository.getReferenceById(likedUserId), event.getCreatedAt()));
+        userRepository.addMatchesCount(List.of(likerId, likedUserId), 1);
+        eventPublisher.publishEvent(new LikeMatchedEvent(user1Id, user2Id, event.getCreatedAt()));
+        log.info("Match détecté entre les utilisateurs {} et {}", likerId, likedUserId);
+    }
+
+    private void handleLikeRemoved(LikeOutboxEvent event) {
+        Long likerId = event.getLikerId();
+        Long likedUserId = event.getLikedUserId();
+        userRepository.applyLikeDelta(likerId, likedUserId, -1);
+
+        // Le match ne subsiste que si les deux likes existent encore (like recréé entre-temps)
+        boolean mutual = likeRepository.existsByLikerIdAndLikedUserId(likerId, likedUserId)
+                && likeRepository.existsByLikerIdAndLikedUserId(likedUserId, likerId);
+        if (!mutual && matchRepository.deleteByPair(Math.min(likerId, likedUserId), Math.max(likerId, likedUserId)) > 0) {
+            userRepository.addMatchesCount(List.of(likerId, likedUserId), -1);
+            log.info("Match supprimé entre les utilisateurs {} et {}", likerId, likedUserId);
+        }
+    }
+
+    private String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,167 @@
+package com.meetwo.service.partition;
+
+import com.meetwo.config.DatabasePlatform;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Partitionnement mensuel de la table messages sur created_at (Postgres uniquement, voir V8 pour la conversion).
+ * Les partitions des mois à venir sont créées à l'avance ; la rétention détache puis supprime les partitions
+ * entièrement expirées au lieu de supprimer les lignes une à une.
+ * Sans table partitionnée (H2, ou conversion pas encore faite), rien n'est fait et la purge reste par lots.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessagePartitionManager {
+
+    public static final String TABLE_NAME = "messages";
+
+    // Une partition par mois : messages_p2026_10 couvre [2026-10-01, 2026-11-01)
+    private static final Pattern PARTITION_NAME = Pattern.compile("^" + TABLE_NAME + "_p(\\d{4})_(\\d{2})$");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    @Value("${app.message.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.message.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    private volatile boolean active = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkOnStartup() {
+        if (!enabled || !databasePlatform.isPostgres()) {
+            log.info("Partitionnement des messages désactivé");
+            return;
+        }
+        if (!isPartitioned()) {
+            log.warn("app.message.partitioning.enabled est actif mais la table {} n'est pas partitionnée " +
+                    "(voir V8__Create_messages_table.sql pour la conversion)", TABLE_NAME);
+            return;
+        }
+
+        active = true;
+        createUpcomingPartitions();
+    }
+
+    /**
+     * Crée les partitions du mois courant et des mois suivants si elles manquent
+     */
+    @Scheduled(initialDelayString = "${app.message.partitioning.check-interval:24h}",
+            fixedDelayString = "${app.message.partitioning.check-interval:24h}")
+    public void createUpcomingPartitions() {
+        if (!active) {
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            if (createPartition(current.plusMonths(i))) {
+                created++;
+            }
+        }
+        log.debug("Partitions de {} vérifiées jusqu'à {} ({} créées)", TABLE_NAME, current.plusMonths(monthsAhead), created);
+    }
+
+    /**
+     * Détache et supprime les partitions dont tous les messages sont antérieurs à la date limite.
+     * Les messages restants avant la date limite (mois entamé, table historique) sont laissés à la purge par lots.
+     *
+     * @return le nombre de partitions supprimées
+     */
+    public int dropPartitionsBefore(LocalDateTime cutoff) {
+        if (!active) {
+            return 0;
+        }
+
+        int dropped = 0;
+        for (String partition : findPartitionNames()) {
+            YearMonth month = parseMonth(partition);
+            if (month == null || month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff)) {
+                continue;
+            }
+            try {
+                // Hors transaction : chaque instruction ne verrouille la table parente que le temps du détachement
+                jdbcTemplate.execute("ALTER TABLE " + TABLE_NAME + " DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                dropped++;
+                log.info("Partition {} détachée et supprimée (rétention)", partition);
+            } catch (DataAccessException e) {
+                log.warn("Impossible de supprimer la partition {}: {}", partition, e.getMessage());
+            }
+        }
+        return dropped;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    private boolean createPartition(YearMonth month) {
+        String partition = TABLE_NAME + "_p" + month.format(PARTITION_SUFFIX);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        try {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_class WHERE relname = ?", Integer.class, partition);
+            if (existing != null && existing > 0) {
+                return false;
+            }
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + TABLE_NAME +
+                    " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            log.info("Partition {} créée pour [{}, {})", partition, from, to);
+            return true;
+        } catch (DataAccessException e) {
+            // Par exemple une plage déjà couverte par la table historique rattachée lors de la conversion
+            log.warn("Impossible de créer la partition {}: {}", partition, e.getMessage());
+            return false;
+        }
+    }
+
+    private List<String> findPartitionNames() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = ? ORDER BY c.relname", String.class, TABLE_NAME);
+    }
+
+    private static YearMonth parseMonth(String partition) {
+        Matcher matcher = PARTITION_NAME.matcher(partition);
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_class WHERE relname = ? AND relkind = 'p'", Integer.class, TABLE_NAME);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,377 @@
+package com.meetwo.service.pipeline;
+
+import com.meetwo.dto.mapper.MessageMapper;
+import com.meetwo.dto.request.CreateMessageRequest;
+import com.meetwo.dto.response.MessageResponse;
+import com.meetwo.dto.response.MessageSendPipelineStatsResponse;
+import com.meetwo.entity.Conversation;
+import com.meetwo.entity.Message;
+import com.meetwo.entity.User;
+import com.meetwo.enums.MessageType;
+import com.meetwo.event.MessageSentEvent;
+import com.meetwo.exception.message.InvalidMessageOperationException;
+import com.meetwo.exception.message.MessageNotAllowedException;
+import com.meetwo.exception.message.MessageSendTimeoutException;
+import com.meetwo.exception.user.UserNotFoundException;
+import com.meetwo.repository.MessageBatchRepository;
+import com.meetwo.repository.UserRepository;
+import com.meetwo.service.LikeService;
+import com.meetwo.service.conversation.ConversationSummaryStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pipeline d'envoi des messages (optionnel, app.message.send-pipeline.enabled) : les envois concurrents
+ * sont regroupés en micro-lots, validés ensemble (une requête pour les utilisateurs) et écrits en une seule
+ * transaction avec un INSERT par lot JDBC. Chaque appelant reçoit un future complété après le commit.
+ * Le premier message d'un lot n'attend jamais plus que batch-window avant l'écriture.
+ * Un envoi synchrone non pris en charge après send-timeout est annulé : il n'est jamais écrit ensuite,
+ * l'appelant peut donc réessayer sans créer de doublon.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageSendPipeline {
+
+    private final UserRepository userRepository;
+    private final LikeService likeService;
+    private final MessageBatchRepository messageBatchRepository;
+    private final ConversationSummaryStore conversationSummaryStore;
+    private final MessageMapper messageMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.message.send-pipeline.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.message.send-pipeline.batch-window:5ms}")
+    private Duration batchWindow;
+
+    @Value("${app.message.send-pipeline.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${app.message.send-pipeline.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.message.send-pipeline.send-timeout:5s}")
+    private Duration sendTimeout;
+
+    private LinkedBlockingQueue<PendingSend> queue;
+    private Thread worker;
+    private volatile boolean running = false;
+
+    // Statistiques depuis le démarrage de l'instance
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong rejectedMessages = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong inlineBatches = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong totalWriteNanos = new AtomicLong();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::runWorker, "message-send-pipeline");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Pipeline d'envoi des messages démarré (fenêtre {} ms, lots de {} messages au plus)",
+                batchWindow.toMillis(), maxBatchSize);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        // Le worker termine le lot en cours puis s'arrête à la prochaine attente
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        // Les envois restés en file sont écrits avant l'arrêt
+        List<PendingSend> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            writeBatch(remaining);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Met un envoi en file ; si la file est pleine, il est écrit immédiatement dans le thread de l'appelant
+     */
+    public CompletableFuture<MessageResponse> submit(CreateMessageRequest request) {
+        return enqueue(request).future();
+    }
+
+    /**
+     * Envoi synchrone : attend la confirmation du lot et relance l'erreur de validation éventuelle.
+     * Un envoi qu'aucun lot n'a pris en charge après send-timeout est annulé (MessageSendTimeoutException) ;
+     * s'il est déjà dans un lot en cours d'écriture, l'issue de ce lot est attendue.
+     */
+    public MessageResponse send(CreateMessageRequest request) {
+        PendingSend pending = enqueue(request);
+        try {
+            try {
+                return pending.future().get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (pending.cancel()) {
+                    throw new MessageSendTimeoutException(sendTimeout.toMillis());
+                }
+                return pending.future().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Échec de l'envoi du message", e.getCause());
+        } catch (InterruptedException e) {
+            pending.cancel();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Envoi du message interrompu");
+        }
+    }
+
+    public MessageSendPipelineStatsResponse getStats() {
+        long batchCount = batches.get();
+        long messageCount = messages.get();
+        double writeSeconds = totalWriteNanos.get() / 1_000_000_000.0;
+        return MessageSendPipelineStatsResponse.builder()
+                .enabled(enabled)
+                .queueSize(queue == null ? 0 : queue.size())
+                .batches(batchCount)
+                .messages(messageCount)
+                .rejectedMessages(rejectedMessages.get())
+                .failedBatches(failedBatches.get())
+                .inlineBatches(inlineBatches.get())
+                .averageBatchSize(batchCount == 0 ? 0 : (double) messageCount / batchCount)
+                .largestBatch(largestBatch.get())
+                .averageLatencyMs(messageCount == 0 ? 0 : totalLatencyNanos.get() / 1_000_000.0 / messageCount)
+                .averageBatchWriteMs(batchCount == 0 ? 0 : totalWriteNanos.get() / 1_000_000.0 / batchCount)
+                .messagesPerSecond(writeSeconds <= 0 ? 0 : messageCount / writeSeconds)
+                .batchWindowMs(batchWindow.toMillis())
+                .maxBatchSize(maxBatchSize)
+                .build();
+    }
+
+    private PendingSend enqueue(CreateMessageRequest request) {
+        PendingSend pending = new PendingSend(request, LocalDateTime.now(), System.nanoTime(),
+                new CompletableFuture<>(), new AtomicInteger(PendingSend.QUEUED));
+        if (!running || !queue.offer(pending)) {
+            inlineBatches.incrementAndGet();
+            writeBatch(List.of(pending));
+        }
+        return pending;
+    }
+
+    private void runWorker() {
+        List<PendingSend> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingSend first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Fenêtre comptée depuis la mise en file du premier message du lot
+                long deadline = first.enqueuedAtNanos() + batchWindow.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingSend next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Erreur inattendue dans le pipeline d'envoi des messages", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Écrit un lot dans une transaction ; si elle échoue, chaque envoi est repris seul pour isoler le fautif
+     */
+    private void writeBatch(List<PendingSend> batch) {
+        Map<PendingSend, MessageResponse> responses;
+        long writeStartedAt = System.nanoTime();
+        try {
+            responses = transactionTemplate.execute(status -> insertBatch(batch));
+        } catch (RuntimeException e) {
+            failedBatches.incrementAndGet();
+            if (batch.size() > 1) {
+                log.warn("Échec d'un lot de {} messages, reprise message par message: {}", batch.size(), e.getMessage());
+                // Rien n'a été écrit : chaque envoi redevient annulable jusqu'à sa reprise
+                batch.forEach(PendingSend::release);
+                for (PendingSend pending : batch) {
+                    writeBatch(List.of(pending));
+                }
+            } else {
+                batch.get(0).future().completeExceptionally(e);
+            }
+            return;
+        }
+
+        // Après commit seulement : un appelant ne reçoit jamais l'ID d'un message annulé
+        long now = System.nanoTime();
+        totalWriteNanos.addAndGet(now - writeStartedAt);
+        batches.incrementAndGet();
+        messages.addAndGet(responses.size());
+        largestBatch.accumulateAndGet(responses.size(), Math::max);
+        responses.forEach((pending, response) -> {
+            totalLatencyNanos.addAndGet(now - pending.enqueuedAtNanos());
+            pending.future().complete(response);
+        });
+    }
+
+    private Map<PendingSend, MessageResponse> insertBatch(List<PendingSend> batch) {
+        // Tous les utilisateurs du lot en une seule requête
+        Set<Long> userIds = new HashSet<>();
+        List<PendingSend> claimed = new ArrayList<>(batch.size());
+        for (PendingSend pending : batch) {
+            // Les envois annulés par leur appelant (send-timeout dépassé) ne sont pas écrits
+            if (!pending.claim()) {
+                continue;
+            }
+            claimed.add(pending);
+            userIds.add(pending.request().getSenderId());
+            userIds.add(pending.request().getReceiverId());
+        }
+        if (claimed.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        Map<String, Boolean> matches = new HashMap<>();
+        List<PendingSend> accepted = new ArrayList<>(claimed.size());
+        List<Message> toInsert = new ArrayList<>(claimed.size());
+        for (PendingSend pending : claimed) {
+            CreateMessageRequest request = pending.request();
+            RuntimeException rejection = validate(request, users, matches);
+            if (rejection != null) {
+                rejectedMessages.incrementAndGet();
+                pending.future().completeExceptionally(rejection);
+                continue;
+            }
+            accepted.add(pending);
+            toInsert.add(Message.builder()
+                    .sender(users.get(request.getSenderId()))
+                    .receiver(users.get(request.getReceiverId()))
+                    .pairKey(Conversation.pairKey(request.getSenderId(), request.getReceiverId()))
+                    .content(request.getContent())
+                    .messageType(request.getMessageType() != null ? request.getMessageType() : MessageType.TEXT)
+                    .isRead(false)
+                    .createdAt(pending.createdAt())
+                    .updatedAt(pending.createdAt())
+                    .build());
+        }
+        if (toInsert.isEmpty()) {
+            return Map.of();
+        }
+
+        messageBatchRepository.insertMessages(toInsert);
+
+        // Résumés de conversation : un verrou par paire, dans l'ordre des clés (ordre d'envoi conservé dans chaque paire)
+        Map<String, List<Message>> messagesByPair = toInsert.stream()
+                .collect(Collectors.groupingBy(Message::getPairKey, TreeMap::new, Collectors.toList()));
+        messagesByPair.values().forEach(conversationSummaryStore::onMessagesSent);
+
+        List<MessageResponse> responses = messageMapper.toResponses(toInsert);
+        Map<PendingSend, MessageResponse> responsesBySend = new IdentityHashMap<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            responsesBySend.put(accepted.get(i), responses.get(i));
+            // Livraison en temps réel après commit
+            eventPublisher.publishEvent(new MessageSentEvent(responses.get(i)));
+        }
+        log.debug("Lot de {} messages écrit", toInsert.size());
+        return responsesBySend;
+    }
+
+    private RuntimeException validate(CreateMessageRequest request, Map<Long, User> users, Map<String, Boolean> matches) {
+        Long senderId = request.getSenderId();
+        Long receiverId = request.getReceiverId();
+        if (senderId.equals(receiverId)) {
+            return new InvalidMessageOperationException("Un utilisateur ne peut pas s'envoyer un message à lui-même");
+        }
+        if (!users.containsKey(senderId)) {
+            return new UserNotFoundException(senderId);
+        }
+        if (!users.containsKey(receiverId)) {
+            return new UserNotFoundException(receiverId);
+        }
+        boolean match = matches.computeIfAbsent(Conversation.pairKey(senderId, receiverId),
+                key -> likeService.isMatch(senderId, receiverId));
+        return match ? null : new MessageNotAllowedException(senderId, receiverId);
+    }
+
+    private record PendingSend(CreateMessageRequest request, LocalDateTime createdAt, long enqueuedAtNanos,
+                               CompletableFuture<MessageResponse> future, AtomicInteger state) {
+
+        static final int QUEUED = 0;
+        static final int WRITING = 1;
+        static final int CANCELLED = 2;
+
+        // Pris par le lot qui l'écrit : l'appelant ne peut plus l'annuler
+        boolean claim() {
+            return state.compareAndSet(QUEUED, WRITING);
+        }
+
+        // Rendu après l'échec du lot, avant sa reprise seul
+        void release() {
+            state.compareAndSet(WRITING, QUEUED);
+        }
+
+        // Annulé par l'appelant tant qu'aucun lot ne l'a pris
+        boolean cancel() {
+            if (!state.compareAndSet(QUEUED, CANCELLED)) {
+                return false;
+            }
+            future.cancel(false);
+            return true;
+        }
+    }
+}
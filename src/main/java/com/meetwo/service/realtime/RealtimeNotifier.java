@@ -0,0 +1,77 @@
+package com.meetwo.service.realtime;
+
+import com.meetwo.dto.response.MatchNotificationResponse;
+import com.meetwo.dto.response.MessageResponse;
+import com.meetwo.dto.response.ReadReceiptResponse;
+import com.meetwo.dto.response.TypingIndicatorResponse;
+import com.meetwo.event.LikeMatchedEvent;
+import com.meetwo.event.MessageSentEvent;
+import com.meetwo.event.MessagesReadEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Livraison en temps réel (STOMP) vers les destinations propres à chaque utilisateur.
+ * Les clients s'abonnent à /user/queue/... ; le nom de l'utilisateur STOMP est son ID (voir StompJwtChannelInterceptor).
+ * Les événements ne sont poussés qu'après commit : un client ne reçoit jamais un message annulé.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RealtimeNotifier {
+
+    public static final String MESSAGES_QUEUE = "/queue/messages";
+    public static final String READ_RECEIPTS_QUEUE = "/queue/read-receipts";
+    public static final String TYPING_QUEUE = "/queue/typing";
+    public static final String MATCHES_QUEUE = "/queue/matches";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Le message est poussé au destinataire et à l'expéditeur (ses autres sessions ouvertes)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        MessageResponse message = event.getMessage();
+        send(message.getReceiverId(), MESSAGES_QUEUE, message);
+        send(message.getSenderId(), MESSAGES_QUEUE, message);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessagesRead(MessagesReadEvent event) {
+        send(event.getSenderId(), READ_RECEIPTS_QUEUE, ReadReceiptResponse.builder()
+                .readerId(event.getReaderId())
+                .messageId(event.getMessageId())
+                .readAt(event.getReadAt())
+                .build());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLikeMatched(LikeMatchedEvent event) {
+        send(event.getUser1Id(), MATCHES_QUEUE, new MatchNotificationResponse(event.getUser2Id(), event.getMatchedAt()));
+        send(event.getUser2Id(), MATCHES_QUEUE, new MatchNotificationResponse(event.getUser1Id(), event.getMatchedAt()));
+    }
+
+    /**
+     * Indicateur de saisie : éphémère, jamais persisté
+     */
+    public void sendTyping(Long fromUserId, Long toUserId, boolean typing) {
+        send(toUserId, TYPING_QUEUE, TypingIndicatorResponse.builder()
+                .userId(fromUserId)
+                .typing(typing)
+                .build());
+    }
+
+    // Un échec de livraison ne doit jamais remonter à l'appelant : le client retrouvera l'état via l'API REST
+    private void send(Long userId, String destination, Object payload) {
+        try {
+            messagingTemplate.convertAndSendToUser(userId.toString(), destination, payload);
+        } catch (MessagingException e) {
+            log.warn("Échec de la livraison temps réel vers l'utilisateur {} ({}): {}",
+                    userId, destination, e.getMessage());
+        }
+    }
+}
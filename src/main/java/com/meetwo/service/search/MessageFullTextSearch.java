@@ -0,0 +1,103 @@
+package com.meetwo.service.search;
+
+import com.meetwo.config.DatabasePlatform;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Recherche plein texte Postgres sur le contenu des messages (to_tsvector 'french' + index GIN d'expression).
+ * L'index est créé au démarrage s'il manque (le schéma étant généré par Hibernate, V8 n'est pas joué),
+ * et reconstruit s'il est resté invalide (construction CONCURRENTLY interrompue).
+ * Sur une autre base (H2 en développement), la recherche retombe sur le LIKE historique.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageFullTextSearch {
+
+    // La configuration doit être identique dans l'index et dans les requêtes pour que l'index soit utilisé
+    public static final String TEXT_SEARCH_CONFIG = "french";
+
+    private static final String INDEX_NAME = "idx_messages_content_fts";
+
+    private static final String CREATE_INDEX_SQL =
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + INDEX_NAME + " " +
+            "ON messages USING GIN (to_tsvector('" + TEXT_SEARCH_CONFIG + "', content))";
+
+    // Table partitionnée : CONCURRENTLY n'y est pas accepté, l'index parent est créé directement
+    // (les partitions créées ensuite par MessagePartitionManager en héritent)
+    private static final String CREATE_PARTITIONED_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_NAME + " " +
+            "ON messages USING GIN (to_tsvector('" + TEXT_SEARCH_CONFIG + "', content))";
+
+    private static final String DROP_INDEX_CONCURRENTLY_SQL = "DROP INDEX CONCURRENTLY IF EXISTS " + INDEX_NAME;
+
+    private static final String DROP_PARTITIONED_INDEX_SQL = "DROP INDEX IF EXISTS " + INDEX_NAME;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    @Value("${app.message.search.full-text-enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean available = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexOnStartup() {
+        if (!enabled || !databasePlatform.isPostgres()) {
+            log.info("Recherche plein texte des messages désactivée, recherche par LIKE");
+            return;
+        }
+
+        try {
+            boolean partitioned = isPartitioned();
+            Boolean valid = isIndexValid();
+            if (Boolean.FALSE.equals(valid)) {
+                // Une construction CONCURRENTLY interrompue laisse un index INVALID, ignoré par IF NOT EXISTS
+                // et jamais utilisé par le planificateur : il est supprimé puis reconstruit
+                log.warn("Index plein texte des messages invalide, reconstruction");
+                jdbcTemplate.execute(partitioned ? DROP_PARTITIONED_INDEX_SQL : DROP_INDEX_CONCURRENTLY_SQL);
+                valid = null;
+            }
+
+            if (!partitioned) {
+                // Hors transaction (CONCURRENTLY) : les envois de messages ne sont pas bloqués pendant la construction
+                jdbcTemplate.execute(CREATE_INDEX_SQL);
+            } else if (valid == null) {
+                // Normalement créé par la conversion de V8 : sinon construit ici, en bloquant les envois le temps de la construction
+                log.warn("Index plein texte absent de la table messages partitionnée, création sans CONCURRENTLY");
+                jdbcTemplate.execute(CREATE_PARTITIONED_INDEX_SQL);
+            }
+            available = true;
+            log.info("Index plein texte des messages prêt");
+        } catch (DataAccessException e) {
+            log.warn("Impossible de créer l'index plein texte des messages, recherche par LIKE: {}", e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_class WHERE relname = 'messages' AND relkind = 'p'", Integer.class);
+        return count != null && count > 0;
+    }
+
+    // Validité de l'index (pg_index.indisvalid), null s'il n'existe pas
+    private Boolean isIndexValid() {
+        List<Boolean> valid = jdbcTemplate.queryForList(
+                "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?",
+                Boolean.class, INDEX_NAME);
+        return valid.isEmpty() ? null : valid.get(0);
+    }
+}
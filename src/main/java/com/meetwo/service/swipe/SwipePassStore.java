@@ -0,0 +1,86 @@
+package com.meetwo.service.swipe;
+
+import com.meetwo.entity.SwipeHistory;
+import com.meetwo.repository.SwipeHistoryRepository;
+import com.meetwo.util.UserIdBitmaps;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Stockage des profils passés (swipe négatif) sous forme d'un bitmap par utilisateur.
+ * Les requêtes de découverte filtrent avec ce bitmap côté application
+ * au lieu d'envoyer à Postgres une liste d'IDs dans un NOT IN.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SwipePassStore {
+
+    private final SwipeHistoryRepository swipeHistoryRepository;
+
+    /**
+     * Ajoute des utilisateurs passés à l'historique et retourne le nombre de nouveaux IDs
+     */
+    @Transactional
+    public int recordPasses(Long userId, Collection<Long> passedUserIds) {
+        if (passedUserIds.isEmpty()) {
+            return 0;
+        }
+
+        // Le verrou ne couvre qu'une ligne existante : la créer d'abord évite que deux premières passes
+        // concurrentes insèrent chacune la leur
+        swipeHistoryRepository.insertIfAbsent(userId, new byte[0]);
+        SwipeHistory history = swipeHistoryRepository.findByUserIdForUpdate(userId)
+                .orElseThrow(() -> new IllegalStateException("Historique de swipes introuvable pour l'utilisateur " + userId));
+        Roaring64NavigableMap bitmap = UserIdBitmaps.deserialize(history.getPassedUserIds());
+
+        int added = 0;
+        for (Long passedUserId : passedUserIds) {
+            if (!bitmap.contains(passedUserId)) {
+                bitmap.addLong(passedUserId);
+                added++;
+            }
+        }
+        if (added == 0) {
+            return 0;
+        }
+
+        history.setPassedUserIds(UserIdBitmaps.serialize(bitmap));
+        history.setPassedCount(bitmap.getLongCardinality());
+        swipeHistoryRepository.save(history);
+        log.debug("{} profils passés ajoutés pour l'utilisateur {} ({} au total, {} octets)",
+                added, userId, history.getPassedCount(), history.getPassedUserIds().length);
+        return added;
+    }
+
+    /**
+     * Récupère le bitmap des utilisateurs passés (vide si l'utilisateur n'a jamais passé de profil)
+     */
+    @Transactional(readOnly = true)
+    public Roaring64NavigableMap getPassedUserIds(Long userId) {
+        return swipeHistoryRepository.findPassedUserIds(userId)
+                .map(UserIdBitmaps::deserialize)
+                .orElseGet(UserIdBitmaps::empty);
+    }
+
+    /**
+     * Vérifie si un utilisateur a passé un profil
+     */
+    @Transactional(readOnly = true)
+    public boolean hasPassed(Long userId, Long passedUserId) {
+        return getPassedUserIds(userId).contains(passedUserId);
+    }
+
+    /**
+     * Supprime l'historique de swipes d'un utilisateur (lors de suppression de compte)
+     */
+    @Transactional
+    public void removeUser(Long userId) {
+        swipeHistoryRepository.deleteByUserId(userId);
+    }
+}
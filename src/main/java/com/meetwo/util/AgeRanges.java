@@ -0,0 +1,38 @@
+package com.meetwo.util;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * Conversion des critères d'âge en bornes sur la date de naissance, pour que les requêtes
+ * comparent directement birth_date (indexable) au lieu de calculer un âge pour chaque ligne.
+ */
+public final class AgeRanges {
+
+    private AgeRanges() {
+    }
+
+    /**
+     * Âge révolu à une date donnée (0 si la date de naissance est inconnue)
+     */
+    public static int ageAt(LocalDate birthDate, LocalDate today) {
+        if (birthDate == null || birthDate.isAfter(today)) {
+            return 0;
+        }
+        return Period.between(birthDate, today).getYears();
+    }
+
+    /**
+     * Date de naissance la plus récente pour avoir au moins minAge ans (null si pas de borne)
+     */
+    public static LocalDate latestBirthDate(Integer minAge, LocalDate today) {
+        return minAge == null ? null : today.minusYears(minAge);
+    }
+
+    /**
+     * Date de naissance la plus ancienne pour avoir au plus maxAge ans (null si pas de borne)
+     */
+    public static LocalDate earliestBirthDate(Integer maxAge, LocalDate today) {
+        return maxAge == null ? null : today.minusYears(maxAge + 1L).plusDays(1);
+    }
+}
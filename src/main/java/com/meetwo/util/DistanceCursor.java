@@ -0,0 +1,45 @@
+package com.meetwo.util;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Curseur de pagination (keyset) de la recherche de proximité, sur le couple (distance approchée, id).
+ * La distance approchée est celle du tri SQL (GeoHash.approximateDistanceKey) ; le jeton est opaque, encodé en Base64 URL.
+ */
+@Getter
+public final class DistanceCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final double distanceKey;
+    private final Long id;
+
+    public DistanceCursor(double distanceKey, Long id) {
+        this.distanceKey = distanceKey;
+        this.id = id;
+    }
+
+    public String encode() {
+        // Double.toString est relu à l'identique par Double.parseDouble : la reprise retombe sur la même ligne
+        String raw = distanceKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static DistanceCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            if (separatorIndex > 0) {
+                return new DistanceCursor(
+                        Double.parseDouble(raw.substring(0, separatorIndex)),
+                        Long.parseLong(raw.substring(separatorIndex + 1)));
+            }
+        } catch (IllegalArgumentException e) {
+            // Base64 ou nombre illisible : traité comme un curseur invalide ci-dessous
+        }
+        throw new IllegalArgumentException("Curseur de pagination invalide : " + token);
+    }
+}
@@ -0,0 +1,157 @@
+package com.meetwo.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Géohash : découpage de la Terre en cellules rectangulaires identifiées par une chaîne base 32,
+ * chaque caractère supplémentaire divisant la cellule par 32. Une recherche de proximité
+ * ne lit que les quelques cellules qui recouvrent le cercle recherché, par égalité sur une colonne indexée
+ * (utilisable aussi bien sous H2 que sous Postgres, sans extension spatiale).
+ */
+public final class GeoHash {
+
+    public static final int MIN_PRECISION = 3; // Cellules d'environ 156 x 156 km
+    public static final int MAX_PRECISION = 5; // Cellules d'environ 4,9 x 4,9 km
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+    private GeoHash() {
+    }
+
+    /**
+     * Encode une position avec la précision donnée (nombre de caractères)
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true; // Les bits alternent longitude puis latitude
+        int bit = 0;
+        int value = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLon = mid;
+                } else {
+                    value <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(value));
+                bit = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Cellules de la précision donnée qui recouvrent le cercle (rectangle englobant découpé en cellules)
+     */
+    public static Set<String> coveringCells(double latitude, double longitude, double radiusKm, int precision) {
+        double cellLat = cellHeightDegrees(precision);
+        double cellLon = cellWidthDegrees(precision);
+        double deltaLat = radiusKm / KM_PER_DEGREE_LATITUDE;
+        double deltaLon = longitudeDelta(latitude, radiusKm);
+
+        int lonCells = (int) Math.round(360 / cellLon);
+        long fromLat = cellIndex(Math.max(-90, latitude - deltaLat) + 90, cellLat);
+        long toLat = Math.min(cellIndex(Math.min(90, latitude + deltaLat) + 90, cellLat), Math.round(180 / cellLat) - 1);
+        long fromLon = cellIndex(longitude - deltaLon + 180, cellLon);
+        long toLon = cellIndex(longitude + deltaLon + 180, cellLon);
+        if (toLon - fromLon + 1 >= lonCells) {
+            // Le cercle fait le tour de la Terre en longitude (près des pôles)
+            fromLon = 0;
+            toLon = lonCells - 1;
+        }
+
+        Set<String> cells = new LinkedHashSet<>();
+        for (long i = fromLat; i <= toLat; i++) {
+            double centerLat = -90 + (i + 0.5) * cellLat;
+            for (long j = fromLon; j <= toLon; j++) {
+                long wrapped = Math.floorMod(j, lonCells); // Passage de l'antiméridien
+                cells.add(encode(centerLat, -180 + (wrapped + 0.5) * cellLon, precision));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Précision la plus fine pour laquelle le cercle est recouvert par au plus maxCells cellules
+     * (la précision minimale sinon)
+     */
+    public static int precisionFor(double latitude, double radiusKm, int maxCells) {
+        double deltaLat = radiusKm / KM_PER_DEGREE_LATITUDE;
+        double deltaLon = longitudeDelta(latitude, radiusKm);
+        for (int precision = MAX_PRECISION; precision > MIN_PRECISION; precision--) {
+            // Pire cas : le rectangle englobant chevauche une cellule de plus dans chaque direction
+            double rows = Math.ceil(2 * deltaLat / cellHeightDegrees(precision)) + 1;
+            double columns = Math.ceil(2 * deltaLon / cellWidthDegrees(precision)) + 1;
+            if (rows * columns <= maxCells) {
+                return precision;
+            }
+        }
+        return MIN_PRECISION;
+    }
+
+    /**
+     * Distance orthodromique (formule de haversine), en kilomètres
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLat = Math.toRadians(latitude2 - latitude1);
+        double dLon = Math.toRadians(longitude2 - longitude1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Échelle appliquée au carré de l'écart de longitude pour le ramener à celui de la latitude
+     */
+    public static double longitudeScale(double latitude) {
+        return Math.pow(Math.cos(Math.toRadians(latitude)), 2);
+    }
+
+    /**
+     * Distance approchée (carré des écarts en degrés, longitude ramenée à l'échelle de la latitude) :
+     * même calcul, dans le même ordre, que le tri SQL de la recherche de proximité (UserSpecifications.nearestFirst)
+     */
+    public static double approximateDistanceKey(double latitude, double longitude, double longitudeScale,
+                                                double otherLatitude, double otherLongitude) {
+        return (otherLatitude - latitude) * (otherLatitude - latitude)
+                + (otherLongitude - longitude) * (otherLongitude - longitude) * longitudeScale;
+    }
+
+    // Hauteur d'une cellule : la moitié (arrondie à l'inférieur) des 5 bits par caractère codent la latitude
+    private static double cellHeightDegrees(int precision) {
+        return 180 / Math.pow(2, (5 * precision) / 2);
+    }
+
+    private static double cellWidthDegrees(int precision) {
+        return 360 / Math.pow(2, (5 * precision + 1) / 2);
+    }
+
+    private static double longitudeDelta(double latitude, double radiusKm) {
+        double cos = Math.cos(Math.toRadians(Math.min(89.9, Math.abs(latitude) + radiusKm / KM_PER_DEGREE_LATITUDE)));
+        return Math.min(180, radiusKm / (KM_PER_DEGREE_LATITUDE * cos));
+    }
+
+    private static long cellIndex(double offsetDegrees, double cellDegrees) {
+        return (long) Math.floor(offsetDegrees / cellDegrees);
+    }
+}
@@ -0,0 +1,56 @@
+package com.meetwo.util;
+
+import com.meetwo.enums.Interest;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Encodage des centres d'intérêt en masque 64 bits (bit = ordinal de l'Interest), pour comparer
+ * deux profils par ET binaire et comptage de bits, sans jointure sur user_interests.
+ * Les nouvelles valeurs de l'enum doivent être ajoutées à la fin pour ne pas décaler les masques stockés.
+ */
+public final class InterestMasks {
+
+    static {
+        if (Interest.values().length > Long.SIZE) {
+            throw new IllegalStateException("Trop de centres d'intérêt pour un masque 64 bits");
+        }
+    }
+
+    private InterestMasks() {
+    }
+
+    public static long of(Collection<Interest> interests) {
+        long mask = 0L;
+        if (interests != null) {
+            for (Interest interest : interests) {
+                mask |= 1L << interest.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    public static Set<Interest> toSet(long mask) {
+        Set<Interest> interests = EnumSet.noneOf(Interest.class);
+        for (Interest interest : Interest.values()) {
+            if ((mask & (1L << interest.ordinal())) != 0) {
+                interests.add(interest);
+            }
+        }
+        return interests;
+    }
+
+    public static int shared(long mask1, long mask2) {
+        return Long.bitCount(mask1 & mask2);
+    }
+
+    /**
+     * Indice de Jaccard : intérêts communs / intérêts réunis (0 si aucun des deux n'a d'intérêt)
+     */
+    public static double jaccard(long mask1, long mask2) {
+        long union = mask1 | mask2;
+        return union == 0 ? 0.0 : (double) Long.bitCount(mask1 & mask2) / Long.bitCount(union);
+    }
+}
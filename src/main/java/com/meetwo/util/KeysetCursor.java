@@ -0,0 +1,46 @@
+package com.meetwo.util;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Curseur de pagination (keyset) sur le couple (createdAt, id).
+ * Il est transmis aux clients sous forme de jeton opaque encodé en Base64 URL.
+ */
+@Getter
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public KeysetCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            if (separatorIndex > 0) {
+                return new KeysetCursor(
+                        LocalDateTime.parse(raw.substring(0, separatorIndex)),
+                        Long.parseLong(raw.substring(separatorIndex + 1)));
+            }
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // Base64 ou identifiant illisible : traité comme un curseur invalide ci-dessous
+        }
+        throw new IllegalArgumentException("Curseur de pagination invalide : " + token);
+    }
+}
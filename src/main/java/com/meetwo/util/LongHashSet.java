@@ -0,0 +1,152 @@
+package com.meetwo.util;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Ensemble de longs primitifs à adressage ouvert (sondage linéaire), sans boxing.
+ * Une entrée coûte 8 octets contre une quarantaine pour un HashSet&lt;Long&gt;.
+ * Non thread-safe : la synchronisation est à la charge de l'appelant.
+ */
+public final class LongHashSet {
+
+    private static final long EMPTY = 0L; // Valeur des cases libres ; le zéro est suivi à part
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] slots;
+    private int mask;
+    private int resizeThreshold;
+    private int size; // Nombre de valeurs non nulles stockées dans slots
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(4);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 4) / LOAD_FACTOR)));
+    }
+
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int index = indexOf(value);
+        while (slots[index] != EMPTY) {
+            if (slots[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(slots.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        int index = indexOf(value);
+        while (slots[index] != EMPTY) {
+            if (slots[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(long value) {
+        if (value == EMPTY) {
+            boolean removed = containsZero;
+            containsZero = false;
+            return removed;
+        }
+        int index = indexOf(value);
+        while (slots[index] != value) {
+            if (slots[index] == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        shiftBack(index);
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return containsZero ? size + 1 : size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void forEach(LongConsumer action) {
+        if (containsZero) {
+            action.accept(EMPTY);
+        }
+        for (long slot : slots) {
+            if (slot != EMPTY) {
+                action.accept(slot);
+            }
+        }
+    }
+
+    /**
+     * Suppression par décalage arrière : remonte les entrées suivantes du même groupe
+     * pour ne pas casser les chaînes de sondage (pas de marqueur de suppression).
+     */
+    private void shiftBack(int gap) {
+        int current = gap;
+        while (true) {
+            current = (current + 1) & mask;
+            long value = slots[current];
+            if (value == EMPTY) {
+                break;
+            }
+            int home = indexOf(value);
+            boolean homeBetweenGapAndCurrent = gap <= current
+                    ? gap < home && home <= current
+                    : gap < home || home <= current;
+            if (!homeBetweenGapAndCurrent) {
+                slots[gap] = value;
+                gap = current;
+            }
+        }
+        slots[gap] = EMPTY;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldSlots = slots;
+        allocate(newCapacity);
+        for (long value : oldSlots) {
+            if (value != EMPTY) {
+                int index = indexOf(value);
+                while (slots[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int indexOf(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L; // Mélange de Fibonacci pour disperser les IDs séquentiels
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Math.max(4, Integer.highestOneBit(capacity - 1) << 1);
+    }
+}
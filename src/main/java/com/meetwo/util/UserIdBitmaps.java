@@ -0,0 +1,54 @@
+package com.meetwo.util;
+
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Sérialisation des ensembles d'IDs utilisateurs en bitmaps Roaring (format portable, interopérable
+ * avec les autres implémentations Roaring). Quelques octets par tranche d'IDs proches au lieu de 8 octets par ID.
+ */
+public final class UserIdBitmaps {
+
+    private UserIdBitmaps() {
+    }
+
+    public static Roaring64NavigableMap empty() {
+        return new Roaring64NavigableMap();
+    }
+
+    /**
+     * Désérialise un bitmap ; un contenu vide ou null donne un bitmap vide
+     */
+    public static Roaring64NavigableMap deserialize(byte[] bytes) {
+        Roaring64NavigableMap bitmap = empty();
+        if (bytes == null || bytes.length == 0) {
+            return bitmap;
+        }
+        try {
+            bitmap.deserializePortable(new DataInputStream(new ByteArrayInputStream(bytes)));
+            return bitmap;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Bitmap d'IDs utilisateurs illisible", e);
+        }
+    }
+
+    /**
+     * Compacte puis sérialise un bitmap
+     */
+    public static byte[] serialize(Roaring64NavigableMap bitmap) {
+        bitmap.runOptimize();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(bitmap.serializedSizeInBytes(), 1 << 20));
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            bitmap.serializePortable(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Sérialisation du bitmap d'IDs utilisateurs impossible", e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,9 @@
+-- Historique des swipes négatifs (passes) : une ligne par utilisateur.
+-- passed_user_ids contient un bitmap Roaring 64 bits sérialisé au format portable,
+-- lu et réécrit par l'application (SwipePassStore) sous verrou de ligne.
+CREATE TABLE IF NOT EXISTS swipes (
+    user_id         BIGINT PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    passed_user_ids BYTEA     NOT NULL,
+    passed_count    BIGINT    NOT NULL DEFAULT 0,
+    updated_at      TIMESTAMP NOT NULL
+);
@@ -0,0 +1,20 @@
+-- Table des matches : une ligne par paire d'utilisateurs, toujours ordonnée (user1_id < user2_id)
+CREATE TABLE IF NOT EXISTS matches (
+    id_match   BIGSERIAL PRIMARY KEY,
+    user1_id   BIGINT    NOT NULL REFERENCES users (id),
+    user2_id   BIGINT    NOT NULL REFERENCES users (id),
+    matched_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_matches_pair UNIQUE (user1_id, user2_id),
+    CONSTRAINT ck_matches_order CHECK (user1_id < user2_id)
+);
+
+-- uk_matches_pair couvre les recherches par user1_id, cet index couvre celles par user2_id
+CREATE INDEX IF NOT EXISTS idx_matches_user2 ON matches (user2_id);
+
+-- Reprise des matches existants à partir des likes mutuels
+INSERT INTO matches (user1_id, user2_id, matched_at)
+SELECT l1.liker_id, l1.liked_user_id, GREATEST(l1.created_at, l2.created_at)
+FROM likes l1
+JOIN likes l2 ON l2.liker_id = l1.liked_user_id AND l2.liked_user_id = l1.liker_id
+WHERE l1.liker_id < l1.liked_user_id
+ON CONFLICT (user1_id, user2_id) DO NOTHING;
@@ -0,0 +1,42 @@
+-- Résumé des conversations : une ligne par paire d'utilisateurs, toujours ordonnée (user1_id < user2_id).
+-- Maintenu par l'application (ConversationSummaryStore) à l'envoi, à la lecture et à la suppression des messages.
+CREATE TABLE IF NOT EXISTS conversations (
+    id_conversation      BIGSERIAL PRIMARY KEY,
+    user1_id             BIGINT       NOT NULL REFERENCES users (id),
+    user2_id             BIGINT       NOT NULL REFERENCES users (id),
+    last_message_id      BIGINT,
+    last_message_preview VARCHAR(200),
+    last_message_at      TIMESTAMP,
+    last_sender_id       BIGINT,
+    reply_pending_since  TIMESTAMP,
+    user1_unread_count   INTEGER      NOT NULL DEFAULT 0,
+    user2_unread_count   INTEGER      NOT NULL DEFAULT 0,
+    -- Watermarks de lecture par côté : tous les messages d'ID inférieur ou égal sont lus
+    user1_last_read_message_id BIGINT,
+    user1_last_read_at         TIMESTAMP,
+    user2_last_read_message_id BIGINT,
+    user2_last_read_at         TIMESTAMP,
+    user1_hidden         BOOLEAN      NOT NULL DEFAULT FALSE,
+    user2_hidden         BOOLEAN      NOT NULL DEFAULT FALSE,
+    CONSTRAINT uk_conversations_pair UNIQUE (user1_id, user2_id),
+    CONSTRAINT ck_conversations_order CHECK (user1_id < user2_id)
+);
+
+-- Boîte de réception : une lecture d'index par côté de la paire, déjà triée par dernier message
+CREATE INDEX IF NOT EXISTS idx_conversations_user1_last
+    ON conversations (user1_id, last_message_at DESC, id_conversation DESC);
+CREATE INDEX IF NOT EXISTS idx_conversations_user2_last
+    ON conversations (user2_id, last_message_at DESC, id_conversation DESC);
+
+-- Temps de réponse par utilisateur, agrégés à chaque réponse (ResponseTimeTracker) :
+-- somme et nombre pour la moyenne, histogramme à seuils fixes pour les percentiles
+CREATE TABLE IF NOT EXISTS user_response_stats (
+    user_id                BIGINT PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    response_count         BIGINT    NOT NULL DEFAULT 0,
+    total_response_seconds BIGINT    NOT NULL DEFAULT 0,
+    histogram              BIGINT[]  NOT NULL,
+    updated_at             TIMESTAMP NOT NULL
+);
+
+-- La reprise à partir des messages existants est faite au démarrage par ConversationBackfillJob
+-- (la table messages n'est créée qu'en V8)
@@ -0,0 +1,85 @@
+-- Table des messages entre deux utilisateurs, avec suppression logique de chaque côté
+CREATE TABLE IF NOT EXISTS messages (
+    id_message             BIGSERIAL PRIMARY KEY,
+    sender_id              BIGINT      NOT NULL REFERENCES users (id),
+    receiver_id            BIGINT      NOT NULL REFERENCES users (id),
+    pair_key               VARCHAR(41),
+    content                TEXT        NOT NULL,
+    is_read                BOOLEAN     NOT NULL DEFAULT FALSE,
+    created_at             TIMESTAMP   NOT NULL,
+    updated_at             TIMESTAMP   NOT NULL,
+    read_at                TIMESTAMP,
+    message_type           VARCHAR(20),
+    is_deleted_by_sender   BOOLEAN              DEFAULT FALSE,
+    is_deleted_by_receiver BOOLEAN              DEFAULT FALSE
+);
+
+-- Historique paginé d'une paire (keyset sur created_at, id_message) : pair_key "min:max" réunit les deux sens
+-- de la conversation dans une seule plage de l'index, parcourue dans l'ordre sans tri.
+-- Les messages antérieurs à la colonne sont repris par lots au démarrage (MessagePairKeyBackfillJob) :
+-- UPDATE messages SET pair_key = CONCAT(LEAST(sender_id, receiver_id), ':', GREATEST(sender_id, receiver_id))
+-- WHERE pair_key IS NULL;
+CREATE INDEX IF NOT EXISTS idx_messages_pair_key_created
+    ON messages (pair_key, created_at DESC, id_message DESC);
+
+-- Requêtes par expéditeur ou par sens de la conversation (suppression d'un côté, statistiques)
+CREATE INDEX IF NOT EXISTS idx_messages_pair_created
+    ON messages (sender_id, receiver_id, created_at DESC, id_message DESC);
+
+-- Recherche plein texte (MessageFullTextSearch) : index GIN d'expression, l'expression doit être
+-- reprise à l'identique dans les requêtes (to_tsvector('french', content))
+CREATE INDEX IF NOT EXISTS idx_messages_content_fts
+    ON messages USING GIN (to_tsvector('french', content));
+
+-- Purge par lots (MessagePurgeJob) : messages expirés et messages supprimés des deux côtés
+CREATE INDEX IF NOT EXISTS idx_messages_created_at ON messages (created_at);
+CREATE INDEX IF NOT EXISTS idx_messages_deleted_both
+    ON messages (id_message)
+    WHERE is_deleted_by_sender = TRUE AND is_deleted_by_receiver = TRUE;
+
+-- Partitionnement mensuel sur created_at (optionnel, app.message.partitioning.enabled=true).
+-- La table existante devient la partition historique ; MessagePartitionManager crée ensuite
+-- les partitions messages_pAAAA_MM à l'avance et la purge supprime les partitions expirées.
+-- La clé primaire d'une table partitionnée doit contenir la clé de partition.
+-- Les requêtes bornées sur created_at (curseurs d'historique, findRecentMessagesForUser, purge)
+-- ne lisent que les partitions concernées.
+--
+-- Le schéma généré par Hibernate déclare id_message GENERATED BY DEFAULT AS IDENTITY, et non BIGSERIAL comme ci-dessus :
+-- une partition ne peut pas porter d'identité avant Postgres 17, LIKE ne recopie pas l'identité et
+-- la séquence d'une identité ne peut pas changer de propriétaire. L'identité est donc remplacée par une
+-- séquence ordinaire, repartant de la position de l'ancienne (les IDs déjà attribués ne sont jamais réutilisés,
+-- les watermarks de lecture comparant les IDs). Le script convient aux deux formes de colonne
+-- et a été joué sur Postgres 16 et 17.
+-- Les index existants sont renommés puis repris tels quels comme index de la partition historique ;
+-- seule la clé primaire (id_message, created_at) y est construite, sous le verrou de la conversion.
+-- Hibernate (ddl-auto=update) ne voit pas les index d'une table partitionnée : il journalise ensuite à chaque
+-- démarrage des « relation already exists » sans conséquence.
+--
+-- BEGIN;
+-- LOCK TABLE messages IN ACCESS EXCLUSIVE MODE;
+-- CREATE SEQUENCE messages_id_message_part_seq AS BIGINT;
+-- SELECT setval('messages_id_message_part_seq', nextval(pg_get_serial_sequence('messages', 'id_message')), false);
+-- ALTER TABLE messages ALTER COLUMN id_message DROP IDENTITY IF EXISTS;
+-- ALTER TABLE messages ALTER COLUMN id_message DROP DEFAULT;
+-- ALTER TABLE messages DROP CONSTRAINT messages_pkey;
+-- ALTER TABLE messages RENAME TO messages_legacy;
+-- ALTER INDEX IF EXISTS idx_messages_pair_key_created RENAME TO idx_messages_pair_key_created_legacy;
+-- ALTER INDEX IF EXISTS idx_messages_pair_created RENAME TO idx_messages_pair_created_legacy;
+-- ALTER INDEX IF EXISTS idx_messages_created_at RENAME TO idx_messages_created_at_legacy;
+-- ALTER INDEX IF EXISTS idx_messages_content_fts RENAME TO idx_messages_content_fts_legacy;
+-- ALTER INDEX IF EXISTS idx_messages_deleted_both RENAME TO idx_messages_deleted_both_legacy;
+-- CREATE TABLE messages (LIKE messages_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (created_at);
+-- ALTER TABLE messages ALTER COLUMN id_message SET DEFAULT nextval('messages_id_message_part_seq');
+-- ALTER SEQUENCE messages_id_message_part_seq OWNED BY messages.id_message;
+-- ALTER TABLE messages ADD PRIMARY KEY (id_message, created_at);
+-- ALTER TABLE messages ADD FOREIGN KEY (sender_id) REFERENCES users (id);
+-- ALTER TABLE messages ADD FOREIGN KEY (receiver_id) REFERENCES users (id);
+-- ALTER TABLE messages ATTACH PARTITION messages_legacy
+--     FOR VALUES FROM (MINVALUE) TO ('<premier jour du mois suivant>');
+-- CREATE INDEX idx_messages_pair_key_created ON messages (pair_key, created_at DESC, id_message DESC);
+-- CREATE INDEX idx_messages_pair_created ON messages (sender_id, receiver_id, created_at DESC, id_message DESC);
+-- CREATE INDEX idx_messages_created_at ON messages (created_at);
+-- CREATE INDEX idx_messages_content_fts ON messages USING GIN (to_tsvector('french', content));
+-- CREATE INDEX idx_messages_deleted_both ON messages (id_message)
+--     WHERE is_deleted_by_sender = TRUE AND is_deleted_by_receiver = TRUE;
+-- COMMIT;
@@ -0,0 +1,58 @@
+package com.meetwo.controller;
+
+import com.meetwo.entity.User;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestUsers.class)
+@WithMockUser
+class LikeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void consistencyCheckIsReadOnlyAndRepairIsPost() throws Exception {
+        User liker = users.create("graphliker");
+        User liked = users.create("graphliked");
+        // Like écrit directement en base : l'index mémoire ne le connaît pas
+        jdbcTemplate.update("INSERT INTO likes (liker_id, liked_user_id, created_at, updated_at) VALUES (?, ?, NOW(), NOW())",
+                liker.getId(), liked.getId());
+
+        mockMvc.perform(get("/api/likes/graph-index/consistency").param("repair", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.consistent").value(false))
+                .andExpect(jsonPath("$.rebuilt").value(false));
+        mockMvc.perform(get("/api/likes/graph-index/consistency"))
+                .andExpect(jsonPath("$.missingInIndex").value(1));
+
+        mockMvc.perform(post("/api/likes/graph-index/repair"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.consistent").value(false))
+                .andExpect(jsonPath("$.rebuilt").value(true));
+        mockMvc.perform(get("/api/likes/graph-index/consistency"))
+                .andExpect(jsonPath("$.consistent").value(true));
+    }
+}
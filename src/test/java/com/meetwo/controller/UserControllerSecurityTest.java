@@ -0,0 +1,47 @@
+package com.meetwo.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserControllerSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void anonymousCallersCanSignUpButNotSearchAccounts() throws Exception {
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"signupanonymous\",\"email\":\"signupanonymous@meetwo.fr\"," +
+                                "\"password\":\"secret123\",\"gender\":\"FEMME\"," +
+                                "\"seekingRelationshipType\":\"RELATION_SERIEUSE\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users").param("city", "Paris"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser
+    void authenticatedCallersCanSearchAccounts() throws Exception {
+        mockMvc.perform(get("/api/users").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isArray());
+    }
+}
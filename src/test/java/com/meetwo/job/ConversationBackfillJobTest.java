@@ -0,0 +1,92 @@
+package com.meetwo.job;
+
+import com.meetwo.entity.Conversation;
+import com.meetwo.entity.JobWatermark;
+import com.meetwo.entity.User;
+import com.meetwo.repository.ConversationRepository;
+import com.meetwo.repository.JobWatermarkRepository;
+import com.meetwo.service.LikeService;
+import com.meetwo.service.MessageService;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class ConversationBackfillJobTest {
+
+    @Autowired
+    private ConversationBackfillJob conversationBackfillJob;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private JobWatermarkRepository jobWatermarkRepository;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void backfillRunsOnceAndRecordsItsCompletion() {
+        User alice = users.create("backfillalice");
+        User bob = users.create("backfillbob");
+        likeService.likeUser(alice.getId(), bob.getId());
+        likeService.likeUser(bob.getId(), alice.getId());
+        outbox.drain();
+        messageService.sendMessage(alice.getId(), bob.getId(), "avant la table conversations");
+        Long lastMessageId = messageService.sendMessage(bob.getId(), alice.getId(), "réponse").getId();
+
+        // Paire antérieure au résumé : la reprise la recrée à partir des messages
+        deleteSummary(alice, bob);
+        jobWatermarkRepository.deleteById(ConversationBackfillJob.JOB_NAME);
+        conversationBackfillJob.backfillConversations();
+
+        Conversation conversation = summary(alice, bob).orElseThrow();
+        assertEquals(lastMessageId, conversation.getLastMessageId());
+        assertEquals(1, conversation.getUnreadCountFor(alice.getId()));
+        assertEquals(1, conversation.getUnreadCountFor(bob.getId()));
+        JobWatermark watermark = jobWatermarkRepository.findById(ConversationBackfillJob.JOB_NAME).orElseThrow();
+        assertNotNull(watermark.getCompletedAt());
+        assertTrue(watermark.getLastId() >= lastMessageId);
+
+        // Reprise terminée : un nouveau démarrage ne relit plus la table messages
+        deleteSummary(alice, bob);
+        conversationBackfillJob.backfillConversations();
+        assertTrue(summary(alice, bob).isEmpty());
+    }
+
+    private void deleteSummary(User userA, User userB) {
+        long[] pair = Conversation.orderedPair(userA.getId(), userB.getId());
+        jdbcTemplate.update("DELETE FROM conversations WHERE user1_id = ? AND user2_id = ?", pair[0], pair[1]);
+    }
+
+    private Optional<Conversation> summary(User userA, User userB) {
+        long[] pair = Conversation.orderedPair(userA.getId(), userB.getId());
+        return conversationRepository.findByPair(pair[0], pair[1]);
+    }
+}
@@ -0,0 +1,85 @@
+package com.meetwo.job;
+
+import com.meetwo.entity.User;
+import com.meetwo.service.LikeService;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class LikeCountersReconciliationJobTest {
+
+    @Autowired
+    private LikeCountersReconciliationJob likeCountersReconciliationJob;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void driftedCountersAreRecomputedFromTheLikes() {
+        User alice = users.create("reconalice");
+        User bob = users.create("reconbob");
+        User carl = users.create("reconcarl");
+        likeService.likeUser(alice.getId(), bob.getId());
+        likeService.likeUser(bob.getId(), alice.getId());
+        likeService.likeUser(carl.getId(), alice.getId());
+        outbox.drain();
+        assertEquals(1, likeService.getUserLikeStats(alice.getId()).getLikesGiven());
+        assertEquals(2, likeService.getUserLikeStats(alice.getId()).getLikesReceived());
+        assertEquals(1, likeService.getUserLikeStats(alice.getId()).getMatchesCount());
+
+        // Compteurs faussés hors de l'outbox
+        jdbcTemplate.update("UPDATE users SET likes_given = 7, likes_received = 0, matches_count = 3 WHERE id IN (?, ?)",
+                alice.getId(), carl.getId());
+        likeCountersReconciliationJob.reconcile();
+
+        assertEquals(1, likeService.countLikesGivenByUser(alice.getId()));
+        assertEquals(2, likeService.countLikesReceivedByUser(alice.getId()));
+        assertEquals(1, likeService.countMatchesByUser(alice.getId()));
+        assertEquals(1, likeService.countLikesGivenByUser(carl.getId()));
+        assertEquals(0, likeService.countLikesReceivedByUser(carl.getId()));
+        assertEquals(0, likeService.countMatchesByUser(carl.getId()));
+    }
+
+    @Test
+    void usersWithPendingOutboxEventsAreLeftToTheOutbox() {
+        User alice = users.create("pendingalice");
+        User bob = users.create("pendingbob");
+
+        // Like enregistré, son événement pas encore traité (échéance repoussée pour que la scrutation l'ignore)
+        jdbcTemplate.update("INSERT INTO likes (liker_id, liked_user_id, created_at, updated_at) VALUES (?, ?, NOW(), NOW())",
+                alice.getId(), bob.getId());
+        jdbcTemplate.update("INSERT INTO like_outbox (event_type, liker_id, liked_user_id, status, attempts, created_at, next_attempt_at) " +
+                "VALUES ('LIKE_CREATED', ?, ?, 'PENDING', 0, NOW(), ?)", alice.getId(), bob.getId(), LocalDateTime.now().plusHours(1));
+        likeCountersReconciliationJob.reconcile();
+        assertEquals(0, likeService.countLikesGivenByUser(alice.getId()));
+        assertEquals(0, likeService.countLikesReceivedByUser(bob.getId()));
+
+        jdbcTemplate.update("UPDATE like_outbox SET next_attempt_at = NOW() WHERE liker_id = ? AND liked_user_id = ?",
+                alice.getId(), bob.getId());
+        outbox.drain();
+        likeCountersReconciliationJob.reconcile();
+        assertEquals(1, likeService.countLikesGivenByUser(alice.getId()));
+        assertEquals(1, likeService.countLikesReceivedByUser(bob.getId()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.meetwo.job;
+
+import com.meetwo.dto.response.MessageResponse;
+import com.meetwo.entity.User;
+import com.meetwo.repository.MessageRepository;
+import com.meetwo.service.LikeService;
+import com.meetwo.service.MessageService;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class MessagePairKeyBackfillJobTest {
+
+    @Autowired
+    private MessagePairKeyBackfillJob messagePairKeyBackfillJob;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void messagesWithoutPairKeyAreBackfilled() {
+        User alice = users.create("pairkeyalice");
+        User bob = users.create("pairkeybob");
+        likeService.likeUser(alice.getId(), bob.getId());
+        likeService.likeUser(bob.getId(), alice.getId());
+        outbox.drain();
+        MessageResponse first = messageService.sendMessage(bob.getId(), alice.getId(), "1");
+        MessageResponse second = messageService.sendMessage(alice.getId(), bob.getId(), "2");
+
+        String pairKey = Math.min(alice.getId(), bob.getId()) + ":" + Math.max(alice.getId(), bob.getId());
+        assertEquals(pairKey, messageRepository.findById(first.getId()).orElseThrow().getPairKey());
+        assertTrue(messageService.hasConversation(alice.getId(), bob.getId()));
+        assertEquals(2, messageService.getRecentMessagesInConversation(alice.getId(), bob.getId(), 5).size());
+
+        // Messages antérieurs à la colonne : invisibles dans l'historique tant que pair_key n'est pas calculée
+        jdbcTemplate.update("UPDATE messages SET pair_key = NULL WHERE id_message IN (?, ?)", first.getId(), second.getId());
+        assertEquals(0, messageService.getConversation(alice.getId(), bob.getId(), null, null, 10).getItems().size());
+        messagePairKeyBackfillJob.backfillPairKeys();
+        assertEquals(2, messageService.getConversation(bob.getId(), alice.getId(), null, null, 10).getItems().size());
+        assertEquals(pairKey, messageRepository.findById(first.getId()).orElseThrow().getPairKey());
+    }
+}
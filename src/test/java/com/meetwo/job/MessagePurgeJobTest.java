@@ -0,0 +1,88 @@
+package com.meetwo.job;
+
+import com.meetwo.dto.response.MessagePurgeStatsResponse;
+import com.meetwo.dto.response.MessageResponse;
+import com.meetwo.entity.Message;
+import com.meetwo.entity.User;
+import com.meetwo.repository.MessageRepository;
+import com.meetwo.service.LikeService;
+import com.meetwo.service.MessageService;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Lots de 2 messages pour que la purge en enchaîne plusieurs
+@SpringBootTest(properties = {
+        "app.message.cleanup.batch-size=2",
+        "app.message.cleanup.pause-between-batches=1ms"
+})
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class MessagePurgeJobTest {
+
+    @Autowired
+    private MessagePurgeJob messagePurgeJob;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void purgeRemovesMessagesDeletedOnBothSidesAndExpiredOnes() {
+        User alice = users.create("purgealice");
+        User bob = users.create("purgebob");
+        likeService.likeUser(alice.getId(), bob.getId());
+        likeService.likeUser(bob.getId(), alice.getId());
+        outbox.drain();
+        for (int i = 0; i < 5; i++) {
+            messageService.sendMessage(alice.getId(), bob.getId(), "supprimé " + i);
+        }
+        // Conversation supprimée des deux côtés : les messages sont seulement marqués, la purge les supprime
+        messageService.deleteConversation(alice.getId(), bob.getId());
+        messageService.deleteConversation(bob.getId(), alice.getId());
+        MessageResponse kept = messageService.sendMessage(bob.getId(), alice.getId(), "conservé");
+        messageService.deleteMessage(kept.getId(), alice.getId());
+        LocalDateTime expired = LocalDateTime.now().minusDays(400);
+        for (int i = 0; i < 3; i++) {
+            messageRepository.save(Message.builder().sender(bob).receiver(alice).content("ancien " + i)
+                    .createdAt(expired).updatedAt(expired).build());
+        }
+
+        long before = messageRepository.count();
+        messagePurgeJob.purge();
+        MessagePurgeStatsResponse stats = messageService.getPurgeStats();
+        assertTrue(stats.getLastRunDeletedMarked() >= 5, stats.toString());
+        assertEquals(3, stats.getLastRunDeletedExpired(), stats.toString());
+        assertTrue(stats.getLastRunBatches() >= 3);
+        assertFalse(stats.isRunning());
+        assertTrue(stats.isLastRunComplete());
+        assertEquals(before - stats.getLastRunDeletedMarked() - 3, messageRepository.count());
+
+        assertTrue(messageRepository.existsById(kept.getId()));
+
+        messagePurgeJob.purge();
+        assertEquals(0, messageService.getPurgeStats().getLastRunDeletedMarked());
+        assertEquals(0, messageService.getPurgeStats().getLastRunDeletedExpired());
+    }
+}
@@ -0,0 +1,178 @@
+package com.meetwo.service;
+
+import com.meetwo.dto.request.BulkSwipeRequest;
+import com.meetwo.dto.request.SwipeRequest;
+import com.meetwo.dto.response.BulkSwipeResponse;
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.LikeGraphConsistencyResponse;
+import com.meetwo.dto.response.LikeResponse;
+import com.meetwo.dto.response.MatchPairResponse;
+import com.meetwo.dto.response.UserResponse;
+import com.meetwo.entity.User;
+import com.meetwo.enums.Gender;
+import com.meetwo.enums.SwipeAction;
+import com.meetwo.enums.SwipeStatus;
+import com.meetwo.service.discovery.DiscoveryFilter;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class LikeServiceTest {
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestUsers users;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @BeforeEach
+    void syncLikeGraph() {
+        // D'autres tests du même contexte écrivent des likes directement en base, hors de l'index mémoire
+        likeService.checkLikeGraphConsistency(true);
+    }
+
+    @Test
+    void likesMatchesAndRemovalsKeepTheGraphConsistent() {
+        User alice = user("flowalice", "Carnac");
+        User bob = user("flowbob", "Carnac");
+        User carl = user("flowcarl", "Carnac");
+
+        likeService.likeUser(alice.getId(), bob.getId());
+        outbox.drain();
+        assertFalse(likeService.isMatch(alice.getId(), bob.getId()));
+        assertTrue(likeService.likeUser(bob.getId(), alice.getId()).isMatch());
+        assertTrue(likeService.isMatch(alice.getId(), bob.getId()));
+        likeService.likeUser(carl.getId(), alice.getId());
+        outbox.drain();
+        assertEquals(1, likeService.countMatchesByUser(alice.getId()));
+        assertEquals(1, likeService.getMatchesByUser(alice.getId()).size());
+
+        CursorPageResponse<LikeResponse> firstPage = likeService.getLikesReceivedByUser(alice.getId(), null, 1);
+        assertEquals(1, firstPage.getItems().size());
+        assertTrue(firstPage.isHasMore());
+        CursorPageResponse<LikeResponse> secondPage = likeService.getLikesReceivedByUser(alice.getId(), firstPage.getNextCursor(), 1);
+        assertEquals(1, secondPage.getItems().size());
+        assertFalse(secondPage.isHasMore());
+        assertNotEquals(firstPage.getItems().get(0).getLikerId(), secondPage.getItems().get(0).getLikerId());
+        assertEquals(1, firstPage.getItems().stream().filter(LikeResponse::isMatch).count()
+                + secondPage.getItems().stream().filter(LikeResponse::isMatch).count());
+        assertEquals(1, likeService.getLikesGivenByUser(alice.getId(), null, null).getItems().size());
+
+        CursorPageResponse<MatchPairResponse> matchesInCarnac = likeService.getMatchesByCity("Carnac", null, 5);
+        assertEquals(1, matchesInCarnac.getItems().size());
+        assertFalse(matchesInCarnac.isHasMore());
+        assertSame(matchesInCarnac, likeService.getMatchesByCity("Carnac", null, 5));
+
+        likeService.removeLike(bob.getId(), alice.getId());
+        outbox.drain();
+        assertFalse(likeService.isMatch(alice.getId(), bob.getId()));
+        assertEquals(0, likeService.countMatchesByUser(alice.getId()));
+        assertTrue(likeService.checkLikeGraphConsistency(false).isConsistent());
+
+        assertTrue(likeService.hasUserLiked(carl.getId(), alice.getId()));
+        likeService.removeAllLikesForUser(alice.getId());
+        outbox.drain();
+        assertFalse(likeService.hasUserLiked(alice.getId(), bob.getId()));
+        assertFalse(likeService.hasUserLiked(carl.getId(), alice.getId()));
+        LikeGraphConsistencyResponse consistency = likeService.checkLikeGraphConsistency(false);
+        assertTrue(consistency.isConsistent(), consistency.toString());
+        assertTrue(consistency.isReady());
+    }
+
+    @Test
+    void bulkSwipeReportsOneStatusPerSwipe() {
+        User swiper = user("bulkswiper", "Auray");
+        User fan = user("bulkfan", "Auray");
+        User skipped = user("bulkskipped", "Auray");
+        User alreadyLiked = user("bulkalready", "Auray");
+        likeService.likeUser(fan.getId(), swiper.getId());
+        likeService.likeUser(swiper.getId(), alreadyLiked.getId());
+        outbox.drain();
+
+        BulkSwipeResponse response = likeService.bulkSwipe(bulk(swiper,
+                swipe(fan, SwipeAction.LIKE),
+                swipe(skipped, SwipeAction.PASS),
+                swipe(alreadyLiked, SwipeAction.LIKE),
+                swipe(swiper, SwipeAction.LIKE),
+                swipe(999999L, SwipeAction.LIKE),
+                swipe(fan, SwipeAction.LIKE)));
+        outbox.drain();
+
+        assertEquals(1, response.getLikesCreated());
+        assertEquals(1, response.getMatchesCreated());
+        assertTrue(response.getResults().get(0).isMatch());
+        assertEquals(List.of(SwipeStatus.CREATED, SwipeStatus.PASSED, SwipeStatus.ALREADY_LIKED, SwipeStatus.SELF_SWIPE,
+                        SwipeStatus.USER_NOT_FOUND, SwipeStatus.DUPLICATE_IN_BATCH),
+                response.getResults().stream().map(result -> result.getStatus()).toList());
+        assertTrue(likeService.isMatch(swiper.getId(), fan.getId()));
+        assertEquals(1, likeService.countMatchesByUser(swiper.getId()));
+        assertTrue(likeService.checkLikeGraphConsistency(false).isConsistent());
+
+        assertTrue(likeService.hasUserPassed(swiper.getId(), skipped.getId()));
+        assertFalse(likeService.hasUserPassed(swiper.getId(), alreadyLiked.getId()));
+        likeService.passUser(swiper.getId(), alreadyLiked.getId());
+        likeService.passUser(swiper.getId(), alreadyLiked.getId());
+        assertTrue(likeService.hasUserPassed(swiper.getId(), alreadyLiked.getId()));
+
+        // Profils likés ou passés absents du fil de découverte
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        DiscoveryFilter inAuray = new DiscoveryFilter(null, null, null, null, "Auray");
+        do {
+            CursorPageResponse<UserResponse> page = userService.getDiscoveryCandidates(swiper.getId(), inAuray, cursor, 1);
+            page.getItems().forEach(user -> seen.add(user.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertTrue(seen.isEmpty(), seen.toString());
+    }
+
+    private BulkSwipeRequest bulk(User liker, SwipeRequest... swipes) {
+        BulkSwipeRequest request = new BulkSwipeRequest();
+        request.setLikerId(liker.getId());
+        request.setSwipes(new ArrayList<>(List.of(swipes)));
+        return request;
+    }
+
+    private SwipeRequest swipe(User target, SwipeAction action) {
+        return swipe(target.getId(), action);
+    }
+
+    private SwipeRequest swipe(Long targetUserId, SwipeAction action) {
+        SwipeRequest swipe = new SwipeRequest();
+        swipe.setTargetUserId(targetUserId);
+        swipe.setAction(action);
+        return swipe;
+    }
+
+    private User user(String username, String city) {
+        return users.create(username, user -> {
+            user.setGender(Gender.HOMME);
+            user.setCity(city);
+        });
+    }
+}
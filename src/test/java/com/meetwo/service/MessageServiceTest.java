@@ -0,0 +1,199 @@
+package com.meetwo.service;
+
+import com.meetwo.dto.request.MarkConversationsReadRequest;
+import com.meetwo.dto.response.ConversationResponse;
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.MessageResponse;
+import com.meetwo.dto.response.MessageSearchResponse;
+import com.meetwo.dto.response.MessageStatsResponse;
+import com.meetwo.entity.User;
+import com.meetwo.exception.message.InvalidMessageOperationException;
+import com.meetwo.exception.message.MessageNotFoundException;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class MessageServiceTest {
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private TestUsers users;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Test
+    void historyPagesBackwardsAndForwardsWithCursors() {
+        User alice = users.create("historyalice");
+        User bob = users.create("historybob");
+        match(alice, bob);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            User sender = i % 2 == 0 ? alice : bob;
+            User receiver = i % 2 == 0 ? bob : alice;
+            ids.add(messageService.sendMessage(sender.getId(), receiver.getId(), "m" + i).getId());
+        }
+        messageService.deleteMessage(ids.get(3), alice.getId());
+
+        // Du plus récent au plus ancien, chaque page dans l'ordre chronologique, hors message supprimé par alice
+        CursorPageResponse<MessageResponse> first = messageService.getConversation(alice.getId(), bob.getId(), null, null, 2);
+        assertEquals(List.of(ids.get(5), ids.get(6)), ids(first));
+        CursorPageResponse<MessageResponse> second = messageService.getConversation(alice.getId(), bob.getId(), first.getNextCursor(), null, 2);
+        assertEquals(List.of(ids.get(2), ids.get(4)), ids(second));
+        CursorPageResponse<MessageResponse> third = messageService.getConversation(alice.getId(), bob.getId(), second.getNextCursor(), null, 2);
+        assertEquals(List.of(ids.get(0), ids.get(1)), ids(third));
+        assertFalse(third.isHasMore());
+        assertNull(third.getNextCursor());
+        assertEquals(7, messageService.getConversation(bob.getId(), alice.getId(), null, null, 10).getItems().size());
+
+        CursorPageResponse<MessageResponse> forward = messageService.getConversation(alice.getId(), bob.getId(), null, third.getPreviousCursor(), 3);
+        assertEquals(List.of(ids.get(2), ids.get(4), ids.get(5)), ids(forward));
+        CursorPageResponse<MessageResponse> upToDate = messageService.getConversation(alice.getId(), bob.getId(), null, first.getPreviousCursor(), 3);
+        assertTrue(upToDate.getItems().isEmpty());
+        Long newest = messageService.sendMessage(bob.getId(), alice.getId(), "nouveau").getId();
+        assertEquals(List.of(newest), ids(messageService.getConversation(alice.getId(), bob.getId(), null, upToDate.getPreviousCursor(), 3)));
+
+        assertThrows(IllegalArgumentException.class, () -> messageService.getConversation(alice.getId(), bob.getId(), "x", "y", 3));
+    }
+
+    @Test
+    void searchIsPagedAndRejectsShortTerms() {
+        User alice = users.create("searchalice");
+        User bob = users.create("searchbob");
+        match(alice, bob);
+        for (int i = 0; i < 5; i++) {
+            messageService.sendMessage(alice.getId(), bob.getId(), "Bonjour numero " + i);
+        }
+        messageService.sendMessage(bob.getId(), alice.getId(), "autre chose");
+
+        MessageSearchResponse first = messageService.searchMessages(alice.getId(), "  bonjour ", 0, 2);
+        assertEquals(2, first.getResults().size());
+        assertTrue(first.isHasMore());
+        assertTrue(first.getResults().get(0).getContent().startsWith("Bonjour numero"));
+        if (!first.isRanked()) {
+            assertEquals("Bonjour numero 4", first.getResults().get(0).getContent());
+        }
+        MessageSearchResponse last = messageService.searchMessages(alice.getId(), "bonjour", 2, 2);
+        assertEquals(1, last.getResults().size());
+        assertFalse(last.isHasMore());
+
+        assertTrue(messageService.searchMessages(alice.getId(), "bonjour", Integer.MAX_VALUE, 50).getResults().isEmpty());
+        assertThrows(InvalidMessageOperationException.class, () -> messageService.searchMessages(alice.getId(), "bo", 0, 2));
+    }
+
+    @Test
+    void readWatermarksOnlyMoveForward() {
+        User alice = users.create("readalice");
+        User bob = users.create("readbob");
+        User carol = users.create("readcarol");
+        match(alice, bob);
+        match(alice, carol);
+        MessageResponse first = messageService.sendMessage(bob.getId(), alice.getId(), "1");
+        MessageResponse second = messageService.sendMessage(bob.getId(), alice.getId(), "2");
+        MessageResponse third = messageService.sendMessage(bob.getId(), alice.getId(), "3");
+        messageService.sendMessage(carol.getId(), alice.getId(), "c1");
+        messageService.sendMessage(alice.getId(), carol.getId(), "a->c");
+        assertEquals(4, messageService.countUnreadMessages(alice.getId()));
+
+        // Lire un message lit aussi les précédents de la conversation
+        messageService.markMessageAsRead(second.getId());
+        assertEquals(1, messageService.countUnreadMessagesInConversation(alice.getId(), bob.getId()));
+        List<MessageResponse> history = messageService.getConversation(alice.getId(), bob.getId(), null, null, 10).getItems();
+        assertTrue(history.get(0).getIsRead());
+        assertTrue(history.get(1).getIsRead());
+        assertNotNull(history.get(1).getReadAt());
+        assertFalse(history.get(2).getIsRead());
+        messageService.markMessageAsRead(first.getId());
+        assertEquals(1, messageService.countUnreadMessagesInConversation(alice.getId(), bob.getId()));
+
+        MarkConversationsReadRequest request = new MarkConversationsReadRequest();
+        request.setUserId(alice.getId());
+        assertEquals(2, messageService.markConversationsAsRead(request));
+        assertEquals(0, messageService.countUnreadMessages(alice.getId()));
+        assertEquals(0, messageService.markConversationsAsRead(request));
+        assertTrue(messageService.getMessageById(third.getId()).getIsRead());
+        // Les lectures d'alice ne lisent pas pour carol
+        assertEquals(1, messageService.countUnreadMessages(carol.getId()));
+        List<ConversationResponse> carolInbox = messageService.getUserConversations(carol.getId(), null, 10).getItems();
+        assertFalse(carolInbox.get(0).getLastMessage().getIsRead());
+
+        MessageResponse fourth = messageService.sendMessage(bob.getId(), alice.getId(), "4");
+        assertFalse(messageService.getMessageById(fourth.getId()).getIsRead());
+        request.setOtherUserIds(List.of(carol.getId()));
+        assertEquals(0, messageService.markConversationsAsRead(request));
+        request.setOtherUserIds(List.of(bob.getId(), carol.getId()));
+        assertEquals(1, messageService.markConversationsAsRead(request));
+        assertTrue(messageService.getMessageById(fourth.getId()).getIsRead());
+        assertEquals(0, messageService.getUserMessageStats(alice.getId()).getTotalUnreadMessages());
+    }
+
+    @Test
+    void responseTimesAreMeasuredOnTheFirstReplyOfEachTurn() {
+        User alice = users.create("replyalice");
+        User bob = users.create("replybob");
+        match(alice, bob);
+        messageService.sendMessage(alice.getId(), bob.getId(), "1");
+        messageService.sendMessage(bob.getId(), alice.getId(), "2");
+        messageService.sendMessage(alice.getId(), bob.getId(), "3");
+        messageService.sendMessage(alice.getId(), bob.getId(), "4");
+        messageService.sendMessage(bob.getId(), alice.getId(), "5");
+
+        MessageStatsResponse bobStats = messageService.getUserMessageStats(bob.getId());
+        assertEquals(2, bobStats.getResponseCount());
+        assertTrue(bobStats.getP90ResponseTime() <= 1.0);
+        assertEquals(1, messageService.getUserMessageStats(alice.getId()).getResponseCount());
+    }
+
+    @Test
+    void deletingAMessageTwiceOnlyDiscountsItOnce() {
+        User alice = users.create("twicealice");
+        User bob = users.create("twicebob");
+        match(alice, bob);
+        MessageResponse first = messageService.sendMessage(bob.getId(), alice.getId(), "1");
+        messageService.sendMessage(bob.getId(), alice.getId(), "2");
+        assertEquals(2, messageService.countUnreadMessagesInConversation(alice.getId(), bob.getId()));
+
+        messageService.deleteMessage(first.getId(), alice.getId());
+        messageService.deleteMessage(first.getId(), alice.getId());
+        assertEquals(1, messageService.countUnreadMessagesInConversation(alice.getId(), bob.getId()));
+        assertEquals(1, messageService.countUnreadMessages(alice.getId()));
+
+        // Supprimé des deux côtés : le message disparaît physiquement
+        messageService.deleteMessage(first.getId(), bob.getId());
+        assertThrows(MessageNotFoundException.class, () -> messageService.deleteMessage(first.getId(), alice.getId()));
+        assertEquals(1, messageService.countUnreadMessagesInConversation(alice.getId(), bob.getId()));
+    }
+
+    private List<Long> ids(CursorPageResponse<MessageResponse> page) {
+        return page.getItems().stream().map(MessageResponse::getId).collect(Collectors.toList());
+    }
+
+    private void match(User userA, User userB) {
+        likeService.likeUser(userA.getId(), userB.getId());
+        likeService.likeUser(userB.getId(), userA.getId());
+        outbox.drain();
+    }
+}
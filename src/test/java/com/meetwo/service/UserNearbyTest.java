@@ -0,0 +1,132 @@
+package com.meetwo.service;
+
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.NearbyUserResponse;
+import com.meetwo.entity.User;
+import com.meetwo.exception.user.InvalidUserDataException;
+import com.meetwo.repository.UserRepository;
+import com.meetwo.service.discovery.DiscoveryFilter;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class UserNearbyTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void nearbyUsersAreSortedByDistanceWithinTheRadius() {
+        User me = user("nearbyparis", 48.8566, 2.3522);
+        User louvre = user("nearbylouvre", 48.8606, 2.3376);
+        User versailles = user("nearbyversailles", 48.8049, 2.1204);
+        User lyon = user("nearbylyon", 45.7640, 4.8357);
+        User liked = user("nearbyliked", 48.8570, 2.3530);
+        User nowhere = user("nearbynowhere", null, null);
+        likeService.likeUser(me.getId(), liked.getId());
+        outbox.drain();
+
+        List<NearbyUserResponse> withinFive = nearby(me, 5.0, null, 10).getItems();
+        assertEquals(List.of(louvre.getId()), ids(withinFive));
+        assertEquals(1.1, withinFive.get(0).getDistanceKm(), 0.11);
+        assertEquals(List.of(louvre.getId(), versailles.getId()), ids(nearby(me, 30.0, null, 10).getItems()));
+        // Rayon plafonné : Lyon reste hors de portée
+        assertEquals(List.of(louvre.getId(), versailles.getId()), ids(nearby(me, 500.0, null, 10).getItems()));
+
+        likeService.passUser(me.getId(), louvre.getId());
+        assertEquals(List.of(versailles.getId()), ids(nearby(me, 30.0, null, 10).getItems()));
+
+        // La position est réindexée quand elle change
+        lyon.setLatitude(48.85);
+        lyon.setLongitude(2.35);
+        userRepository.save(lyon);
+        assertEquals(lyon.getId(), nearby(me, 5.0, null, 10).getItems().get(0).getUser().getId());
+
+        assertThrows(InvalidUserDataException.class, () -> nearby(nowhere, 5.0, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> nearby(me, 5.0, "pas-un-curseur", 10));
+    }
+
+    @Test
+    void pagesAreFilledPastPassedUsersAndTheCursorWalksThroughEveryone() {
+        // Reykjavik : à l'écart des profils géolocalisés des autres tests
+        User me = user("nearbyreykjavik", 64.1466, -21.9426);
+        for (int i = 0; i < 30; i++) {
+            User passed = user("nearbypassed" + i, 64.1466 + 0.0001 * (i + 1), -21.9426);
+            likeService.passUser(me.getId(), passed.getId());
+        }
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(user("nearbyfar" + i, 64.1466 + 0.01 * (i + 1), -21.9426).getId());
+        }
+
+        // Les 30 profils passés les plus proches ne vident pas la page
+        CursorPageResponse<NearbyUserResponse> firstPage = nearby(me, 10.0, null, 3);
+        assertEquals(expected.subList(0, 3), ids(firstPage.getItems()));
+        assertTrue(firstPage.isHasMore());
+        assertNotNull(firstPage.getNextCursor());
+
+        CursorPageResponse<NearbyUserResponse> secondPage = nearby(me, 10.0, firstPage.getNextCursor(), 3);
+        assertEquals(expected.subList(3, 5), ids(secondPage.getItems()));
+        assertFalse(secondPage.isHasMore());
+        assertNull(secondPage.getNextCursor());
+
+        // Pages d'un profil (lots de 2, 10 lots au plus) : une page courte garde un curseur jusqu'au bout
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResponse<NearbyUserResponse> page = nearby(me, 10.0, cursor, 1);
+            walked.addAll(ids(page.getItems()));
+            assertEquals(page.isHasMore(), page.getNextCursor() != null);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null && pages < 20);
+        assertEquals(expected, walked);
+        assertNull(cursor);
+    }
+
+    private CursorPageResponse<NearbyUserResponse> nearby(User user, double radiusKm, String cursor, int size) {
+        return userService.findNearbyUsers(user.getId(), radiusKm, DiscoveryFilter.NONE, cursor, size);
+    }
+
+    private List<Long> ids(List<NearbyUserResponse> users) {
+        return users.stream().map(nearby -> nearby.getUser().getId()).collect(Collectors.toList());
+    }
+
+    private User user(String username, Double latitude, Double longitude) {
+        return users.create(username, user -> {
+            user.setLatitude(latitude);
+            user.setLongitude(longitude);
+        });
+    }
+}
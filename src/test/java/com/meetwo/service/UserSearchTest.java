@@ -0,0 +1,172 @@
+package com.meetwo.service;
+
+import com.meetwo.dto.request.UpdateUserRequest;
+import com.meetwo.dto.request.UserSearchRequest;
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.UserResponse;
+import com.meetwo.entity.User;
+import com.meetwo.enums.Gender;
+import com.meetwo.enums.Interest;
+import com.meetwo.enums.UserSearchSort;
+import com.meetwo.job.InterestMaskBackfillJob;
+import com.meetwo.job.UserAgeRefreshJob;
+import com.meetwo.repository.UserRepository;
+import com.meetwo.service.discovery.DiscoveryFilter;
+import com.meetwo.support.TestUsers;
+import com.meetwo.util.AgeRanges;
+import com.meetwo.util.InterestMasks;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestUsers.class)
+class UserSearchTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserAgeRefreshJob userAgeRefreshJob;
+
+    @Autowired
+    private InterestMaskBackfillJob interestMaskBackfillJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void searchPagesWithACursorInBothSortOrders() {
+        for (int i = 0; i < 7; i++) {
+            user("search" + i, i % 2 == 0 ? Gender.FEMME : Gender.HOMME, "Vannes", LocalDate.of(1990, 6, 1));
+        }
+        UserSearchRequest criteria = new UserSearchRequest();
+        criteria.setCity("VANNES");
+
+        List<String> usernames = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResponse<UserResponse> page = userService.searchUsers(criteria, cursor, 3);
+            usernames.addAll(usernames(page));
+            assertEquals(page.isHasMore(), page.getNextCursor() != null);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals(3, pages);
+        assertEquals(List.of("search6", "search5", "search4", "search3", "search2", "search1", "search0"), usernames);
+
+        criteria.setSort(UserSearchSort.OLDEST);
+        criteria.setGender(Gender.FEMME);
+        assertEquals(List.of("search0", "search2", "search4", "search6"), usernames(userService.searchUsers(criteria, null, 1000)));
+
+        // Taille de page bornée par app.user.search.max-size
+        assertTrue(userService.searchUsers(new UserSearchRequest(), null, 5000).getItems().size() <= 100);
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsers(criteria, "garbage", 3));
+    }
+
+    @Test
+    void ageFiltersUseTheBirthDateAndTheRefreshedAge() {
+        LocalDate today = LocalDate.now();
+        User turned30 = user("agepast", Gender.FEMME, "Brest", today.minusYears(30).minusDays(1));
+        User still29 = user("agefuture", Gender.FEMME, "Brest", today.minusYears(30).plusDays(1));
+        assertEquals(30, userRepository.findById(turned30.getId()).orElseThrow().getAge());
+        assertEquals(29, userRepository.findById(still29.getId()).orElseThrow().getAge());
+
+        jdbcTemplate.update("UPDATE users SET age = 1 WHERE id IN (?, ?)", turned30.getId(), still29.getId());
+        userAgeRefreshJob.refresh();
+        assertEquals(30, userRepository.findById(turned30.getId()).orElseThrow().getAge());
+        assertEquals(29, userRepository.findById(still29.getId()).orElseThrow().getAge());
+
+        UserSearchRequest criteria = new UserSearchRequest();
+        criteria.setMinAge(30);
+        criteria.setMaxAge(30);
+        criteria.setCity("brest");
+        List<String> thirty = usernames(userService.searchUsers(criteria, null, 100));
+        assertTrue(thirty.contains("agepast"));
+        assertFalse(thirty.contains("agefuture"));
+        DiscoveryFilter twentyNine = new DiscoveryFilter(null, null, 29, 29, "Brest");
+        assertEquals(List.of(still29.getId()), userService.getDiscoveryCandidates(turned30.getId(), twentyNine, null, 10).getItems()
+                .stream().map(UserResponse::getId).collect(Collectors.toList()));
+
+        assertEquals(25, AgeRanges.ageAt(LocalDate.of(2000, 2, 29), LocalDate.of(2026, 2, 28)));
+        assertEquals(26, AgeRanges.ageAt(LocalDate.of(2000, 2, 29), LocalDate.of(2026, 3, 1)));
+    }
+
+    @Test
+    void interestMasksDriveSimilarUsersAndInterestSearch() {
+        User me = user("maskme", Gender.HOMME, "Metz", LocalDate.of(1990, 6, 1),
+                Interest.SPORT, Interest.ART, Interest.YOGA, Interest.DANSE);
+        User same = user("masksame", Gender.FEMME, "Metz", LocalDate.of(1990, 6, 1),
+                Interest.SPORT, Interest.ART, Interest.YOGA, Interest.DANSE);
+        User half = user("maskhalf", Gender.FEMME, "Metz", LocalDate.of(1990, 6, 1), Interest.SPORT, Interest.ART);
+        User wide = user("maskwide", Gender.FEMME, "Metz", LocalDate.of(1990, 6, 1),
+                Interest.SPORT, Interest.ART, Interest.CINEMA, Interest.MODE, Interest.FESTIVALS);
+        user("maskother", Gender.FEMME, "Metz", LocalDate.of(1990, 6, 1), Interest.CINEMA);
+        assertEquals(InterestMasks.of(Set.of(Interest.SPORT, Interest.ART)), userRepository.findById(half.getId()).orElseThrow().getInterestsMask());
+
+        // Le masque suit la mise à jour des intérêts
+        UpdateUserRequest update = new UpdateUserRequest();
+        update.setInterests(new HashSet<>(Set.of(Interest.SPORT, Interest.ART, Interest.YOGA)));
+        userService.updateUser(half.getId(), update);
+        assertEquals(InterestMasks.of(update.getInterests()), userRepository.findById(half.getId()).orElseThrow().getInterestsMask());
+
+        // Masques absents (profils antérieurs à la colonne) : recalculés par la reprise
+        jdbcTemplate.update("UPDATE users SET interests_mask = 0 WHERE id IN (?, ?)", same.getId(), wide.getId());
+        interestMaskBackfillJob.backfillInterestMasks();
+        assertEquals(InterestMasks.of(Set.of(Interest.SPORT, Interest.ART, Interest.YOGA, Interest.DANSE)),
+                userRepository.findById(same.getId()).orElseThrow().getInterestsMask());
+
+        // Classement par indice de Jaccard, limité à la ville et au nombre demandés
+        user("maskelsewhere", Gender.FEMME, "Nancy", LocalDate.of(1990, 6, 1),
+                Interest.SPORT, Interest.ART, Interest.YOGA, Interest.DANSE);
+        assertEquals(List.of("masksame", "maskhalf", "maskwide"), usernames(userService.findUsersWithSimilarInterests(me.getId(), " METZ ", 10)));
+        assertEquals(List.of("masksame", "maskhalf"), usernames(userService.findUsersWithSimilarInterests(me.getId(), "Metz", 2)));
+        assertTrue(usernames(userService.findUsersWithSimilarInterests(me.getId(), null, 1000)).contains("maskelsewhere"));
+
+        UserSearchRequest criteria = new UserSearchRequest();
+        criteria.setInterests(Set.of(Interest.CINEMA));
+        criteria.setCity("Metz");
+        assertEquals(Set.of("maskwide", "maskother"), new HashSet<>(usernames(userService.searchUsers(criteria, null, 100))));
+    }
+
+    private List<String> usernames(CursorPageResponse<UserResponse> page) {
+        return usernames(page.getItems());
+    }
+
+    private List<String> usernames(List<UserResponse> users) {
+        return users.stream().map(UserResponse::getUsername).collect(Collectors.toList());
+    }
+
+    private User user(String username, Gender gender, String city, LocalDate birthDate, Interest... interests) {
+        return users.create(username, user -> {
+            user.setGender(gender);
+            user.setCity(city);
+            user.setBirthDate(birthDate);
+            user.setInterests(new HashSet<>(Arrays.asList(interests)));
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package com.meetwo.service.conversation;
+
+import com.meetwo.dto.response.ConversationResponse;
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.MessageResponse;
+import com.meetwo.entity.User;
+import com.meetwo.service.LikeService;
+import com.meetwo.service.MessageService;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class ConversationInboxTest {
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void inboxIsServedFromTheSummariesWithKeysetPages() throws Exception {
+        User alice = users.create("inboxalice");
+        User bob = users.create("inboxbob");
+        User carol = users.create("inboxcarol");
+        match(alice, bob);
+        match(alice, carol);
+
+        messageService.sendMessage(alice.getId(), bob.getId(), "salut bob");
+        Thread.sleep(5);
+        messageService.sendMessage(bob.getId(), alice.getId(), "salut alice");
+        Thread.sleep(5);
+        messageService.sendMessage(carol.getId(), alice.getId(), "coucou");
+        Thread.sleep(5);
+        messageService.sendMessage(carol.getId(), alice.getId(), "x".repeat(300));
+
+        CursorPageResponse<ConversationResponse> firstPage = messageService.getUserConversations(alice.getId(), null, 1);
+        assertTrue(firstPage.isHasMore());
+        ConversationResponse withCarol = firstPage.getItems().get(0);
+        assertEquals(carol.getId(), withCarol.getConversationWithUserId());
+        assertEquals(2, withCarol.getUnreadCount());
+        assertEquals(200, withCarol.getLastMessage().getContent().length());
+        assertFalse(withCarol.getLastMessage().getIsRead());
+
+        CursorPageResponse<ConversationResponse> secondPage =
+                messageService.getUserConversations(alice.getId(), firstPage.getNextCursor(), 1);
+        assertFalse(secondPage.isHasMore());
+        assertEquals(bob.getId(), secondPage.getItems().get(0).getConversationWithUserId());
+        assertEquals(1, secondPage.getItems().get(0).getUnreadCount());
+
+        messageService.markConversationAsRead(alice.getId(), carol.getId());
+        assertEquals(0, messageService.countUnreadMessagesInConversation(alice.getId(), carol.getId()));
+
+        // Une conversation supprimée disparaît d'un seul côté, jusqu'au prochain message
+        messageService.deleteConversation(alice.getId(), bob.getId());
+        assertEquals(1, inbox(alice).size());
+        assertEquals(1, inbox(bob).size());
+        messageService.sendMessage(bob.getId(), alice.getId(), "reviens");
+        List<ConversationResponse> conversations = inbox(alice);
+        assertEquals(2, conversations.size());
+        assertEquals("reviens", conversations.get(0).getLastMessage().getContent());
+    }
+
+    @Test
+    void lastMessageDeletedOnOneSideIsReplacedForThatSideOnly() {
+        User alice = users.create("previewalice");
+        User bob = users.create("previewbob");
+        match(alice, bob);
+
+        MessageResponse first = messageService.sendMessage(alice.getId(), bob.getId(), "premier");
+        MessageResponse second = messageService.sendMessage(bob.getId(), alice.getId(), "second");
+
+        messageService.deleteMessage(second.getId(), bob.getId());
+        assertEquals("premier", inbox(bob).get(0).getLastMessage().getContent());
+        assertEquals(first.getId(), inbox(bob).get(0).getLastMessage().getId());
+        assertEquals("second", inbox(alice).get(0).getLastMessage().getContent());
+
+        messageService.deleteMessage(first.getId(), bob.getId());
+        assertNull(inbox(bob).get(0).getLastMessage());
+        assertEquals("second", inbox(alice).get(0).getLastMessage().getContent());
+
+        // Supprimé des deux côtés : le résumé passe au message précédent, toujours masqué pour bob
+        messageService.deleteMessage(second.getId(), alice.getId());
+        assertEquals("premier", inbox(alice).get(0).getLastMessage().getContent());
+        assertNull(inbox(bob).get(0).getLastMessage());
+
+        messageService.sendMessage(alice.getId(), bob.getId(), "nouveau");
+        assertEquals("nouveau", inbox(bob).get(0).getLastMessage().getContent());
+    }
+
+    private List<ConversationResponse> inbox(User user) {
+        return messageService.getUserConversations(user.getId(), null, 10).getItems();
+    }
+
+    private void match(User userA, User userB) {
+        likeService.likeUser(userA.getId(), userB.getId());
+        likeService.likeUser(userB.getId(), userA.getId());
+        outbox.drain();
+    }
+}
@@ -0,0 +1,82 @@
+package com.meetwo.service.conversation;
+
+import com.meetwo.entity.UserResponseStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ResponseTimeTrackerTest {
+
+    @Autowired
+    private ResponseTimeTracker responseTimeTracker;
+
+    @Test
+    void repliesAreAggregatedIntoTheHistogram() {
+        long responderId = 910_001L;
+        responseTimeTracker.recordReplies(responderId, List.of(Duration.ofSeconds(30), Duration.ofMinutes(20)));
+        responseTimeTracker.recordReplies(responderId, List.of(Duration.ofDays(30))); // Conversation relancée, ignorée
+
+        UserResponseStats stats = responseTimeTracker.getStats(responderId).orElseThrow();
+        assertEquals(2, stats.getResponseCount());
+        assertEquals(30 + 20 * 60, stats.getTotalResponseSeconds());
+        assertEquals(1, stats.getHistogram()[0]);
+        assertEquals(UserResponseStats.BUCKET_UPPER_BOUNDS_SECONDS.length + 1, stats.getHistogram().length);
+    }
+
+    @Test
+    void concurrentFirstRepliesAreAllRecorded() throws Exception {
+        long responderId = 910_002L;
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                responseTimeTracker.recordReplies(responderId, List.of(Duration.ofMinutes(1)));
+                return null;
+            }));
+        }
+        start.countDown();
+
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS); // Une clé primaire en double ferait échouer l'une des réponses
+        }
+        executor.shutdown();
+        assertEquals(threads, responseTimeTracker.getStats(responderId).orElseThrow().getResponseCount());
+    }
+
+    @Test
+    void percentilesAreReadFromTheHistogramBuckets() {
+        UserResponseStats stats = new UserResponseStats(1L);
+        for (int i = 0; i < 50; i++) {
+            stats.recordResponse(30);
+        }
+        for (int i = 0; i < 40; i++) {
+            stats.recordResponse(200);
+        }
+        for (int i = 0; i < 10; i++) {
+            stats.recordResponse(100_000);
+        }
+
+        assertEquals(30.0, stats.getPercentileSeconds(0.25), 0.001);
+        assertTrue(stats.getPercentileSeconds(0.5) <= 60);
+        assertTrue(stats.getPercentileSeconds(0.9) > 120 && stats.getPercentileSeconds(0.9) <= 300);
+        assertEquals(164_160.0, stats.getPercentileSeconds(0.99), 0.001);
+    }
+}
@@ -0,0 +1,132 @@
+package com.meetwo.service.discovery;
+
+import com.meetwo.dto.response.CursorPageResponse;
+import com.meetwo.dto.response.UserResponse;
+import com.meetwo.entity.User;
+import com.meetwo.enums.Gender;
+import com.meetwo.enums.Interest;
+import com.meetwo.service.LikeService;
+import com.meetwo.service.UserService;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Petites files pour que la pagination traverse plusieurs reconstructions
+@SpringBootTest(properties = {
+        "app.discovery.queue.pool-size=5",
+        "app.discovery.queue.refill-threshold=2"
+})
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class DiscoveryFeedTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void candidatesAreRankedBySharedInterestsAndFiltered() {
+        User me = user("feedme", Gender.HOMME, "Douarnenez", 1990, Interest.SPORT, Interest.ART, Interest.YOGA);
+        User best = user("feedbest", Gender.FEMME, "Douarnenez", 1991, Interest.SPORT, Interest.ART, Interest.YOGA);
+        User two = user("feedtwo", Gender.FEMME, "Douarnenez", 1985, Interest.SPORT, Interest.ART);
+        User none = user("feednone", Gender.FEMME, "Douarnenez", 1970);
+        User man = user("feedman", Gender.HOMME, "Douarnenez", 1992, Interest.SPORT);
+
+        CursorPageResponse<UserResponse> firstPage = userService.getDiscoveryCandidates(me.getId(), inCity(" DOUARNENEZ "), null, 3);
+        assertEquals(List.of(best.getId(), two.getId(), man.getId()), ids(firstPage));
+        assertTrue(firstPage.isHasMore());
+
+        DiscoveryFilter women = new DiscoveryFilter(Gender.FEMME, null, null, null, "Douarnenez");
+        assertEquals(List.of(best.getId(), two.getId(), none.getId()), ids(userService.getDiscoveryCandidates(me.getId(), women, null, 10)));
+        DiscoveryFilter older = new DiscoveryFilter(null, null, 45, 60, "Douarnenez");
+        assertEquals(List.of(none.getId()), ids(userService.getDiscoveryCandidates(me.getId(), older, null, 10)));
+
+        // Profils likés ou passés depuis la construction de la file : écartés au moment de servir la page
+        likeService.likeUser(me.getId(), best.getId());
+        likeService.passUser(me.getId(), two.getId());
+        outbox.drain();
+        assertEquals(Set.of(man.getId(), none.getId()), new HashSet<>(walk(me, inCity("Douarnenez"), false)));
+
+        assertThrows(IllegalArgumentException.class, () -> new DiscoveryFilter(null, null, 50, 20, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.getDiscoveryCandidates(me.getId(), DiscoveryFilter.NONE, "zz", 2));
+    }
+
+    @Test
+    void pagingWhileSwipingGoesThroughEveryCandidateOnce() {
+        User me = user("feedswiper", Gender.HOMME, "Concarneau", 1990, Interest.CINEMA);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            expected.add(user("feedcandidate" + i, Gender.FEMME, "Concarneau", 1995, Interest.CINEMA).getId());
+        }
+
+        List<Long> seen = walk(me, inCity("Concarneau"), true);
+        assertEquals(new HashSet<>(expected), new HashSet<>(seen));
+        assertEquals(expected.size(), seen.size());
+    }
+
+    // Parcourt les pages de 2 profils, en passant éventuellement chaque profil montré
+    private List<Long> walk(User user, DiscoveryFilter filter, boolean passShown) {
+        Set<Long> seen = new LinkedHashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResponse<UserResponse> page = userService.getDiscoveryCandidates(user.getId(), filter, cursor, 2);
+            for (Long id : ids(page)) {
+                assertTrue(seen.add(id), "Profil " + id + " servi deux fois");
+                if (passShown) {
+                    likeService.passUser(user.getId(), id);
+                }
+            }
+            cursor = page.getNextCursor();
+            if (page.getItems().isEmpty()) {
+                break;
+            }
+        } while (cursor != null && ++pages < 20);
+        assertFalse(pages == 20, "Pagination sans fin");
+        return new ArrayList<>(seen);
+    }
+
+    private DiscoveryFilter inCity(String city) {
+        return new DiscoveryFilter(null, null, null, null, city);
+    }
+
+    private List<Long> ids(CursorPageResponse<UserResponse> page) {
+        return page.getItems().stream().map(UserResponse::getId).collect(Collectors.toList());
+    }
+
+    private User user(String username, Gender gender, String city, int birthYear, Interest... interests) {
+        return users.create(username, user -> {
+            user.setGender(gender);
+            user.setCity(city);
+            user.setBirthDate(LocalDate.of(birthYear, 6, 1));
+            user.setInterests(new HashSet<>(Arrays.asList(interests)));
+        });
+    }
+}
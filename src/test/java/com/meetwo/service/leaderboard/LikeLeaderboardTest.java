@@ -0,0 +1,82 @@
+package com.meetwo.service.leaderboard;
+
+import com.meetwo.dto.response.MatchResponse;
+import com.meetwo.entity.User;
+import com.meetwo.enums.Gender;
+import com.meetwo.job.LikeLeaderboardJob;
+import com.meetwo.service.LikeService;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class LikeLeaderboardTest {
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private LikeLeaderboardJob likeLeaderboardJob;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void leaderboardFollowsReceivedLikeCounters() {
+        User first = user("boardfirst", Gender.FEMME);
+        User second = user("boardsecond", Gender.HOMME);
+        User third = user("boardthird", Gender.FEMME);
+        User fan = user("boardfan", Gender.HOMME);
+
+        likeService.likeUser(second.getId(), first.getId());
+        likeService.likeUser(third.getId(), first.getId());
+        likeService.likeUser(fan.getId(), first.getId());
+        likeService.likeUser(first.getId(), second.getId());
+        likeService.likeUser(fan.getId(), second.getId());
+        likeService.likeUser(fan.getId(), third.getId());
+        outbox.drain();
+        likeLeaderboardJob.refresh();
+
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), topIds(null));
+        assertEquals(List.of(first.getId(), third.getId()), topIds(Gender.FEMME));
+        assertEquals(List.of(second.getId()), topIds(Gender.HOMME));
+
+        // Un like retiré est reflété au rafraîchissement suivant, sans reconstruction
+        likeService.removeLike(second.getId(), first.getId());
+        likeService.removeLike(third.getId(), first.getId());
+        likeService.likeUser(third.getId(), second.getId());
+        outbox.drain();
+        likeLeaderboardJob.refresh();
+
+        assertEquals(List.of(second.getId(), first.getId(), third.getId()), topIds(null));
+        assertTrue(likeService.getTopLikedUsers(10, "Ailleurs", null).isEmpty());
+    }
+
+    private List<Long> topIds(Gender gender) {
+        // Classement segmenté sur la ville du test (la base est partagée avec les autres classes de test)
+        return likeService.getTopLikedUsers(10, " bourges ", gender).stream()
+                .map(MatchResponse::getMatchedUserId)
+                .toList();
+    }
+
+    private User user(String username, Gender gender) {
+        return users.create(username, user -> {
+            user.setGender(gender);
+            user.setCity("Bourges");
+        });
+    }
+}
@@ -0,0 +1,156 @@
+package com.meetwo.service.outbox;
+
+import com.meetwo.entity.LikeOutboxEvent;
+import com.meetwo.entity.User;
+import com.meetwo.enums.OutboxEventType;
+import com.meetwo.enums.OutboxStatus;
+import com.meetwo.repository.LikeCountersView;
+import com.meetwo.repository.LikeOutboxRepository;
+import com.meetwo.repository.UserRepository;
+import com.meetwo.service.LikeService;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class LikeOutboxTest {
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LikeOutboxRepository likeOutboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void likeSideEffectsAreAppliedByTheOutbox() {
+        User alice = users.create("outalice");
+        User bob = users.create("outbob");
+
+        likeService.likeUser(alice.getId(), bob.getId());
+        outbox.drain();
+        assertCounters(alice, 1, 0, 0);
+        assertCounters(bob, 0, 1, 0);
+        assertFalse(likeService.isMatch(alice.getId(), bob.getId()));
+
+        assertTrue(likeService.likeUser(bob.getId(), alice.getId()).isMatch());
+        outbox.drain();
+        assertCounters(alice, 1, 1, 1);
+        assertCounters(bob, 1, 1, 1);
+        assertEquals(1, likeService.countMatchesByUser(alice.getId()));
+
+        likeService.removeLike(bob.getId(), alice.getId());
+        outbox.drain();
+        assertCounters(alice, 1, 0, 0);
+        assertCounters(bob, 0, 1, 0);
+        assertEquals(0, likeService.countMatchesByUser(bob.getId()));
+    }
+
+    @Test
+    void replayingAProcessedEventDoesNotCountItTwice() {
+        User liker = users.create("replayliker");
+        User liked = users.create("replayliked");
+        likeService.likeUser(liker.getId(), liked.getId());
+        outbox.drain();
+
+        Long eventId = eventId(OutboxEventType.LIKE_CREATED, liker, liked);
+        assertEquals(OutboxStatus.PROCESSED, likeOutboxRepository.findById(eventId).orElseThrow().getStatus());
+
+        assertEquals(0, likeService.replayOutbox(eventId).getRequeued());
+        outbox.drain();
+        assertCounters(liker, 1, 0, 0);
+        assertCounters(liked, 0, 1, 0);
+    }
+
+    @Test
+    void replayingAFailedEventAppliesItOnce() {
+        User liker = users.create("failedliker");
+        User liked = users.create("failedliked");
+        // Like dont l'événement a épuisé ses essais : sa transaction n'a rien appliqué
+        jdbcTemplate.update("INSERT INTO likes (liker_id, liked_user_id, created_at, updated_at) VALUES (?, ?, NOW(), NOW())",
+                liker.getId(), liked.getId());
+        LikeOutboxEvent failed = failedEvent(OutboxEventType.LIKE_CREATED, liker, liked);
+        assertCounters(liked, 0, 0, 0);
+
+        assertEquals(1, likeService.replayOutbox(failed.getId()).getRequeued());
+        outbox.drain();
+        assertCounters(liker, 1, 0, 0);
+        assertCounters(liked, 0, 1, 0);
+
+        assertEquals(0, likeService.replayOutbox(failed.getId()).getRequeued());
+        outbox.drain();
+        assertCounters(liked, 0, 1, 0);
+    }
+
+    @Test
+    void removingAllLikesCommutesWithUnappliedLikeEvents() {
+        User leaving = users.create("leaving");
+        User friend = users.create("leavingfriend");
+        User fan = users.create("leavingfan");
+        likeService.likeUser(leaving.getId(), friend.getId());
+        likeService.likeUser(friend.getId(), leaving.getId());
+        outbox.drain();
+        assertEquals(1, likeService.countMatchesByUser(friend.getId()));
+
+        // Like du fan dont l'événement LIKE_CREATED n'est pas encore appliqué au moment de la suppression
+        jdbcTemplate.update("INSERT INTO likes (liker_id, liked_user_id, created_at, updated_at) VALUES (?, ?, NOW(), NOW())",
+                fan.getId(), leaving.getId());
+        LikeOutboxEvent late = failedEvent(OutboxEventType.LIKE_CREATED, fan, leaving);
+
+        likeService.removeAllLikesForUser(leaving.getId());
+        outbox.drain();
+        assertCounters(friend, 0, 0, 0);
+        assertCounters(leaving, 0, -1, 0); // Le +1 du fan n'est pas encore arrivé
+        assertFalse(likeService.isMatch(leaving.getId(), friend.getId()));
+
+        // L'événement retardé est finalement appliqué : son +1 compense le -1 déjà passé
+        likeService.replayOutbox(late.getId());
+        outbox.drain();
+        assertCounters(fan, 0, 0, 0);
+        assertCounters(leaving, 0, 0, 0);
+        assertEquals(0, likeService.countMatchesByUser(leaving.getId()));
+    }
+
+    private LikeOutboxEvent failedEvent(OutboxEventType type, User liker, User liked) {
+        LikeOutboxEvent event = new LikeOutboxEvent(type, liker.getId(), liked.getId(), LocalDateTime.now());
+        event.setStatus(OutboxStatus.FAILED);
+        event.setAttempts(10);
+        return likeOutboxRepository.save(event);
+    }
+
+    private Long eventId(OutboxEventType type, User liker, User liked) {
+        return jdbcTemplate.queryForObject("SELECT id_event FROM like_outbox WHERE event_type = ? AND liker_id = ? AND liked_user_id = ?",
+                Long.class, type.name(), liker.getId(), liked.getId());
+    }
+
+    private void assertCounters(User user, long likesGiven, long likesReceived, long matchesCount) {
+        LikeCountersView counters = userRepository.findLikeCountersById(user.getId()).orElseThrow();
+        assertEquals(likesGiven, counters.getLikesGiven(), "likes donnés de " + user.getUsername());
+        assertEquals(likesReceived, counters.getLikesReceived(), "likes reçus de " + user.getUsername());
+        assertEquals(matchesCount, counters.getMatchesCount(), "matches de " + user.getUsername());
+    }
+}
@@ -0,0 +1,161 @@
+package com.meetwo.service.pipeline;
+
+import com.meetwo.dto.request.CreateMessageRequest;
+import com.meetwo.dto.response.MessageResponse;
+import com.meetwo.dto.response.MessageSendPipelineStatsResponse;
+import com.meetwo.entity.User;
+import com.meetwo.exception.message.MessageNotAllowedException;
+import com.meetwo.service.LikeService;
+import com.meetwo.service.MessageService;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest(properties = {
+        "app.message.send-pipeline.enabled=true",
+        "app.message.send-pipeline.batch-window=20ms",
+        "app.message.send-pipeline.max-batch-size=16"
+})
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class MessageSendPipelineTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void concurrentSendsAreBatchedAndValidatedOneByOne() throws Exception {
+        User alice = users.create("pipealice");
+        User bob = users.create("pipebob");
+        User stranger = users.create("pipestranger");
+        match(alice, bob);
+        MessageSendPipelineStatsResponse before = messageService.getSendPipelineStats();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int n = i;
+            results.add(executor.submit(() -> {
+                try {
+                    // Un envoi sans match par tranche de 50 : refusé sans faire échouer son lot
+                    if (n % 50 == 0) {
+                        return messageService.sendMessage(alice.getId(), stranger.getId(), "refusé");
+                    }
+                    return n % 2 == 0
+                            ? messageService.sendMessage(alice.getId(), bob.getId(), "m" + n)
+                            : messageService.sendMessage(bob.getId(), alice.getId(), "m" + n);
+                } catch (MessageNotAllowedException e) {
+                    return e;
+                }
+            }));
+        }
+
+        Set<Long> messageIds = new HashSet<>();
+        int rejected = 0;
+        for (Future<Object> result : results) {
+            Object outcome = result.get(60, TimeUnit.SECONDS);
+            if (outcome instanceof MessageNotAllowedException) {
+                rejected++;
+            } else {
+                messageIds.add(((MessageResponse) outcome).getId());
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(4, rejected);
+        assertEquals(196, messageIds.size());
+        MessageSendPipelineStatsResponse after = messageService.getSendPipelineStats();
+        assertEquals(196, after.getMessages() - before.getMessages());
+        assertTrue(after.getBatches() - before.getBatches() < 196, "Les envois concurrents doivent être regroupés");
+        assertEquals(96, messageService.countUnreadMessagesInConversation(bob.getId(), alice.getId()));
+        assertEquals(100, messageService.countUnreadMessagesInConversation(alice.getId(), bob.getId()));
+        assertEquals(196, messageService.getConversation(alice.getId(), bob.getId(), null, null, 200).getItems().size());
+    }
+
+    @Test
+    void throughputOf400SendsFrom32Threads() throws Exception {
+        User alice = users.create("benchalice");
+        User bob = users.create("benchbob");
+        match(alice, bob);
+        MessageSendPipelineStatsResponse before = messageService.getSendPipelineStats();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<MessageResponse>> results = new ArrayList<>();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 400; i++) {
+            int n = i;
+            results.add(executor.submit(() -> n % 2 == 0
+                    ? messageService.sendMessage(alice.getId(), bob.getId(), "w" + n)
+                    : messageService.sendMessage(bob.getId(), alice.getId(), "w" + n)));
+        }
+        Set<Long> messageIds = new HashSet<>();
+        for (Future<MessageResponse> result : results) {
+            messageIds.add(result.get(60, TimeUnit.SECONDS).getId());
+        }
+        double elapsedMs = (System.nanoTime() - startedAt) / 1_000_000.0;
+        executor.shutdown();
+
+        MessageSendPipelineStatsResponse after = messageService.getSendPipelineStats();
+        long batches = after.getBatches() - before.getBatches();
+        log.info("400 envois depuis {} threads en {} ms ({} messages/s), {} lots, écriture moyenne d'un lot {} ms",
+                THREADS, Math.round(elapsedMs), Math.round(400 / (elapsedMs / 1000)), batches,
+                Math.round(after.getAverageBatchWriteMs()));
+
+        assertEquals(400, messageIds.size());
+        assertEquals(400, after.getMessages() - before.getMessages());
+        assertTrue(400.0 / batches > 2, "Lots moyens de " + (400.0 / batches) + " messages");
+        assertEquals(200, messageService.countUnreadMessagesInConversation(bob.getId(), alice.getId()));
+    }
+
+    @Test
+    void asyncSendCompletesAfterCommit() throws Exception {
+        User alice = users.create("asyncalice");
+        User bob = users.create("asyncbob");
+        match(alice, bob);
+
+        CreateMessageRequest request = new CreateMessageRequest();
+        request.setSenderId(alice.getId());
+        request.setReceiverId(bob.getId());
+        request.setContent("asynchrone");
+        MessageResponse response = messageService.sendMessageAsync(request).get(5, TimeUnit.SECONDS);
+
+        assertEquals("asynchrone", messageService.getMessageById(response.getId()).getContent());
+        assertEquals("asynchrone", messageService.getUserConversations(bob.getId(), null, 5)
+                .getItems().get(0).getLastMessage().getContent());
+    }
+
+    private void match(User userA, User userB) {
+        likeService.likeUser(userA.getId(), userB.getId());
+        likeService.likeUser(userB.getId(), userA.getId());
+        outbox.drain();
+    }
+}
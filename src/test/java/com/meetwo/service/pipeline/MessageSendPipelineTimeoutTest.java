@@ -0,0 +1,56 @@
+package com.meetwo.service.pipeline;
+
+import com.meetwo.entity.User;
+import com.meetwo.exception.message.MessageSendTimeoutException;
+import com.meetwo.service.LikeService;
+import com.meetwo.service.MessageService;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "app.message.send-pipeline.enabled=true",
+        "app.message.send-pipeline.batch-window=300ms",
+        "app.message.send-pipeline.send-timeout=20ms"
+})
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class MessageSendPipelineTimeoutTest {
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Autowired
+    private TestUsers users;
+
+    @Test
+    void sendNotPickedUpBeforeTheTimeoutIsNeverWritten() throws Exception {
+        User alice = users.create("timeoutalice");
+        User bob = users.create("timeoutbob");
+        likeService.likeUser(alice.getId(), bob.getId());
+        likeService.likeUser(bob.getId(), alice.getId());
+        outbox.drain();
+
+        // Le lot attend sa fenêtre de 300 ms : l'appelant abandonne après 20 ms et l'envoi est annulé
+        assertThrows(MessageSendTimeoutException.class,
+                () -> messageService.sendMessage(alice.getId(), bob.getId(), "abandonné"));
+        Thread.sleep(600);
+
+        assertEquals(0, messageService.getConversation(bob.getId(), alice.getId(), null, null, 10).getItems().size());
+        assertEquals(0, messageService.countUnreadMessagesInConversation(bob.getId(), alice.getId()));
+        assertEquals(0, messageService.getSendPipelineStats().getMessages());
+    }
+}
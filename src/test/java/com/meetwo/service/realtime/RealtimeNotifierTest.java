@@ -0,0 +1,165 @@
+package com.meetwo.service.realtime;
+
+import com.meetwo.dto.response.MessageResponse;
+import com.meetwo.entity.User;
+import com.meetwo.security.JwtUtil;
+import com.meetwo.service.LikeService;
+import com.meetwo.service.MessageService;
+import com.meetwo.support.LikeOutboxDrainer;
+import com.meetwo.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Import({LikeOutboxDrainer.class, TestUsers.class})
+class RealtimeNotifierTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private TestUsers users;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private LikeOutboxDrainer outbox;
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void matchesMessagesReceiptsAndTypingArePushedToTheUserQueues() throws Exception {
+        User alice = users.create("pushalice");
+        User bob = users.create("pushbob");
+        StompSession aliceSession = connect(jwtUtil.generateToken(alice));
+        StompSession bobSession = connect(jwtUtil.generateToken(bob));
+        BlockingQueue<Map> bobMatches = subscribe(bobSession, "/user/queue/matches", Map.class);
+        BlockingQueue<MessageResponse> bobMessages = subscribe(bobSession, "/user/queue/messages", MessageResponse.class);
+        BlockingQueue<Map> aliceReceipts = subscribe(aliceSession, "/user/queue/read-receipts", Map.class);
+        BlockingQueue<Map> bobTyping = subscribe(bobSession, "/user/queue/typing", Map.class);
+        // Laisse aux abonnements le temps d'être enregistrés côté serveur
+        Thread.sleep(300);
+
+        likeService.likeUser(alice.getId(), bob.getId());
+        likeService.likeUser(bob.getId(), alice.getId());
+        outbox.drain();
+        Map match = bobMatches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(match);
+        assertEquals(alice.getId(), ((Number) match.get("matchedUserId")).longValue());
+
+        messageService.sendMessage(alice.getId(), bob.getId(), "hello");
+        MessageResponse message = bobMessages.poll(5, TimeUnit.SECONDS);
+        assertNotNull(message);
+        assertEquals("hello", message.getContent());
+
+        messageService.markConversationAsRead(bob.getId(), alice.getId());
+        Map receipt = aliceReceipts.poll(5, TimeUnit.SECONDS);
+        assertNotNull(receipt);
+        assertEquals(bob.getId(), ((Number) receipt.get("readerId")).longValue());
+
+        aliceSession.send("/app/typing", Map.of("receiverId", bob.getId(), "typing", true));
+        Map typing = bobTyping.poll(5, TimeUnit.SECONDS);
+        assertNotNull(typing);
+        assertEquals(true, typing.get("typing"));
+    }
+
+    @Test
+    void sendsAndSubscriptionsOutsideTheOwnQueuesAreRejected() throws Exception {
+        User mallory = users.create("forgemallory");
+        User victim = users.create("forgevictim");
+        BlockingQueue<String> malloryErrors = new LinkedBlockingQueue<>();
+        StompSession mallorySession = connect(jwtUtil.generateToken(mallory), malloryErrors);
+        StompSession victimSession = connect(jwtUtil.generateToken(victim));
+        BlockingQueue<MessageResponse> victimMessages = subscribe(victimSession, "/user/queue/messages", MessageResponse.class);
+        Thread.sleep(300);
+
+        // Message forgé directement dans la file privée de la victime, sans passer par /app
+        mallorySession.send("/user/" + victim.getId() + "/queue/messages", Map.of("content", "forged"));
+        String error = malloryErrors.poll(5, TimeUnit.SECONDS);
+        assertNotNull(error);
+        assertTrue(error.contains("Destination STOMP non autorisée"), error);
+        assertNull(victimMessages.poll(500, TimeUnit.MILLISECONDS));
+
+        StompSession spySession = connect(jwtUtil.generateToken(mallory), malloryErrors);
+        subscribe(spySession, "/user/" + victim.getId() + "/queue/messages", MessageResponse.class);
+        error = malloryErrors.poll(5, TimeUnit.SECONDS);
+        assertNotNull(error);
+        assertTrue(error.contains("Destination STOMP non autorisée"), error);
+    }
+
+    @Test
+    void connectionsWithoutAValidTokenAreRejected() {
+        assertThrows(Exception.class, () -> connect(null));
+        assertThrows(Exception.class, () -> connect("garbage"));
+    }
+
+    private StompSession connect(String token) throws Exception {
+        return connect(token, new LinkedBlockingQueue<>());
+    }
+
+    private StompSession connect(String token, BlockingQueue<String> errors) throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.getObjectMapper().findAndRegisterModules();
+        client.setMessageConverter(converter);
+        StompHeaders headers = new StompHeaders();
+        if (token != null) {
+            headers.add("Authorization", "Bearer " + token);
+        }
+        return client.connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(), headers,
+                new StompSessionHandlerAdapter() {
+                    @Override
+                    public void handleFrame(StompHeaders headers, Object payload) {
+                        // Trames ERROR du serveur : le motif du refus est dans le header "message"
+                        errors.add(String.valueOf(headers.getFirst("message")));
+                    }
+                }).get(5, TimeUnit.SECONDS);
+    }
+
+    private <T> BlockingQueue<T> subscribe(StompSession session, String destination, Class<T> payloadType) {
+        BlockingQueue<T> received = new LinkedBlockingQueue<>();
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return payloadType;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add(payloadType.cast(payload));
+            }
+        });
+        return received;
+    }
+}
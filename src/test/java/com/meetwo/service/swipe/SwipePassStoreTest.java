@@ -0,0 +1,66 @@
+package com.meetwo.service.swipe;
+
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SwipePassStoreTest {
+
+    @Autowired
+    private SwipePassStore swipePassStore;
+
+    @Test
+    void recordPassesIgnoresAlreadyPassedProfiles() {
+        long userId = 900_001L;
+        assertEquals(2, swipePassStore.recordPasses(userId, List.of(11L, 12L)));
+        assertEquals(1, swipePassStore.recordPasses(userId, List.of(12L, 13L)));
+        assertEquals(0, swipePassStore.recordPasses(userId, List.of(11L)));
+
+        assertTrue(swipePassStore.hasPassed(userId, 13L));
+        assertFalse(swipePassStore.hasPassed(userId, 14L));
+        assertEquals(3, swipePassStore.getPassedUserIds(userId).getLongCardinality());
+    }
+
+    @Test
+    void concurrentFirstPassesDoNotCollide() throws Exception {
+        long userId = 900_002L;
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            long passedUserId = 100L + i;
+            results.add(executor.submit(() -> {
+                start.await();
+                return swipePassStore.recordPasses(userId, List.of(passedUserId));
+            }));
+        }
+        start.countDown();
+
+        int added = 0;
+        for (Future<Integer> result : results) {
+            added += result.get(30, TimeUnit.SECONDS); // Une clé primaire en double ferait échouer l'une des passes
+        }
+        executor.shutdown();
+
+        Roaring64NavigableMap passed = swipePassStore.getPassedUserIds(userId);
+        assertEquals(threads, added);
+        assertEquals(threads, passed.getLongCardinality());
+    }
+}
@@ -0,0 +1,36 @@
+package com.meetwo.support;
+
+import com.meetwo.enums.OutboxStatus;
+import com.meetwo.repository.LikeOutboxRepository;
+import com.meetwo.service.outbox.LikeOutboxDispatcher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Attend que les événements de l'outbox des likes soient traités (effets de bord asynchrones)
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class LikeOutboxDrainer {
+
+    private final LikeOutboxRepository likeOutboxRepository;
+    private final LikeOutboxDispatcher likeOutboxDispatcher;
+
+    public void drain() {
+        for (int attempt = 0; attempt < 250; attempt++) {
+            if (likeOutboxRepository.countByStatus(OutboxStatus.PENDING) == 0) {
+                return;
+            }
+            likeOutboxDispatcher.dispatchDue();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Attente de l'outbox interrompue");
+            }
+        }
+        fail("Événements de l'outbox toujours en attente");
+    }
+}
@@ -0,0 +1,30 @@
+package com.meetwo.support;
+
+import com.meetwo.entity.User;
+import com.meetwo.enums.Gender;
+import com.meetwo.enums.RelationshipType;
+import com.meetwo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.util.function.Consumer;
+
+/**
+ * Crée les utilisateurs des tests d'intégration : valeurs par défaut, ajustables avant l'enregistrement
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class TestUsers {
+
+    private final UserRepository userRepository;
+
+    public User create(String username) {
+        return create(username, user -> { });
+    }
+
+    public User create(String username, Consumer<User> customizer) {
+        User user = new User(username, username + "@meetwo.fr", "secret", Gender.FEMME, RelationshipType.RELATION_SERIEUSE);
+        customizer.accept(user);
+        return userRepository.save(user);
+    }
+}
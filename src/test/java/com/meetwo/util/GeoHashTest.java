@@ -0,0 +1,55 @@
+package com.meetwo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoHashTest {
+
+    @Test
+    void encodesKnownPositions() {
+        assertEquals("u09tv", GeoHash.encode(48.8566, 2.3522, 5));
+        assertEquals("ezs42", GeoHash.encode(42.605, -5.603, 5));
+    }
+
+    @Test
+    void coveringCellsContainEveryPointOfTheCircle() {
+        Random random = new Random(1);
+        for (int k = 0; k < 2000; k++) {
+            double latitude = random.nextDouble() * 170 - 85;
+            double longitude = random.nextDouble() * 360 - 180;
+            double radius = 0.5 + random.nextDouble() * 100;
+            int precision = GeoHash.precisionFor(latitude, radius, 9);
+            Set<String> cells = GeoHash.coveringCells(latitude, longitude, radius, precision);
+            assertTrue(cells.size() <= 9 || precision == 3, cells.size() + " cellules à la précision " + precision);
+
+            for (int t = 0; t < 20; t++) {
+                double bearing = random.nextDouble() * 2 * Math.PI;
+                double distance = random.nextDouble() * radius;
+                double pointLatitude = latitude + Math.toDegrees(distance / 6371.0 * Math.cos(bearing));
+                double pointLongitude = longitude
+                        + Math.toDegrees(distance / 6371.0 * Math.sin(bearing) / Math.cos(Math.toRadians(pointLatitude)));
+                if (pointLongitude > 180) {
+                    pointLongitude -= 360;
+                } else if (pointLongitude < -180) {
+                    pointLongitude += 360;
+                }
+                if (GeoHash.distanceKm(latitude, longitude, pointLatitude, pointLongitude) > radius) {
+                    continue;
+                }
+                assertTrue(cells.contains(GeoHash.encode(pointLatitude, pointLongitude, precision)),
+                        "Cellule manquante autour de " + latitude + ", " + longitude + " (rayon " + radius + ")");
+            }
+        }
+    }
+
+    @Test
+    void coveringCellsWrapAroundTheAntimeridian() {
+        Set<String> cells = GeoHash.coveringCells(0, 179.99, 5, 5);
+        assertTrue(cells.contains(GeoHash.encode(0, -179.99, 5)));
+    }
+}
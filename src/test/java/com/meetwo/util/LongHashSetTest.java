@@ -0,0 +1,36 @@
+package com.meetwo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LongHashSetTest {
+
+    @Test
+    void behavesLikeAHashSetUnderRandomOperations() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            LongHashSet set = new LongHashSet();
+            Set<Long> reference = new HashSet<>();
+            // Petites plages : beaucoup de collisions, de suppressions et de réinsertions
+            int range = 1 + random.nextInt(2000);
+            for (int i = 0; i < 20000; i++) {
+                long value = random.nextInt(range) - 5;
+                switch (random.nextInt(3)) {
+                    case 0 -> assertEquals(reference.add(value), set.add(value));
+                    case 1 -> assertEquals(reference.remove(value), set.remove(value));
+                    default -> assertEquals(reference.contains(value), set.contains(value));
+                }
+                assertEquals(reference.size(), set.size());
+            }
+
+            Set<Long> iterated = new HashSet<>();
+            set.forEach(iterated::add);
+            assertEquals(reference, iterated);
+        }
+    }
+}